@@ -16,7 +16,10 @@
 
 package juzu;
 
+import juzu.impl.common.ByteRange;
 import juzu.impl.common.Formatting;
+import juzu.impl.common.Tools;
+import juzu.impl.io.FileRangeInputStream;
 import juzu.io.ChunkBuffer;
 import juzu.io.Stream;
 import juzu.io.Streamable;
@@ -31,6 +34,7 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.StringReader;
 import java.nio.charset.Charset;
@@ -462,6 +466,138 @@ public abstract class Response {
     }
   }
 
+  /**
+   * A body that can be partially sent when the request specifies a byte range with the <code>Range</code> header,
+   * allowing a client to resume a download or to seek in a media content. The body is sent with
+   * the <code>Accept-Ranges</code> and <code>ETag</code> headers, it is sent as is and never compressed.
+   */
+  public static class Ranged extends Body {
+
+    /** The content held in memory. */
+    private final byte[] bytes;
+
+    /** The content stored in a file. */
+    private final java.io.File file;
+
+    /** . */
+    private final long length;
+
+    /** The last modified date or 0 when it is unknown. */
+    private final long lastModified;
+
+    /** The entity tag, a weak tag is never used for validating a range. */
+    private final String etag;
+
+    private Ranged(byte[] bytes, java.io.File file, long length, long lastModified, String etag) {
+      super(200, new PropertyMap(), null);
+
+      //
+      this.bytes = bytes;
+      this.file = file;
+      this.length = length;
+      this.lastModified = lastModified;
+      this.etag = etag;
+
+      //
+      withHeader("Accept-Ranges", "bytes");
+      withHeader("ETag", etag);
+    }
+
+    public Ranged(byte[] content) throws NullPointerException {
+      this(content, null, content.length, 0, '"' + Long.toHexString(Tools.md5(content)) + '"');
+    }
+
+    public Ranged(java.io.File content) throws NullPointerException {
+      this(null, content, content.length(), content.lastModified(), "W/\"" + Tools.etag(content.getAbsolutePath(), content.lastModified()) + '"');
+    }
+
+    public long getLength() {
+      return length;
+    }
+
+    public String getETag() {
+      return etag;
+    }
+
+    @Override
+    public Streamable getData() {
+      return streamable(0, length);
+    }
+
+    private Streamable streamable(final long offset, final long length) {
+      return new Streamable() {
+        public void send(Stream stream) throws IllegalStateException {
+          if (bytes != null) {
+            stream.provide(Chunk.create(new ByteArrayInputStream(bytes, (int)offset, (int)length)));
+          } else {
+            stream.provide(Chunk.create(new FileRangeInputStream(file, offset, length)));
+          }
+          stream.close(null);
+        }
+      };
+    }
+
+    /**
+     * Select the response to send for the <code>Range</code> and <code>If-Range</code> headers of a request:
+     * this response when the whole content is sent, a <code>206</code> response with the selected range or
+     * a <code>416</code> response when the range cannot be satisfied.
+     *
+     * @param range the range header value
+     * @param ifRange the if range header value
+     * @return the response to send
+     */
+    public Status select(String range, String ifRange) {
+      ByteRange selected = ByteRange.matchesIfRange(ifRange, etag, lastModified) ? ByteRange.parse(range, length) : null;
+      if (selected == null) {
+        return this;
+      } else {
+        PropertyMap properties = new PropertyMap(this.properties);
+        properties.addValue(PropertyType.HEADER, new AbstractMap.SimpleEntry<String, String[]>("Content-Range", new String[]{selected.getContentRange(length)}));
+        if (selected == ByteRange.NOT_SATISFIABLE) {
+          return new Status(416, properties);
+        } else {
+          properties.addValue(PropertyType.HEADER, new AbstractMap.SimpleEntry<String, String[]>("Content-Length", new String[]{Long.toString(selected.getLength())}));
+          return new Body(206, properties, streamable(selected.first, selected.getLength()));
+        }
+      }
+    }
+
+    @Override
+    public <T> Ranged with(PropertyType<T> propertyType, T propertyValue) throws NullPointerException {
+      return (Ranged)super.with(propertyType, propertyValue);
+    }
+
+    @Override
+    public <T> Ranged without(PropertyType<T> propertyType) throws NullPointerException {
+      return (Ranged)super.without(propertyType);
+    }
+
+    @Override
+    public Ranged with(PropertyType<Boolean> propertyType) throws NullPointerException {
+      return (Ranged)super.with(propertyType);
+    }
+
+    @Override
+    public Ranged withNo(PropertyType<Boolean> propertyType) throws NullPointerException {
+      return (Ranged)super.withNo(propertyType);
+    }
+
+    @Override
+    public Ranged withMimeType(String mimeType) {
+      return (Ranged)super.withMimeType(mimeType);
+    }
+
+    @Override
+    public Ranged withCharset(Charset charset) {
+      return (Ranged)super.withCharset(charset);
+    }
+
+    @Override
+    public Ranged withHeader(String name, String... value) {
+      return (Ranged)super.withHeader(name, value);
+    }
+  }
+
   public static class Content extends Body {
 
     public Content(int status, PropertyMap properties, Streamable streamable) {
@@ -705,6 +841,14 @@ public abstract class Response {
     return content(200, content);
   }
 
+  public static Ranged ranged(byte[] content) {
+    return new Ranged(content);
+  }
+
+  public static Ranged ranged(java.io.File content) {
+    return new Ranged(content);
+  }
+
   public static Content notFound(byte[] content) {
     return content(404, content);
   }
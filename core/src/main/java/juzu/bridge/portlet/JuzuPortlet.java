@@ -28,6 +28,7 @@ import juzu.impl.bridge.provided.ProvidedBridge;
 import juzu.impl.bridge.spi.portlet.PortletEventBridge;
 import juzu.impl.bridge.spi.portlet.PortletViewBridge;
 import juzu.impl.bridge.spi.servlet.AbstractBridgeContext;
+import juzu.impl.common.Completion;
 import juzu.impl.common.JUL;
 import juzu.impl.fs.spi.ReadFileSystem;
 import juzu.impl.fs.spi.war.WarFileSystem;
@@ -83,6 +84,9 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet, EventPortle
   /** . */
   private PortletConfig config;
 
+  /** The module used by the bridge. */
+  private ModuleContextImpl module;
+
   public void init(final PortletConfig config) throws PortletException {
 
     //
@@ -212,6 +216,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet, EventPortle
     if (module == null) {
       context.setAttribute("juzu.module", module = new ModuleContextImpl(portletLogger, bridgeContext, resolver));
     }
+    module.retain();
 
     //
     Bridge bridge;
@@ -224,6 +229,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet, EventPortle
     //
     this.config = config;
     this.bridge = bridge;
+    this.module = module;
   }
 
   /**
@@ -298,17 +304,23 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet, EventPortle
     }
   }
 
-  private boolean initialized = false;
+  /** Set once the application is started, the application is then refreshed by the request bridges in a dynamic run mode. */
+  private volatile boolean initialized = false;
 
-  public void render(final RenderRequest req, final RenderResponse resp) throws PortletException, IOException {
+  private void initialize() throws PortletException {
 
     // THIS CODE SHOULD BE REMOVED
     // BECAUSE IT DOES NOT BEHAVE CORRECTLY WHEN USED IN PRETTY FAIL MODE
     // AND IT IS ALSO HANDLED IN THE REQUEST BRIDGE
     if (!initialized) {
       try {
-        bridge.refresh();
-        initialized = true;
+        Completion<Boolean> refresh = bridge.refresh();
+        if (!refresh.isFailed()) {
+          initialized = true;
+        } else if (!bridge.getRunMode().isDynamic()) {
+          // The request bridges refresh a failed application only in a dynamic run mode
+          throw refresh.getCause();
+        }
       }
       catch (Exception e) {
         String msg = "Could not initialize application";
@@ -323,6 +335,11 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet, EventPortle
         }
       }
     }
+  }
+
+  public void render(final RenderRequest req, final RenderResponse resp) throws PortletException, IOException {
+
+    initialize();
 
     //
     try {
@@ -337,27 +354,7 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet, EventPortle
 
   public void serveResource(final ResourceRequest req, final ResourceResponse resp) throws PortletException, IOException {
 
-    // THIS CODE SHOULD BE REMOVED
-    // BECAUSE IT DOES NOT BEHAVE CORRECTLY WHEN USED IN PRETTY FAIL MODE
-    // AND IT IS ALSO HANDLED IN THE REQUEST BRIDGE
-    if (!initialized) {
-      try {
-        bridge.refresh();
-        initialized = true;
-      }
-      catch (Exception e) {
-        String msg = "Could not initialize application";
-        if (e instanceof PortletException) {
-          String nested = e.getMessage();
-          if (nested != null) {
-            msg += ":" + nested;
-          }
-          throw new PortletException(msg, e.getCause());
-        } else {
-          throw new PortletException(msg, e);
-        }
-      }
-    }
+    initialize();
 
     //
     try {
@@ -372,5 +369,8 @@ public class JuzuPortlet implements Portlet, ResourceServingPortlet, EventPortle
 
   public void destroy() {
     Tools.safeClose(bridge);
+    if (module != null && module.release()) {
+      config.getPortletContext().removeAttribute("juzu.module");
+    }
   }
 }
@@ -26,10 +26,16 @@ import juzu.asset.AssetLocation;
  *
  * <p>Asset values provide an explicit asset with a location and an URI that will be used to resolve fully the asset.</p>
  *
+ * <p>An application asset can have a fingerprint computed from its content at compilation time. Its fingerprinted URI
+ * prefixes the URI with the fingerprint, such URI changes with the asset content and can be cached forever.</p>
+ *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
 public class Asset {
 
+  /** The prefix of the fingerprint segment of an URI. */
+  public static final String FINGERPRINT_PREFIX = "/-";
+
   /** . */
   private final String id;
 
@@ -51,6 +57,15 @@ public class Asset {
   /** . */
   private final Integer maxAge;
 
+  /** . */
+  private final String fingerprint;
+
+  /** . */
+  private final String fingerprintedURI;
+
+  /** . */
+  private final String minifiedFingerprintedURI;
+
   /**
    * Create an asset.
    *
@@ -60,6 +75,20 @@ public class Asset {
    * @param maxAge the asset max age
    */
   public Asset(String id, String type, Boolean header, AssetLocation location, String uri, String minifiedURI, Integer maxAge) {
+    this(id, type, header, location, uri, minifiedURI, maxAge, null, null);
+  }
+
+  /**
+   * Create an asset with fingerprints.
+   *
+   * @param id the asset id
+   * @param location the asset location
+   * @param uri the asset uri
+   * @param maxAge the asset max age
+   * @param fingerprint the uri fingerprint
+   * @param minifiedFingerprint the minified uri fingerprint
+   */
+  public Asset(String id, String type, Boolean header, AssetLocation location, String uri, String minifiedURI, Integer maxAge, String fingerprint, String minifiedFingerprint) {
     this.id = id;
     this.type = type;
     this.location = location;
@@ -67,6 +96,17 @@ public class Asset {
     this.minifiedURI = minifiedURI;
     this.maxAge = maxAge;
     this.header = header;
+    this.fingerprint = fingerprint;
+    this.fingerprintedURI = fingerprint(location, uri, fingerprint);
+    this.minifiedFingerprintedURI = fingerprint(location, minifiedURI, minifiedFingerprint);
+  }
+
+  private static String fingerprint(AssetLocation location, String uri, String fingerprint) {
+    if (fingerprint != null && location == AssetLocation.APPLICATION && uri != null && uri.startsWith("/")) {
+      return FINGERPRINT_PREFIX + fingerprint + uri;
+    } else {
+      return uri;
+    }
   }
 
   public Boolean getHeader() {
@@ -93,8 +133,23 @@ public class Asset {
     return minifiedURI;
   }
 
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * Resolve the URI of the asset, the production URI is the fingerprinted URI of the minified asset when it
+   * exists, or of the asset otherwise.
+   *
+   * @param prod true for the production URI
+   * @return the URI
+   */
   public String resolveURI(boolean prod) {
-    return minifiedURI != null && prod ? minifiedURI : uri;
+    if (prod) {
+      return minifiedURI != null ? minifiedFingerprintedURI : fingerprintedURI;
+    } else {
+      return uri;
+    }
   }
 
   public Integer getMaxAge() {
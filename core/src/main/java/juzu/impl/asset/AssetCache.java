@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.asset;
+
+import juzu.impl.common.ContentEncoding;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of asset contents bounded by the total size of the contents and of their encoded copies, the least
+ * recently used contents are evicted first.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class AssetCache {
+
+  /**
+   * The content of an asset along with the values of its response headers.
+   */
+  static class Entry {
+
+    /** . */
+    final long lastModified;
+
+    /** . */
+    final byte[] data;
+
+    /** The strong entity tag of the content. */
+    final String etag;
+
+    /** . */
+    final String contentType;
+
+    /** The content encoded by coding. */
+    private final ConcurrentHashMap<String, byte[]> encodings;
+
+    /** The cache retaining the entry or null. */
+    private volatile AssetCache cache;
+
+    /** The size of the entry accounted by the cache, guarded by the cache monitor. */
+    private long size;
+
+    Entry(long lastModified, byte[] data, String etag, String contentType) {
+      this.lastModified = lastModified;
+      this.data = data;
+      this.etag = etag;
+      this.contentType = contentType;
+      this.encodings = new ConcurrentHashMap<String, byte[]>(2);
+    }
+
+    /**
+     * Returns the content encoded with the specified coding, the encoded content is retained.
+     *
+     * @param coding the coding
+     * @return the encoded content or null when the content is too small to be encoded
+     */
+    byte[] getEncoded(String coding) {
+      if (data.length < ContentEncoding.MIN_SIZE) {
+        return null;
+      }
+      byte[] encoded = encodings.get(coding);
+      if (encoded == null) {
+        encoded = ContentEncoding.encode(coding, data);
+        byte[] previous = encodings.putIfAbsent(coding, encoded);
+        if (previous != null) {
+          encoded = previous;
+        } else {
+          AssetCache cache = this.cache;
+          if (cache != null) {
+            cache.grow(this, encoded.length);
+          }
+        }
+      }
+      return encoded;
+    }
+  }
+
+  /** . */
+  private final LinkedHashMap<String, Entry> entries;
+
+  /** . */
+  private final long maxSize;
+
+  /** . */
+  private long size;
+
+  AssetCache(long maxSize) {
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    this.maxSize = maxSize;
+    this.size = 0;
+  }
+
+  synchronized Entry get(String key) {
+    return entries.get(key);
+  }
+
+  synchronized void put(String key, Entry entry) {
+    Entry previous = entries.put(key, entry);
+    if (previous != null) {
+      remove(previous);
+    }
+    entry.cache = this;
+    entry.size = entry.data.length;
+    for (byte[] encoded : entry.encodings.values()) {
+      entry.size += encoded.length;
+    }
+    size += entry.size;
+    evict(entry);
+  }
+
+  /**
+   * Account the encoded copy of a content, the entry may have been removed meanwhile.
+   */
+  private synchronized void grow(Entry entry, int length) {
+    if (entry.cache == this) {
+      entry.size += length;
+      size += length;
+      evict(entry);
+    }
+  }
+
+  private void evict(Entry entry) {
+    for (Iterator<Entry> i = entries.values().iterator();size > maxSize && i.hasNext();) {
+      Entry eldest = i.next();
+      if (eldest != entry) {
+        i.remove();
+        remove(eldest);
+      }
+    }
+  }
+
+  private void remove(Entry entry) {
+    size -= entry.size;
+    entry.cache = null;
+    entry.size = 0;
+  }
+
+  synchronized long getSize() {
+    return size;
+  }
+
+  synchronized void clear() {
+    for (Entry entry : entries.values()) {
+      entry.cache = null;
+      entry.size = 0;
+    }
+    entries.clear();
+    size = 0;
+  }
+}
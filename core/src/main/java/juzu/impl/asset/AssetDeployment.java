@@ -82,7 +82,38 @@ public class AssetDeployment {
       Integer maxAge,
       URL resource,
       Set<String> dependencies) throws NullPointerException, IllegalArgumentException {
-    assets.add(new AssetNode(id, type, location, value, header, minifiedValue, maxAge, resource, dependencies));
+    return addAsset(id, type, location, value, header, minifiedValue, maxAge, null, null, resource, dependencies);
+  }
+
+  /**
+   * Attempt to add an asset having fingerprints to the manager, the fingerprints are the hash of the value
+   * and minified value contents.
+   *
+   * @param id the asset id
+   * @param type the asset type
+   * @param location the asset location
+   * @param value the asset value
+   * @param header the header setting
+   * @param minifiedValue the header minified value
+   * @param maxAge the asset max age
+   * @param fingerprint the value fingerprint
+   * @param minifiedFingerprint the minified value fingerprint
+   * @param resource the asset resource
+   * @param dependencies the asset dependencies
+   */
+  public AssetDeployment addAsset(
+      String id,
+      String type,
+      AssetLocation location,
+      String value,
+      Boolean header,
+      String minifiedValue,
+      Integer maxAge,
+      String fingerprint,
+      String minifiedFingerprint,
+      URL resource,
+      Set<String> dependencies) throws NullPointerException, IllegalArgumentException {
+    assets.add(new AssetNode(id, type, location, value, header, minifiedValue, maxAge, fingerprint, minifiedFingerprint, resource, dependencies));
     return this;
   }
 
@@ -16,29 +16,115 @@
 
 package juzu.impl.asset;
 
+import juzu.asset.AssetLocation;
+import juzu.impl.common.Spliterator;
 import juzu.impl.common.Tools;
 import juzu.impl.plugin.application.Application;
 import juzu.impl.resource.ResourceResolver;
 
 import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class AssetManager {
 
-  /** . */
-  private HashMap<String, AssetNode> assets = new HashMap<String, AssetNode>();
+  /** The prefix of the URI of a bundle. */
+  public static final String BUNDLE_PREFIX = "/-bundle/";
+
+  /** The maximum number of bundles. */
+  private static final int MAX_BUNDLES = 256;
+
+  /** The maximum number of retained resolutions. */
+  private static final int MAX_RESOLUTIONS = 256;
+
+  /** The bundle URI of assets that cannot be bundled. */
+  private static final String NO_BUNDLE = "";
+
+  /** The rebuilt bundle of a path that does not designate a bundle. */
+  private static final AssetCache.Entry NO_ENTRY = new AssetCache.Entry(0, new byte[0], "\"\"", null);
+
+  /**
+   * The deployed assets along with their indexes, a state is never modified once published.
+   */
+  private static class State {
+
+    /** . */
+    final HashMap<String, AssetNode> assets;
+
+    /** Graph saying which assets depends on which asset. */
+    final AssetGraph graph;
+
+    /** The assets having a resource indexed by their value. */
+    final HashMap<String, AssetNode> resources;
+
+    /** The fingerprints of the asset values and minified values. */
+    final HashMap<String, String> fingerprints;
+
+    /** The assets indexed by type and by id. */
+    final HashMap<String, Map<String, Asset>> types;
+
+    /** The resolved assets indexed by the distinct ids to resolve. */
+    final ConcurrentHashMap<List<String>, List<Asset>> resolutions;
+
+    /** The bundle URIs indexed by the ids of their assets. */
+    final ConcurrentHashMap<String, String> bundleURIs;
 
-  /** Graph saying which assets depends on which asset. */
-  private AssetGraph graph = new AssetGraph();
+    /** The bundles indexed by URI. */
+    final ConcurrentHashMap<String, AssetCache.Entry> bundles;
+
+    /** The bundles rebuilt from a path indexed by the path without the hash, a failed rebuild is retained too. */
+    final ConcurrentHashMap<String, AssetCache.Entry> rebuilds;
+
+    State(HashMap<String, AssetNode> assets, AssetGraph graph) {
+      HashMap<String, AssetNode> resources = new HashMap<String, AssetNode>();
+      HashMap<String, String> fingerprints = new HashMap<String, String>();
+      HashMap<String, Map<String, Asset>> types = new HashMap<String, Map<String, Asset>>();
+      for (AssetNode asset : assets.values()) {
+        if (asset.resource != null && !resources.containsKey(asset.value)) {
+          resources.put(asset.value, asset);
+        }
+        if (asset.fingerprint != null) {
+          fingerprints.put(asset.value, asset.fingerprint);
+        }
+        if (asset.minified != null && asset.minifiedFingerprint != null) {
+          fingerprints.put(asset.minified, asset.minifiedFingerprint);
+        }
+        Map<String, Asset> type = types.get(asset.asset.getType());
+        if (type == null) {
+          types.put(asset.asset.getType(), type = new HashMap<String, Asset>());
+        }
+        type.put(asset.id, asset.asset);
+      }
+      for (Map.Entry<String, Map<String, Asset>> entry : types.entrySet()) {
+        entry.setValue(Collections.unmodifiableMap(entry.getValue()));
+      }
+
+      //
+      this.assets = assets;
+      this.graph = graph;
+      this.resources = resources;
+      this.fingerprints = fingerprints;
+      this.types = types;
+      this.resolutions = new ConcurrentHashMap<List<String>, List<Asset>>();
+      this.bundleURIs = new ConcurrentHashMap<String, String>();
+      this.bundles = new ConcurrentHashMap<String, AssetCache.Entry>();
+      this.rebuilds = new ConcurrentHashMap<String, AssetCache.Entry>();
+    }
+  }
+
+  /** The current state, replaced by deploy and undeploy. */
+  private volatile State state = new State(new HashMap<String, AssetNode>(), new AssetGraph());
 
   /** . */
   protected final String prefix;
@@ -61,11 +147,11 @@ public class AssetManager {
     return new AssetDeployment(this);
   }
 
-  boolean deploy(AssetDeployment deployment) {
+  synchronized boolean deploy(AssetDeployment deployment) {
 
     // Clone the state
-    AssetGraph graphClone = new AssetGraph(graph);
-    HashMap<String, AssetNode> assetsClone = new HashMap<String, AssetNode>(assets);
+    AssetGraph graphClone = new AssetGraph(state.graph);
+    HashMap<String, AssetNode> assetsClone = new HashMap<String, AssetNode>(state.assets);
     for (AssetNode asset : deployment.assets) {
       // Check it was not previously deployed
       if (!assetsClone.keySet().contains(asset.id)) {
@@ -89,46 +175,277 @@ public class AssetManager {
     }
 
     // Everything went fine we updated the manager
-    assets = assetsClone;
-    graph = graphClone;
+    state = new State(assetsClone, graphClone);
     return true;
   }
 
-  void undeploy(AssetDeployment deployment) {
+  synchronized void undeploy(AssetDeployment deployment) {
+    AssetGraph graphClone = new AssetGraph(state.graph);
+    HashMap<String, AssetNode> assetsClone = new HashMap<String, AssetNode>(state.assets);
     for (AssetNode asset : deployment.assets) {
-      for (AssetNode deployed : assets.values()) {
+      for (AssetNode deployed : assetsClone.values()) {
         if (deployed.iDependOn.contains(asset.id)) {
-          graph.unregister(asset.id, deployed.id);
+          graphClone.unregister(asset.id, deployed.id);
         }
         if (asset.iDependOn.contains(deployed.id)) {
-          graph.unregister(deployed.id, asset.id);
+          graphClone.unregister(deployed.id, asset.id);
         }
       }
-      assets.remove(asset.id);
+      assetsClone.remove(asset.id);
     }
+    state = new State(assetsClone, graphClone);
   }
 
   /**
-   * Resolve an application asset as a resource URL or return null if it cannot be found.
+   * Resolve an application asset as a resource URL or return null if it cannot be found. A path starting with
+   * a fingerprint segment is resolved without it, the resource is immutable when the fingerprint is the current
+   * fingerprint of the asset.
    *
    * @param path the path the path within the application
    * @return the resource
    */
   public AssetResource resolveApplicationAssetResource(String path) {
-    for (AssetNode asset : assets.values()) {
-      if (asset.value.equals(path) && asset.resource != null) {
-        Integer maxAge = asset.asset.getMaxAge();
-        return new AssetResource(asset.resource, maxAge);
+    String fingerprint = null;
+    if (path.startsWith(Asset.FINGERPRINT_PREFIX)) {
+      int pos = path.indexOf('/', Asset.FINGERPRINT_PREFIX.length());
+      if (pos != -1) {
+        fingerprint = path.substring(Asset.FINGERPRINT_PREFIX.length(), pos);
+        path = path.substring(pos);
       }
     }
+    State state = this.state;
+    boolean immutable = fingerprint != null && fingerprint.equals(state.fingerprints.get(path));
+    AssetNode asset = state.resources.get(path);
+    if (asset != null) {
+      Integer maxAge = asset.asset.getMaxAge();
+      return new AssetResource(asset.resource, maxAge, immutable);
+    }
     if (path.startsWith(prefix)) {
       URL resolved = applicationResolver.resolve(path);
-      return new AssetResource(resolved, null);
+      return new AssetResource(resolved, null, immutable);
     } else {
       return null;
     }
   }
 
+  /**
+   * Resolve the URI of the bundle concatenating the content of the specified application assets in their order,
+   * the bundle is created once for a list of assets. The URI contains the hash of the bundle content and the ids
+   * of its assets, so a server that does not retain the bundle can rebuild it from its URI.
+   * The assets must be application assets of the same type.
+   *
+   * @param assets the assets to bundle
+   * @param minified true when the minified assets are bundled
+   * @return the bundle URI or null when the bundle cannot be created
+   */
+  public String resolveBundle(List<Asset> assets, boolean minified) {
+    StringBuilder sb = new StringBuilder(minified ? "+" : "-");
+    for (Asset asset : assets) {
+      sb.append(asset.getId()).append(',');
+    }
+    String key = sb.toString();
+    State state = this.state;
+    String uri = state.bundleURIs.get(key);
+    if (uri == null) {
+      if (state.bundleURIs.size() >= MAX_BUNDLES) {
+        return null;
+      }
+      AssetCache.Entry bundle = createBundle(assets, minified);
+      if (bundle != null) {
+        uri = getBundleURI(assets, minified, bundle);
+        state.bundles.putIfAbsent(uri, bundle);
+      } else {
+        uri = NO_BUNDLE;
+      }
+      String previous = state.bundleURIs.putIfAbsent(key, uri);
+      if (previous != null) {
+        uri = previous;
+      }
+    }
+    return uri != NO_BUNDLE ? uri : null;
+  }
+
+  private AssetCache.Entry createBundle(List<Asset> assets, boolean minified) {
+    boolean script = assets.get(0).isScript();
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    for (Asset asset : assets) {
+      if (asset.getLocation() != AssetLocation.APPLICATION || asset.isScript() != script) {
+        throw new IllegalArgumentException("Cannot bundle asset " + asset.getId());
+      }
+      String path = minified && asset.getMinifiedURI() != null ? asset.getMinifiedURI() : asset.getURI();
+      AssetResource resource = resolveApplicationAssetResource(path);
+      if (resource == null || resource.url == null) {
+        return null;
+      }
+      byte[] content;
+      try {
+        content = Tools.bytes(resource.url);
+      }
+      catch (IOException e) {
+        return null;
+      }
+      if (script) {
+        buffer.write(content, 0, content.length);
+        // A script can end with a line comment or without a semicolon
+        buffer.write('\n');
+        buffer.write(';');
+        buffer.write('\n');
+      } else {
+        // The relative urls and the imports of a stylesheet would not resolve from the bundle
+        String css = new String(content, Tools.UTF_8);
+        if (css.contains("url(") || css.contains("@import")) {
+          return null;
+        }
+        buffer.write(content, 0, content.length);
+        buffer.write('\n');
+      }
+    }
+    byte[] data = buffer.toByteArray();
+    String hash = Long.toHexString(Tools.md5(data));
+    return new AssetCache.Entry(System.currentTimeMillis(), data, '"' + hash + '"', script ? "application/javascript" : "text/css");
+  }
+
+  /**
+   * Returns the URI of a bundle: <code>/-bundle/hash/min|src/id1/id2.ext</code>, the asset ids are escaped
+   * with unreserved chars only so they are not altered by the decoding of the request path.
+   */
+  private static String getBundleURI(List<Asset> assets, boolean minified, AssetCache.Entry bundle) {
+    StringBuilder sb = new StringBuilder(BUNDLE_PREFIX);
+    sb.append(bundle.etag, 1, bundle.etag.length() - 1);
+    sb.append(minified ? "/min" : "/src");
+    for (Asset asset : assets) {
+      sb.append('/');
+      String id = asset.getId();
+      for (int i = 0;i < id.length();i++) {
+        char c = id.charAt(i);
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_' || c == '.') {
+          sb.append(c);
+        } else {
+          String hex = Integer.toHexString(c);
+          sb.append('~');
+          for (int j = hex.length();j < 4;j++) {
+            sb.append('0');
+          }
+          sb.append(hex);
+        }
+      }
+    }
+    sb.append(assets.get(0).isScript() ? ".js" : ".css");
+    return sb.toString();
+  }
+
+  /**
+   * Returns the bundle for the specified path. A bundle that is not retained is rebuilt from the asset ids of
+   * its path, it is returned only when its content still has the hash of the path. The outcome of a rebuild is
+   * retained for the ids of the path whatever the hash is, and no bundle is rebuilt once {@link #MAX_BUNDLES}
+   * outcomes are retained, so a request cannot make the server read the assets again.
+   *
+   * @param path the bundle path
+   * @return the bundle or null
+   */
+  AssetCache.Entry getBundle(String path) {
+    State state = this.state;
+    AssetCache.Entry bundle = state.bundles.get(path);
+    if (bundle == null && path.startsWith(BUNDLE_PREFIX)) {
+      int pos = path.indexOf('/', BUNDLE_PREFIX.length());
+      if (pos == -1) {
+        return null;
+      }
+      String key = path.substring(pos);
+      bundle = state.rebuilds.get(key);
+      if (bundle == null) {
+        if (state.rebuilds.size() >= MAX_BUNDLES) {
+          return null;
+        }
+        bundle = rebuildBundle(state, path, key);
+        AssetCache.Entry previous = state.rebuilds.putIfAbsent(key, bundle);
+        if (previous != null) {
+          bundle = previous;
+        }
+      }
+      String hash = path.substring(BUNDLE_PREFIX.length(), pos);
+      if (bundle == NO_ENTRY || !bundle.etag.equals('"' + hash + '"')) {
+        return null;
+      }
+    }
+    return bundle;
+  }
+
+  /**
+   * Rebuild the bundle of a path, the assets of the path must be distinct application assets of the same type,
+   * in the form created by {@link #getBundleURI(List, boolean, AssetCache.Entry)}.
+   *
+   * @param state the state
+   * @param path the bundle path
+   * @param key the path without the hash
+   * @return the bundle or {@link #NO_ENTRY}
+   */
+  private AssetCache.Entry rebuildBundle(State state, String path, String key) {
+    int to;
+    if (path.endsWith(".js")) {
+      to = path.length() - ".js".length();
+    } else if (path.endsWith(".css")) {
+      to = path.length() - ".css".length();
+    } else {
+      return NO_ENTRY;
+    }
+    List<String> segments = Spliterator.split(path, BUNDLE_PREFIX.length(), to, '/', new ArrayList<String>());
+    if (segments.size() < 4 || !(segments.get(1).equals("min") || segments.get(1).equals("src"))) {
+      return NO_ENTRY;
+    }
+
+    // A bundle has distinct assets of the same type, so it cannot have more assets than the deployed ones
+    List<Asset> assets = new ArrayList<Asset>(segments.size() - 2);
+    HashSet<String> ids = new HashSet<String>();
+    for (String segment : segments.subList(2, segments.size())) {
+      String id = unescapeId(segment);
+      AssetNode node = id != null ? state.assets.get(id) : null;
+      if (node == null || !ids.add(id)) {
+        return NO_ENTRY;
+      }
+      Map<String, Asset> type = state.types.get(node.asset.getType());
+      if (assets.size() >= type.size()) {
+        return NO_ENTRY;
+      }
+      assets.add(node.asset);
+    }
+
+    //
+    boolean minified = segments.get(1).equals("min");
+    AssetCache.Entry bundle;
+    try {
+      bundle = createBundle(assets, minified);
+    }
+    catch (IllegalArgumentException e) {
+      return NO_ENTRY;
+    }
+    if (bundle == null || !getBundleURI(assets, minified, bundle).endsWith(key)) {
+      return NO_ENTRY;
+    }
+    return bundle;
+  }
+
+  private static String unescapeId(String s) {
+    int pos = s.indexOf('~');
+    if (pos == -1) {
+      return s;
+    }
+    StringBuilder sb = new StringBuilder(s.length());
+    int from = 0;
+    while (pos != -1 && pos + 5 <= s.length()) {
+      sb.append(s, from, pos);
+      try {
+        sb.append((char)Integer.parseInt(s.substring(pos + 1, pos + 5), 16));
+      }
+      catch (NumberFormatException e) {
+        return null;
+      }
+      from = pos + 5;
+      pos = s.indexOf('~', from);
+    }
+    return sb.append(s, from, s.length()).toString();
+  }
+
   /**
    * Find all assets of the specified type and returns a map of id -> Asset.
    *
@@ -136,16 +453,8 @@ public class AssetManager {
    * @return the asset map
    */
   public Map<String, Asset> getAssets(String type) {
-    Map<String, Asset> ret = Collections.emptyMap();
-    for (AssetNode node : assets.values()) {
-      if (node.asset.getType().equals(type)) {
-        if (ret.isEmpty()) {
-          ret = new HashMap<String, Asset>();
-        }
-        ret.put(node.id, node.asset);
-      }
-    }
-    return ret;
+    Map<String, Asset> ret = state.types.get(type);
+    return ret != null ? ret : Collections.<String, Asset>emptyMap();
   }
 
   /**
@@ -159,12 +468,14 @@ public class AssetManager {
     if (id == null) {
       throw new NullPointerException("No null id accepted");
     }
-    AssetNode node = assets.get(id);
+    AssetNode node = state.assets.get(id);
     return node != null ? node.asset : null;
   }
 
   /**
-   * Perform a topological sort of the provided asset script values.
+   * Perform a topological sort of the provided asset script values. The assets with no dependency between them
+   * retain the order of the provided ids. The result is retained for the distinct ids until the next deployment
+   * change.
    *
    * @param ids the asset ids to resolve
    * @return the resolved asset or null
@@ -180,54 +491,90 @@ public class AssetManager {
       throw new NullPointerException("No null asset ids accepted");
     }
 
-    // Compute the closure of the assets we need
-    LinkedHashMap<String, HashSet<String>> sub = new LinkedHashMap<String, HashSet<String>>();
-    for (LinkedList<String> queue = Tools.addAll(new LinkedList<String>(), ids);!queue.isEmpty();) {
-      String id = queue.removeFirst();
-      AssetNode asset = this.assets.get(id);
+    // The resolutions are computed from the same state
+    State state = this.state;
+
+    //
+    ArrayList<String> key = new ArrayList<String>();
+    for (String id : ids) {
+      if (!key.contains(id)) {
+        key.add(id);
+      }
+    }
+    List<Asset> resolved = state.resolutions.get(key);
+    if (resolved == null) {
+      resolved = Collections.unmodifiableList(sort(state, key));
+      if (state.resolutions.size() < MAX_RESOLUTIONS) {
+        state.resolutions.put(key, resolved);
+      }
+    }
+    return resolved;
+  }
+
+  private static List<Asset> sort(State state, List<String> ids) throws IllegalArgumentException {
+    HashMap<String, AssetNode> assets = state.assets;
+    AssetGraph graph = state.graph;
+
+    // Compute the closure of the assets we need, each asset is indexed by its discovery order
+    HashMap<String, Integer> indexes = new HashMap<String, Integer>();
+    ArrayList<AssetNode> nodes = new ArrayList<AssetNode>();
+    ArrayList<String> queue = new ArrayList<String>(ids);
+    for (String id : ids) {
+      indexes.put(id, indexes.size());
+    }
+    for (int i = 0;i < queue.size();i++) {
+      String id = queue.get(i);
+      AssetNode asset = assets.get(id);
       if (asset != null) {
-        sub.put(asset.id, new HashSet<String>(asset.iDependOn));
+        nodes.add(asset);
         for (String depend : asset.iDependOn) {
-          if (!sub.containsKey(depend)) {
-            queue.addLast(depend);
+          if (!indexes.containsKey(depend)) {
+            indexes.put(depend, queue.size());
+            queue.add(depend);
           }
         }
-      }
-      else {
+      } else {
         throw new IllegalArgumentException("Cannot resolve asset " + id);
       }
     }
 
-    // Perform the topological sort
-    LinkedList<Asset> resolved = new LinkedList<Asset>();
-    while (sub.size() > 0) {
-      boolean found = false;
-      for (Iterator<Map.Entry<String, HashSet<String>>> i = sub.entrySet().iterator();i.hasNext();) {
-        Map.Entry<String, HashSet<String>> entry = i.next();
-        if (entry.getValue().isEmpty()) {
-          i.remove();
-          AssetNode asset = this.assets.get(entry.getKey());
-          resolved.add(asset.asset);
-          Set<String> dependencies = graph.get(asset.id);
-          if (dependencies != null) {
-            for (String dependency : dependencies) {
-              HashSet<String> foo = sub.get(dependency);
-              if (foo != null) {
-                foo.remove(entry.getKey());
-              }
-            }
+    // Count the dependencies of each asset
+    int size = nodes.size();
+    int[] pending = new int[size];
+    for (int i = 0;i < size;i++) {
+      pending[i] = nodes.get(i).iDependOn.size();
+    }
+
+    // Perform the topological sort, the available asset discovered first is taken first
+    PriorityQueue<Integer> available = new PriorityQueue<Integer>();
+    for (int i = 0;i < size;i++) {
+      if (pending[i] == 0) {
+        available.add(i);
+      }
+    }
+    ArrayList<Asset> resolved = new ArrayList<Asset>(size);
+    while (!available.isEmpty()) {
+      AssetNode asset = nodes.get(available.poll());
+      resolved.add(asset.asset);
+      Set<String> dependencies = graph.get(asset.id);
+      if (dependencies != null) {
+        for (String dependency : dependencies) {
+          Integer index = indexes.get(dependency);
+          if (index != null && --pending[index] == 0) {
+            available.add(index);
           }
-          found = true;
-          break;
         }
       }
-      if (!found) {
-        StringBuilder sb = new StringBuilder("Cannot satisfy asset dependencies:\n");
-        for (Map.Entry<String, HashSet<String>> entry : sub.entrySet()) {
-          sb.append(entry.getKey()).append(" -> ").append(entry.getValue());
+    }
+    if (resolved.size() < size) {
+      StringBuilder sb = new StringBuilder("Cannot satisfy asset dependencies:\n");
+      for (int i = 0;i < size;i++) {
+        if (pending[i] > 0) {
+          AssetNode asset = nodes.get(i);
+          sb.append(asset.id).append(" -> ").append(asset.iDependOn);
         }
-        throw new IllegalArgumentException(sb.toString());
       }
+      throw new IllegalArgumentException(sb.toString());
     }
 
     //
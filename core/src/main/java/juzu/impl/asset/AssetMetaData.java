@@ -53,7 +53,23 @@ public class AssetMetaData {
   /** . */
   final Integer maxAge;
 
-  public AssetMetaData(String id, String type, AssetLocation location, String value, Boolean header, String minified, Integer maxAge, String... dependencies) {
+  /** The fingerprint of the asset value. */
+  final String fingerprint;
+
+  /** The fingerprint of the asset minified value. */
+  final String minifiedFingerprint;
+
+  public AssetMetaData(
+      String id,
+      String type,
+      AssetLocation location,
+      String value,
+      Boolean header,
+      String minified,
+      Integer maxAge,
+      String fingerprint,
+      String minifiedFingerprint,
+      String... dependencies) {
     this.id = id;
     this.type = type;
     this.value = value;
@@ -61,6 +77,8 @@ public class AssetMetaData {
     this.minified = minified;
     this.location = location;
     this.maxAge = maxAge;
+    this.fingerprint = fingerprint;
+    this.minifiedFingerprint = minifiedFingerprint;
     this.dependencies = Collections.unmodifiableSet(Tools.set(dependencies));
   }
 
@@ -92,6 +110,14 @@ public class AssetMetaData {
     return minified;
   }
 
+  public String getFingerprint() {
+    return fingerprint;
+  }
+
+  public String getMinifiedFingerprint() {
+    return minifiedFingerprint;
+  }
+
   public Set<String> getDependencies() {
     return dependencies;
   }
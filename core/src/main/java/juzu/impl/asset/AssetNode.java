@@ -43,6 +43,12 @@ public class AssetNode {
   /** . */
   final String minified;
 
+  /** . */
+  final String fingerprint;
+
+  /** . */
+  final String minifiedFingerprint;
+
   /** . */
   final Asset asset;
 
@@ -53,6 +59,10 @@ public class AssetNode {
   Set<String> iDependOn;
 
   public AssetNode(String id, String type, AssetLocation location, String value, Boolean header, String minified, Integer maxAge, URL resource, Set<String> iDependOn) {
+    this(id, type, location, value, header, minified, maxAge, null, null, resource, iDependOn);
+  }
+
+  public AssetNode(String id, String type, AssetLocation location, String value, Boolean header, String minified, Integer maxAge, String fingerprint, String minifiedFingerprint, URL resource, Set<String> iDependOn) {
 
     //
     this.id = id;
@@ -60,7 +70,9 @@ public class AssetNode {
     this.value = value;
     this.header = header;
     this.minified = minified;
-    this.asset = new Asset(id, type, header, location, value, minified, maxAge);
+    this.fingerprint = fingerprint;
+    this.minifiedFingerprint = minifiedFingerprint;
+    this.asset = new Asset(id, type, header, location, value, minified, maxAge, fingerprint, minifiedFingerprint);
     this.resource = resource;
     this.iDependOn = iDependOn;
   }
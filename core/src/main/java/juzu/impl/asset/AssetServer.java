@@ -17,28 +17,116 @@
 package juzu.impl.asset;
 
 import juzu.asset.AssetLocation;
-import juzu.impl.common.Timestamped;
+import juzu.impl.bridge.BridgeConfig;
+import juzu.impl.common.ByteRange;
+import juzu.impl.common.ContentEncoding;
+import juzu.impl.common.Spliterator;
 import juzu.impl.plugin.application.Application;
 import juzu.impl.common.Tools;
+import juzu.impl.io.FileRangeInputStream;
 import juzu.impl.request.Request;
 
 import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
-import java.util.Enumeration;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class AssetServer {
 
-  /** Application -> Dynamic. */
-  HashMap<Application, Boolean> runtimes = new HashMap<Application, Boolean>();
+  /** The maximum size of the asset cache. */
+  private static final long MAX_CACHE_SIZE = 32 * 1024 * 1024;
+
+  /** The maximum size of an asset retained by the cache. */
+  private static final int MAX_CACHED_SIZE = 1024 * 1024;
+
+  /** The max age of an asset served with a fingerprinted URI: one year. */
+  private static final int IMMUTABLE_MAX_AGE = 31536000;
+
+  /** The maximum number of indexed paths. */
+  private static final int MAX_PATHS = 1024;
+
+  /**
+   * A registered application.
+   */
+  private static class Registration {
+
+    /** . */
+    final Application application;
+
+    /** . */
+    final boolean cacheAssets;
+
+    /** Whether the assets are compressed when the client accepts it. */
+    final boolean compression;
+
+    /** The asset managers resolved on first use. */
+    private volatile List<AssetManager> assetManagers;
+
+    Registration(Application application, boolean cacheAssets, boolean compression) {
+      this.application = application;
+      this.cacheAssets = cacheAssets;
+      this.compression = compression;
+    }
+
+    List<AssetManager> getAssetManagers() {
+      List<AssetManager> assetManagers = this.assetManagers;
+      if (assetManagers == null) {
+        assetManagers = new ArrayList<AssetManager>();
+        for (AssetManager assetManager : application.resolveBeans(AssetManager.class)) {
+          assetManagers.add(assetManager);
+        }
+        this.assetManagers = assetManagers;
+      }
+      return assetManagers;
+    }
+  }
+
+  /**
+   * The content of a registration resolved for a path.
+   */
+  private static class Resolution {
+
+    /** The registrations the resolution was obtained from. */
+    final Registration[] registrations;
+
+    /** . */
+    final Registration registration;
+
+    /** . */
+    final AssetResource content;
+
+    Resolution(Registration[] registrations, Registration registration, AssetResource content) {
+      this.registrations = registrations;
+      this.registration = registration;
+      this.content = content;
+    }
+  }
+
+  /** The registered applications, the array is copied on write. */
+  private volatile Registration[] registrations = new Registration[0];
+
+  /**
+   * The contents resolved by path for the registrations caching their assets, a resolution is valid only for the
+   * registrations it was obtained from.
+   */
+  private final ConcurrentHashMap<String, Resolution> resolutions = new ConcurrentHashMap<String, Resolution>();
+
+  /** . */
+  private final AssetCache cache = new AssetCache(MAX_CACHE_SIZE);
 
   /** . */
   private static final ThreadLocal<AssetServer> current = new ThreadLocal<AssetServer>();
@@ -46,19 +134,54 @@ public class AssetServer {
   public AssetServer() {
   }
 
-  public void register(Application assetManager, boolean cacheAssets) {
-    runtimes.put(assetManager, cacheAssets);
+  /**
+   * Register an application serving its assets.
+   *
+   * @param assetManager the application
+   * @param cacheAssets true when the assets can be cached by the client
+   * @param compression true when the assets are compressed for a client accepting it, as configured by
+   *                    {@link BridgeConfig#COMPRESSION}
+   */
+  public synchronized void register(Application assetManager, boolean cacheAssets, boolean compression) {
+    unregister(assetManager);
+    Registration[] registrations = Arrays.copyOf(this.registrations, this.registrations.length + 1);
+    registrations[registrations.length - 1] = new Registration(assetManager, cacheAssets, compression);
+    this.registrations = registrations;
+    resolutions.clear();
   }
 
-  public void unregister(Application assetManager) {
-    runtimes.remove(assetManager);
+  public synchronized void unregister(Application assetManager) {
+    for (int i = 0;i < registrations.length;i++) {
+      if (registrations[i].application == assetManager) {
+        Registration[] registrations = new Registration[this.registrations.length - 1];
+        System.arraycopy(this.registrations, 0, registrations, 0, i);
+        System.arraycopy(this.registrations, i + 1, registrations, i, registrations.length - i);
+        this.registrations = registrations;
+        resolutions.clear();
+        cache.clear();
+        break;
+      }
+    }
   }
 
   public boolean doGet(String path, ServletContext ctx, HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
     if (path != null && path.length() > 0) {
-      for (Map.Entry<Application, Boolean> runtime : runtimes.entrySet()) {
-        Iterable<AssetManager> resolvers = runtime.getKey().resolveBeans(AssetManager.class);
-        for (AssetManager resolver : resolvers) {
+      Registration[] registrations = this.registrations;
+      Resolution resolution = resolutions.get(path);
+      if (resolution != null && resolution.registrations == registrations) {
+        send(path, resolution.content, true, resolution.registration.compression, ctx, req, resp);
+        return true;
+      }
+      for (Registration registration : registrations) {
+        for (AssetManager resolver : registration.getAssetManagers()) {
+          if (path.startsWith(AssetManager.BUNDLE_PREFIX)) {
+            AssetCache.Entry bundle = resolver.getBundle(path);
+            if (bundle != null) {
+              sendBundle(bundle, registration.compression, req, resp);
+              return true;
+            }
+            continue;
+          }
           // For now we only have resource of URL type ...
           AssetResource content = resolver.resolveApplicationAssetResource(path);
           if (content == null) {
@@ -69,34 +192,10 @@ public class AssetServer {
             }
           }
           if (content != null) {
-            InputStream in;
-            long lastModified;
-            URLConnection conn = content.url.openConnection();
-            lastModified = conn.getLastModified();
-            String etag = Tools.etag(path, lastModified);
-            Enumeration<String> matches = req.getHeaders("If-None-Match");
-            if (matches.hasMoreElements() && matches.nextElement().equals(etag)) {
-              resp.setStatus(304);
-            } else {
-              in = conn.getInputStream();
-              int pos = path.lastIndexOf('/');
-              String name = pos == -1 ? path : path.substring(pos + 1);
-              resp.setHeader("ETag", etag);
-              boolean cacheAssets = runtime.getValue();
-              if (cacheAssets) {
-                int maxAge = content.maxAge != null ? content.maxAge : 3600;
-                if (maxAge > 0) {
-                  resp.setHeader("Cache-Control", "max-age=" + maxAge);
-                }
-              } else {
-                resp.setHeader("Cache-Control", "no-cache, no-store, must-revalidate");
-              }
-              String contentType = ctx.getMimeType(name);
-              if (contentType != null) {
-                resp.setContentType(contentType);
-              }
-              Tools.copy(in, resp.getOutputStream());
+            if (registration.cacheAssets && resolutions.size() < MAX_PATHS) {
+              resolutions.put(path, new Resolution(registrations, registration, content));
             }
+            send(path, content, registration.cacheAssets, registration.compression, ctx, req, resp);
             return true;
           }
         }
@@ -105,6 +204,275 @@ public class AssetServer {
     return false;
   }
 
+  private void send(String path, AssetResource content, boolean cacheAssets, boolean compression, ServletContext ctx, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+
+    // A file is accessed directly, it allows random access for ranges
+    File file = null;
+    if ("file".equals(content.url.getProtocol())) {
+      try {
+        file = new File(content.url.toURI());
+      }
+      catch (URISyntaxException ignore) {
+      }
+    }
+
+    // Use the cached content when it is still valid, the cached content is not checked when the assets are cached
+    String key = content.url.toString();
+    AssetCache.Entry entry = cache.get(key);
+    URLConnection conn = null;
+    long lastModified;
+    long length;
+    if (entry != null && cacheAssets) {
+      lastModified = entry.lastModified;
+      length = entry.data.length;
+    } else {
+      if (file != null) {
+        lastModified = file.lastModified();
+        length = file.length();
+      } else {
+        conn = content.url.openConnection();
+        lastModified = conn.getLastModified();
+        length = conn.getContentLengthLong();
+      }
+      if (entry != null && (entry.lastModified != lastModified || lastModified == 0)) {
+        entry = null;
+      }
+    }
+
+    //
+    String contentType;
+    String etag;
+    if (entry != null) {
+      contentType = entry.contentType;
+      etag = entry.etag;
+    } else {
+      int pos = path.lastIndexOf('/');
+      String name = pos == -1 ? path : path.substring(pos + 1);
+      contentType = ctx.getMimeType(name);
+      if (length >= 0 && length <= MAX_CACHED_SIZE) {
+        InputStream in = file != null ? new FileInputStream(file) : conn.getInputStream();
+        try {
+          byte[] data = new byte[(int)length];
+          int size = 0;
+          for (int l;size < length && (l = in.read(data, size, (int)length - size)) != -1;) {
+            size += l;
+          }
+          if (size < length) {
+            data = Arrays.copyOf(data, size);
+          }
+          entry = new AssetCache.Entry(lastModified, data, '"' + Long.toHexString(Tools.md5(data)) + '"', contentType);
+          length = entry.data.length;
+        }
+        finally {
+          Tools.safeClose(in);
+        }
+        cache.put(key, entry);
+        etag = entry.etag;
+      } else {
+        // The tag of a content that is not in memory is derived from its location and date, so it is weak
+        // and cannot validate a range
+        etag = "W/\"" + Tools.etag(key, lastModified) + '"';
+      }
+    }
+
+    // Determine the byte range, the range is ignored when the content changed since the client obtained a part
+    ByteRange range = null;
+    if (length >= 0 && "GET".equals(req.getMethod()) && ByteRange.matchesIfRange(req.getHeader("If-Range"), etag, lastModified)) {
+      range = ByteRange.parse(req.getHeader("Range"), length);
+    }
+
+    // Negotiate the content coding, a cached content can be too small to be encoded and a range is not encoded
+    String coding = null;
+    byte[] encoded = null;
+    if (compression && ContentEncoding.isCompressible(contentType)) {
+      resp.setHeader("Vary", "Accept-Encoding");
+      if (range == null) {
+        coding = ContentEncoding.negotiate(req.getHeader("Accept-Encoding"));
+        if (coding != null && entry != null) {
+          encoded = entry.getEncoded(coding);
+          if (encoded == null) {
+            coding = null;
+          }
+        }
+      }
+    }
+    if (coding != null) {
+      etag = etag.substring(0, etag.length() - 1) + "-" + coding + '"';
+    }
+
+    // Headers
+    resp.setHeader("ETag", etag);
+    if (lastModified > 0) {
+      resp.setDateHeader("Last-Modified", lastModified);
+    }
+    if (length >= 0) {
+      resp.setHeader("Accept-Ranges", "bytes");
+    }
+    if (cacheAssets) {
+      if (content.maxAge == null && content.immutable) {
+        resp.setHeader("Cache-Control", "immutable, max-age=" + IMMUTABLE_MAX_AGE);
+      } else {
+        int maxAge = content.maxAge != null ? content.maxAge : 3600;
+        if (maxAge > 0) {
+          resp.setHeader("Cache-Control", "max-age=" + maxAge);
+        }
+      }
+    } else {
+      resp.setHeader("Cache-Control", "no-cache, no-store, must-revalidate");
+    }
+
+    //
+    if (isNotModified(req, etag, lastModified)) {
+      resp.setStatus(304);
+    } else if (range == ByteRange.NOT_SATISFIABLE) {
+      resp.setStatus(416);
+      resp.setHeader("Content-Range", range.getContentRange(length));
+    } else {
+      if (contentType != null) {
+        resp.setContentType(contentType);
+      }
+      if (coding != null) {
+        resp.setHeader("Content-Encoding", coding);
+      }
+      if (range != null) {
+        resp.setStatus(206);
+        resp.setHeader("Content-Range", range.getContentRange(length));
+        resp.setHeader("Content-Length", Long.toString(range.getLength()));
+        if (entry != null) {
+          resp.getOutputStream().write(entry.data, (int)range.first, (int)range.getLength());
+        } else if (file != null) {
+          FileRangeInputStream in = new FileRangeInputStream(file, range.first, range.getLength());
+          try {
+            in.transferTo(Channels.newChannel(resp.getOutputStream()));
+          }
+          finally {
+            Tools.safeClose(in);
+          }
+        } else {
+          InputStream in = conn.getInputStream();
+          try {
+            Tools.copy(in, resp.getOutputStream(), range.first, range.getLength());
+          }
+          finally {
+            Tools.safeClose(in);
+          }
+        }
+      } else if (entry != null) {
+        byte[] data = encoded != null ? encoded : entry.data;
+        resp.setContentLength(data.length);
+        resp.getOutputStream().write(data);
+      } else {
+        InputStream in = file != null ? new FileInputStream(file) : conn.getInputStream();
+        try {
+          if (coding != null) {
+            OutputStream out = ContentEncoding.encode(coding, resp.getOutputStream());
+            Tools.copy(in, out);
+            out.close();
+          } else {
+            if (length >= 0) {
+              resp.setHeader("Content-Length", Long.toString(length));
+            }
+            Tools.copy(in, resp.getOutputStream());
+          }
+        }
+        finally {
+          Tools.safeClose(in);
+        }
+      }
+    }
+  }
+
+  /**
+   * Send a bundle, the URI of a bundle changes with its content so it is always immutable.
+   */
+  private void sendBundle(AssetCache.Entry bundle, boolean compression, HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    String etag = bundle.etag;
+    byte[] data = bundle.data;
+    String coding = null;
+    if (compression) {
+      resp.setHeader("Vary", "Accept-Encoding");
+      coding = ContentEncoding.negotiate(req.getHeader("Accept-Encoding"));
+      if (coding != null) {
+        byte[] encoded = bundle.getEncoded(coding);
+        if (encoded != null) {
+          data = encoded;
+          etag = etag.substring(0, etag.length() - 1) + "-" + coding + '"';
+        } else {
+          coding = null;
+        }
+      }
+    }
+    resp.setHeader("ETag", etag);
+    resp.setDateHeader("Last-Modified", bundle.lastModified);
+    resp.setHeader("Cache-Control", "immutable, max-age=" + IMMUTABLE_MAX_AGE);
+    if (isNotModified(req, etag, bundle.lastModified)) {
+      resp.setStatus(304);
+    } else {
+      resp.setContentType(bundle.contentType);
+      if (coding != null) {
+        resp.setHeader("Content-Encoding", coding);
+      }
+      resp.setContentLength(data.length);
+      resp.getOutputStream().write(data);
+    }
+  }
+
+  /**
+   * Evaluate the conditional headers of a request, the <code>If-None-Match</code> header takes precedence
+   * over the <code>If-Modified-Since</code> header.
+   *
+   * @param req the request
+   * @param etag the current entity tag
+   * @param lastModified the current last modified date
+   * @return true if the client copy is not modified
+   */
+  static boolean isNotModified(HttpServletRequest req, String etag, long lastModified) {
+    String ifNoneMatch = req.getHeader("If-None-Match");
+    if (ifNoneMatch != null) {
+      return matches(ifNoneMatch, etag);
+    }
+    if (lastModified > 0) {
+      long ifModifiedSince;
+      try {
+        ifModifiedSince = req.getDateHeader("If-Modified-Since");
+      }
+      catch (IllegalArgumentException e) {
+        return false;
+      }
+      return ifModifiedSince != -1 && lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+    return false;
+  }
+
+  /**
+   * Returns true when an entity tag list matches an entity tag, the weak comparison is used and the
+   * unquoted tags are accepted.
+   *
+   * @param list the entity tag list
+   * @param etag the entity tag
+   * @return true if the list matches
+   */
+  static boolean matches(String list, String etag) {
+    String opaque = unquote(etag.startsWith("W/") ? etag.substring(2) : etag);
+    for (String tag : Spliterator.split(list, ',')) {
+      tag = tag.trim();
+      if (tag.equals("*")) {
+        return true;
+      }
+      if (tag.startsWith("W/")) {
+        tag = tag.substring(2);
+      }
+      if (unquote(tag).equals(opaque)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String unquote(String tag) {
+    return tag.length() > 1 && tag.charAt(0) == '"' && tag.charAt(tag.length() - 1) == '"' ? tag.substring(1, tag.length() - 1) : tag;
+  }
+
   public static String renderAssetURLById(String id) throws NullPointerException {
     Request request = Request.getCurrent();
     if (request != null) {
@@ -40,8 +40,29 @@ public class BridgeConfig {
   /** The default request encoding charset. */
   public static final String REQUEST_ENCODING = "juzu.request_encoding";
 
+  /** The maximum size in bytes of a form body. */
+  public static final String MAX_FORM_SIZE = "juzu.max_form_size";
+
+  /** The maximum number of parameters of a form body. */
+  public static final String MAX_FORM_PARAMETERS = "juzu.max_form_parameters";
+
+  /** Whether the responses and the application assets are compressed when the client accepts it. */
+  public static final String COMPRESSION = "juzu.compression";
+
+  /** Whether the application assets of a page are concatenated into bundles. */
+  public static final String BUNDLE_ASSETS = "juzu.bundle_assets";
+
+  /** The number of threads initializing the application templates when it starts, none by default. */
+  public static final String WARMUP_TEMPLATES = "juzu.warmup_templates";
+
+  /** . */
+  public static final Set<String> NAMES = Collections.unmodifiableSet(Tools.set(INJECT, APP_NAME, REQUEST_ENCODING, MAX_FORM_SIZE, MAX_FORM_PARAMETERS, COMPRESSION, BUNDLE_ASSETS, WARMUP_TEMPLATES));
+
   /** . */
-  public static final Set<String> NAMES = Collections.unmodifiableSet(Tools.set(INJECT, APP_NAME, REQUEST_ENCODING));
+  public static final int DEFAULT_MAX_FORM_SIZE = 2 * 1024 * 1024;
+
+  /** . */
+  public static final int DEFAULT_MAX_FORM_PARAMETERS = 1000;
 
   /** . */
   public final Name name;
@@ -52,10 +73,30 @@ public class BridgeConfig {
   /** . */
   public final Charset requestEncoding;
 
+  /** . */
+  public final int maxFormSize;
+
+  /** . */
+  public final int maxFormParameters;
+
+  /** . */
+  public final boolean compression;
+
+  /** . */
+  public final boolean bundleAssets;
+
+  /** . */
+  public final int warmupTemplates;
+
   public BridgeConfig(Logger log, Map<String, String> config) throws Exception {
     this.name = getApplicationName(config);
     this.injectorProvider = getInjectImplementation(log, config);
     this.requestEncoding = getRequestEncoding(config);
+    this.maxFormSize = getInt(config, MAX_FORM_SIZE, DEFAULT_MAX_FORM_SIZE);
+    this.maxFormParameters = getInt(config, MAX_FORM_PARAMETERS, DEFAULT_MAX_FORM_PARAMETERS);
+    this.compression = isCompression(config.get(COMPRESSION));
+    this.bundleAssets = isBundleAssets(config.get(BUNDLE_ASSETS));
+    this.warmupTemplates = getInt(config, WARMUP_TEMPLATES, 0);
   }
 
   private Name getApplicationName(Map<String, String> config) {
@@ -106,4 +147,42 @@ public class BridgeConfig {
       return Tools.ISO_8859_1;
     }
   }
+
+  /**
+   * Returns the compression configuration, compression is disabled unless it is set to <code>true</code>.
+   *
+   * @param value the configured value
+   * @return the compression value
+   */
+  public static boolean isCompression(String value) {
+    return value != null && Tools.interpolate(value, System.getProperties()).trim().equalsIgnoreCase("true");
+  }
+
+  /**
+   * Returns the asset bundling configuration, bundling is disabled unless it is set to <code>true</code>.
+   *
+   * @param value the configured value
+   * @return the bundling value
+   */
+  public static boolean isBundleAssets(String value) {
+    return value != null && Tools.interpolate(value, System.getProperties()).trim().equalsIgnoreCase("true");
+  }
+
+  private int getInt(Map<String, String> config, String name, int defaultValue) {
+    String value = config.get(name);
+    if (value != null) {
+      value = Tools.interpolate(value, System.getProperties()).trim();
+      try {
+        int i = Integer.parseInt(value);
+        if (i > 0) {
+          return i;
+        }
+      }
+      catch (NumberFormatException ignore) {
+      }
+      throw new IllegalArgumentException("Invalid " + name + " value " + value);
+    } else {
+      return defaultValue;
+    }
+  }
 }
@@ -82,7 +82,9 @@ public class ApplicationBridge extends Bridge {
             injector,
             config.name,
             server,
-            resolver));
+            resolver,
+            config.warmupTemplates,
+            config.compression));
       }
       return application.get().refresh();
     }
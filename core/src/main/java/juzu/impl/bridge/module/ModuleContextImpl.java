@@ -44,6 +44,9 @@ public class ModuleContextImpl implements ModuleContext {
   /** . */
   final ModuleRuntime<?> runtime;
 
+  /** The number of bridges using the module, guarded by the module monitor. */
+  private int references;
+
   public ModuleContextImpl(Logger log, BridgeContext bridgeContext, ResourceResolver resolver) {
 
     //
@@ -64,6 +67,28 @@ public class ModuleContextImpl implements ModuleContext {
     this.runtime = lifeCycle;
   }
 
+  /**
+   * Signals that a bridge uses the module.
+   */
+  public synchronized void retain() {
+    references++;
+  }
+
+  /**
+   * Signals that a bridge does not use the module anymore, the module runtime is closed when the module is not
+   * used anymore.
+   *
+   * @return true when the module is released
+   */
+  public synchronized boolean release() {
+    if (references > 0 && --references == 0) {
+      runtime.close();
+      return true;
+    } else {
+      return false;
+    }
+  }
+
   public JSON getConfig() throws Exception {
     ClassLoader classLoader = getClassLoader();
     URL cfg = classLoader.getResource("juzu/config.json");
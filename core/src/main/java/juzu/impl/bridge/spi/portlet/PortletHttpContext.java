@@ -17,6 +17,7 @@
 package juzu.impl.bridge.spi.portlet;
 
 import juzu.HttpMethod;
+import juzu.impl.bridge.spi.HttpHeaders;
 import juzu.request.HttpContext;
 
 import javax.portlet.ClientDataRequest;
@@ -24,7 +25,7 @@ import javax.portlet.PortletRequest;
 import javax.servlet.http.Cookie;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-public class PortletHttpContext implements HttpContext {
+public class PortletHttpContext implements HttpContext, HttpHeaders {
 
   /** . */
   private final PortletRequest request;
@@ -60,4 +61,8 @@ public class PortletHttpContext implements HttpContext {
   public String getContextPath() {
     return request.getContextPath();
   }
+
+  public String getHeader(String name) {
+    return request.getProperty(name);
+  }
 }
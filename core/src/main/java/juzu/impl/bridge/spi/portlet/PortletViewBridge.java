@@ -17,6 +17,7 @@
 package juzu.impl.bridge.spi.portlet;
 
 import juzu.impl.bridge.Bridge;
+import juzu.impl.common.Completion;
 import juzu.impl.compiler.CompilationException;
 import juzu.io.OutputStream;
 import juzu.io.Stream;
@@ -55,7 +56,13 @@ public class PortletViewBridge extends PortletMimeBridge<RenderRequest, RenderRe
   @Override
   public void invoke() throws Exception {
     try {
-      bridge.refresh();
+      // The application can change only in a dynamic run mode
+      if (bridge.getRunMode().isDynamic()) {
+        Completion<Boolean> refresh = bridge.refresh();
+        if (refresh.isFailed()) {
+          throw refresh.getCause();
+        }
+      }
     }
     catch (CompilationException e) {
       setResponse(e.asResponse());
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.bridge.spi.servlet;
+
+import juzu.impl.common.ContentEncoding;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses a response body with a content coding. The first bytes are retained until they reach the
+ * {@link ContentEncoding#MIN_SIZE} size, a smaller body is sent as is. A flush commits the response, so the
+ * body is compressed when it is flushed before reaching this size.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class CompressingOutputStream extends OutputStream {
+
+  /** . */
+  private final HttpServletResponse resp;
+
+  /** . */
+  private final OutputStream out;
+
+  /** . */
+  private final String coding;
+
+  /** The retained bytes or null once we know if we compress. */
+  private byte[] buffer;
+
+  /** . */
+  private int size;
+
+  /** The stream to write to once we know if we compress. */
+  private OutputStream target;
+
+  CompressingOutputStream(HttpServletResponse resp, OutputStream out, String coding) {
+    this.resp = resp;
+    this.out = out;
+    this.coding = coding;
+    this.buffer = new byte[ContentEncoding.MIN_SIZE];
+    this.size = 0;
+    this.target = null;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    write(new byte[]{(byte)b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    if (target == null) {
+      if (size + len < buffer.length) {
+        System.arraycopy(b, off, buffer, size, len);
+        size += len;
+        return;
+      }
+      compress();
+    }
+    target.write(b, off, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (target == null) {
+      compress();
+    }
+    target.flush();
+  }
+
+  private void compress() throws IOException {
+    resp.setHeader("Content-Encoding", coding);
+    target = ContentEncoding.encode(coding, out);
+    target.write(buffer, 0, size);
+    buffer = null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (target == null) {
+      // Too small to be compressed
+      target = out;
+      target.write(buffer, 0, size);
+      buffer = null;
+    }
+    target.close();
+  }
+}
@@ -65,11 +65,11 @@ public class ServletBridge extends HttpServlet {
   /** . */
   private BridgeContext bridgeContext;
 
-  /** . */
+  /** The bridge, guarded by the servlet monitor. */
   private Bridge bridge;
 
-  /** . */
-  private Handler handler;
+  /** The module used by the bridge, guarded by the servlet monitor. */
+  private ModuleContextImpl module;
 
   /** . */
   private String bundleName;
@@ -77,11 +77,29 @@ public class ServletBridge extends HttpServlet {
   /** . */
   private Logger servletLogger;
 
-  /** . */
-  ServletApplicationContext applicationContext;
+  /** The live application, published once it is started and replaced when it is refreshed. */
+  private volatile Live live;
+
+  /**
+   * The live application served by the requests, a snapshot is never modified once published.
+   */
+  static class Live {
+
+    /** . */
+    final Handler handler;
+
+    /** . */
+    final ServletApplicationContext applicationContext;
+
+    Live(Handler handler, ServletApplicationContext applicationContext) {
+      this.handler = handler;
+      this.applicationContext = applicationContext;
+    }
+  }
 
   Bridge getBridge() {
-    return bridge;
+    Live live = this.live;
+    return live != null ? live.handler.getBridge() : null;
   }
 
   @Override
@@ -135,6 +153,12 @@ public class ServletBridge extends HttpServlet {
             return inject;
           } else if (BridgeConfig.REQUEST_ENCODING.equals(key)) {
             return servletConfig.getServletContext().getInitParameter((String)key);
+          } else if (BridgeConfig.MAX_FORM_SIZE.equals(key) || BridgeConfig.MAX_FORM_PARAMETERS.equals(key) || BridgeConfig.COMPRESSION.equals(key) || BridgeConfig.BUNDLE_ASSETS.equals(key) || BridgeConfig.WARMUP_TEMPLATES.equals(key)) {
+            String value = servletConfig.getInitParameter((String)key);
+            if (value == null) {
+              value = servletConfig.getServletContext().getInitParameter((String)key);
+            }
+            return value;
           } else {
             return null;
           }
@@ -195,7 +219,7 @@ public class ServletBridge extends HttpServlet {
 
     //
     this.bridgeConfig = config;
-    this.handler = null;
+    this.live = null;
     this.path = path;
     this.bundleName = servletConfig.getInitParameter(BUNDLE_NAME);
     this.servletLogger = servletLogger;
@@ -217,7 +241,22 @@ public class ServletBridge extends HttpServlet {
     return config.getInitParameter("juzu.app_name");
   }
 
-  private void refresh() throws Exception {
+  /**
+   * Returns the live application, the application is refreshed only when there is no live application yet or when
+   * the run mode is dynamic, otherwise the live application is returned without locking.
+   *
+   * @return the live application
+   * @throws Exception any exception
+   */
+  private Live getLive() throws Exception {
+    Live live = this.live;
+    if (live == null || bridgeContext.getRunMode().isDynamic()) {
+      live = refresh();
+    }
+    return live;
+  }
+
+  private synchronized Live refresh() throws Exception {
     if (bridge == null) {
 
       //
@@ -247,6 +286,8 @@ public class ServletBridge extends HttpServlet {
       if (module == null) {
         getServletContext().setAttribute("juzu.module", module = new ModuleContextImpl(servletLogger, bridgeContext, resolver));
       }
+      module.retain();
+      this.module = module;
 
       // Get asset server
       AssetServer server = (AssetServer)getServletContext().getAttribute("asset.server");
@@ -264,22 +305,23 @@ public class ServletBridge extends HttpServlet {
     }
 
     //
+    Live live = this.live;
     Completion<Boolean> refresh = bridge.refresh();
     if (refresh.isFailed()) {
       throw refresh.getCause();
     } else if (refresh.get()) {
-      if (handler != null) {
-        Tools.safeClose(handler);
-        handler = null;
-        applicationContext = null;
+      if (live != null) {
+        Tools.safeClose(live.handler);
+        live = null;
       }
     }
 
     //
-    if (handler == null) {
-      this.handler = new Handler(bridge);
-      this.applicationContext = new ServletApplicationContext(getServletContext().getClassLoader(), bundleName);
+    if (live == null) {
+      live = new Live(new Handler(bridge), new ServletApplicationContext(getServletContext().getClassLoader(), bundleName));
+      this.live = live;
     }
+    return live;
   }
 
   @Override
@@ -287,29 +329,26 @@ public class ServletBridge extends HttpServlet {
 
     //
     ServletRequestContext ctx = new ServletRequestContext(
-        bridgeConfig.name,
-        bridgeConfig.requestEncoding,
+        bridgeConfig,
         req,
         resp,
         path,
         bridgeContext.getRunMode());
 
-    //
-    ServletWebBridge bridge = new ServletWebBridge(this, ctx);
-
     // Do we need to send a server resource ?
     if (ctx.getRequestPath().length() > 1 && !ctx.getRequestPath().startsWith("/WEB-INF/")) {
       URL url = getServletContext().getResource(ctx.getRequestPath());
       if (url != null) {
         RequestDispatcher dispatcher = getServletContext().getNamedDispatcher("default");
-        dispatcher.include(bridge.getRequestContext().req, bridge.getResponse());
+        dispatcher.include(ctx.req, ctx.resp);
         return;
       }
     }
 
     //
+    Live live;
     try {
-      refresh();
+      live = getLive();
     }
     catch (CompilationException e) {
       ctx.send(e);
@@ -321,7 +360,7 @@ public class ServletBridge extends HttpServlet {
 
     //
     try {
-      handler.handle(bridge);
+      live.handler.handle(new ServletWebBridge(this, ctx, live.applicationContext));
     }
     catch (Throwable throwable) {
       throw wrap(throwable);
@@ -329,17 +368,18 @@ public class ServletBridge extends HttpServlet {
   }
 
   @Override
-  public void destroy() {
-/*
+  public synchronized void destroy() {
+    Live live = this.live;
+    if (live != null) {
+      Tools.safeClose(live.handler);
+      this.live = null;
+    }
+    ModuleContextImpl module = this.module;
     if (module != null) {
       if (module.release()) {
-        // Should dispose module (todo later)
+        getServletContext().removeAttribute("juzu.module");
       }
-    }
-*/
-    if (handler != null) {
-      Tools.safeClose(handler);
-      this.handler = null;
+      this.module = null;
     }
   }
 }
@@ -16,25 +16,27 @@
 package juzu.impl.bridge.spi.servlet;
 
 import juzu.asset.AssetLocation;
+import juzu.impl.bridge.BridgeConfig;
 import juzu.impl.bridge.spi.web.HttpStream;
 import juzu.impl.bridge.spi.web.WebRequestContext;
-import juzu.impl.common.FormURLEncodedParser;
+import juzu.impl.common.ContentEncoding;
+import juzu.impl.common.FormURLEncodedReader;
 import juzu.impl.common.JUL;
 import juzu.impl.common.Lexers;
 import juzu.impl.common.Logger;
-import juzu.impl.common.Name;
 import juzu.impl.common.RunMode;
 import juzu.impl.common.Spliterator;
-import juzu.impl.common.Tools;
 import juzu.impl.io.BinaryOutputStream;
+import juzu.impl.io.BinaryStream;
 import juzu.io.Stream;
 import juzu.request.RequestParameter;
 
 import javax.servlet.AsyncContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.HashMap;
@@ -59,8 +61,20 @@ public class ServletRequestContext extends WebRequestContext {
   /** . */
   final String requestPath;
 
+  /** The request parameters, the form body is parsed on first access. */
+  private Map<String, RequestParameter> requestParameters;
+
+  /** . */
+  private final int maxFormSize;
+
+  /** . */
+  private final int maxFormParameters;
+
+  /** . */
+  private final boolean compression;
+
   /** . */
-  final Map<String, RequestParameter> requestParameters;
+  private final boolean bundleAssets;
 
   /** . */
   final Charset defaultEncoding;
@@ -75,14 +89,52 @@ public class ServletRequestContext extends WebRequestContext {
   private final RunMode runMode;
 
   public ServletRequestContext(
-      Name application,
-      Charset defaultEncoding,
+      BridgeConfig config,
       HttpServletRequest req,
       HttpServletResponse resp,
       String path,
       RunMode runMode) {
 
     //
+    StringBuilder prefix = new StringBuilder();
+    for (String atom : config.name) {
+      prefix.append('/').append(atom);
+    }
+    prefix.append("/assets/");
+
+    //
+    this.defaultEncoding = config.requestEncoding;
+    this.requestPath = req.getRequestURI().substring(req.getContextPath().length());
+    this.maxFormSize = config.maxFormSize;
+    this.maxFormParameters = config.maxFormParameters;
+    this.compression = config.compression;
+    this.bundleAssets = config.bundleAssets;
+    this.req = req;
+    this.path = path;
+    this.resp = resp;
+    this.prefix = prefix.toString();
+    this.runMode = runMode;
+
+  }
+
+  @Override
+  public RunMode getRunMode() {
+    return runMode;
+  }
+
+  @Override
+  public boolean getBundleAssets() {
+    return bundleAssets && runMode.getCacheAssets();
+  }
+
+  public Map<String, RequestParameter> getParameters() throws FormURLEncodedReader.LimitExceededException {
+    if (requestParameters == null) {
+      requestParameters = parseParameters();
+    }
+    return requestParameters;
+  }
+
+  private Map<String, RequestParameter> parseParameters() throws FormURLEncodedReader.LimitExceededException {
     Map<String, RequestParameter> requestParameters = Collections.emptyMap();
     String query = req.getQueryString();
     if (query != null) {
@@ -109,48 +161,27 @@ public class ServletRequestContext extends WebRequestContext {
             }
           }
           try {
-            byte[] bytes = Tools.copy(req.getInputStream(), new ByteArrayOutputStream()).toByteArray();
-            String form = new String(bytes, charset);
-            FormURLEncodedParser parser = new FormURLEncodedParser(defaultEncoding, form, 0, form.length());
-            for (RequestParameter parameter : parser) {
+            int contentLength = req.getContentLength();
+            if (contentLength > maxFormSize) {
+              throw new FormURLEncodedReader.LimitExceededException("Form body of " + contentLength + " bytes exceeds the maximum size of " + maxFormSize + " bytes");
+            }
+            FormURLEncodedReader reader = new FormURLEncodedReader(charset, maxFormSize, maxFormParameters);
+            for (RequestParameter parameter : reader.read(req.getInputStream()).values()) {
               if (requestParameters.isEmpty()) {
                 requestParameters = new HashMap<String, RequestParameter>();
               }
               parameter.appendTo(requestParameters);
             }
           }
+          catch (FormURLEncodedReader.LimitExceededException e) {
+            throw e;
+          }
           catch (IOException e) {
             log.error("Cannot parse form post", e);
           }
         }
       }
     }
-
-    //
-    StringBuilder prefix = new StringBuilder();
-    for (String atom : application) {
-      prefix.append('/').append(atom);
-    }
-    prefix.append("/assets/");
-
-    //
-    this.defaultEncoding = defaultEncoding;
-    this.requestPath = req.getRequestURI().substring(req.getContextPath().length());
-    this.requestParameters = requestParameters;
-    this.req = req;
-    this.path = path;
-    this.resp = resp;
-    this.prefix = prefix.toString();
-    this.runMode = runMode;
-
-  }
-
-  @Override
-  public RunMode getRunMode() {
-    return runMode;
-  }
-
-  public Map<String, RequestParameter> getParameters() {
     return requestParameters;
   }
 
@@ -211,7 +242,20 @@ public class ServletRequestContext extends WebRequestContext {
     protected Stream getDataStream(boolean create) {
       if (dataStream == null && create) {
         try {
-          dataStream = new BinaryOutputStream(encoding, resp.getOutputStream());
+          OutputStream out = resp.getOutputStream();
+          // A response accepting ranges is sent as is since the ranges apply to the unencoded content
+          if (compression && ContentEncoding.isCompressible(mimeType) && !resp.containsHeader("Content-Encoding") && !resp.containsHeader("Accept-Ranges")) {
+            resp.addHeader("Vary", "Accept-Encoding");
+            int status = resp.getStatus();
+            if (status != 204 && status != 304 && !"HEAD".equals(req.getMethod())) {
+              String coding = ContentEncoding.negotiate(req.getHeader("Accept-Encoding"));
+              if (coding != null) {
+                out = new CompressingOutputStream(resp, out, coding);
+              }
+            }
+          }
+          // Gather the small appends of a response so the container receives fewer and larger writes
+          dataStream = new BinaryOutputStream(encoding, new BufferedOutputStream(out, BinaryStream.DEFAULT_BUFFER_SIZE));
         }
         catch (IOException e) {
           throw new UnsupportedOperationException("Handle me gracefully", e);
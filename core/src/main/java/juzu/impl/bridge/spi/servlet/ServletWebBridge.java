@@ -21,6 +21,7 @@ import juzu.impl.bridge.spi.web.WebBridge;
 import juzu.impl.common.JUL;
 import juzu.impl.common.Logger;
 import juzu.impl.common.Tools;
+import juzu.impl.bridge.spi.HttpHeaders;
 import juzu.impl.bridge.spi.ScopedContext;
 import juzu.request.ApplicationContext;
 import juzu.request.ClientContext;
@@ -41,7 +42,7 @@ import java.util.Locale;
 import java.util.concurrent.RejectedExecutionException;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-public class ServletWebBridge extends WebBridge implements HttpContext, ClientContext, UserContext, SecurityContext {
+public class ServletWebBridge extends WebBridge implements HttpContext, HttpHeaders, ClientContext, UserContext, SecurityContext {
 
   /** . */
   private final ServletRequestContext ctx;
@@ -52,10 +53,14 @@ public class ServletWebBridge extends WebBridge implements HttpContext, ClientCo
   /** . */
   private final ServletBridge servlet;
 
-  public ServletWebBridge(ServletBridge servlet, ServletRequestContext ctx) {
+  /** . */
+  private final ServletApplicationContext applicationContext;
+
+  public ServletWebBridge(ServletBridge servlet, ServletRequestContext ctx, ServletApplicationContext applicationContext) {
     this.ctx = ctx;
     this.method = HttpMethod.valueOf(ctx.req.getMethod());
     this.servlet = servlet;
+    this.applicationContext = applicationContext;
   }
 
   @Override
@@ -128,7 +133,7 @@ public class ServletWebBridge extends WebBridge implements HttpContext, ClientCo
 
   @Override
   public ApplicationContext getApplicationContext() {
-    return servlet.applicationContext;
+    return applicationContext;
   }
 
   public ScopedContext getRequestScope(boolean create) {
@@ -216,6 +221,10 @@ public class ServletWebBridge extends WebBridge implements HttpContext, ClientCo
     return ctx.req.getContextPath();
   }
 
+  public String getHeader(String name) {
+    return ctx.req.getHeader(name);
+  }
+
   // UserContext implementation
 
   public Locale getLocale() {
@@ -19,14 +19,17 @@ package juzu.impl.bridge.spi.web;
 import juzu.HttpMethod;
 import juzu.Resource;
 import juzu.impl.bridge.Bridge;
+import juzu.impl.common.FormURLEncodedReader;
 import juzu.impl.common.MethodHandle;
 import juzu.impl.common.UriBuilder;
+import juzu.impl.plugin.controller.AmbiguousResolutionException;
 import juzu.impl.plugin.controller.ControllerService;
 import juzu.impl.plugin.router.RouteDescriptor;
 import juzu.impl.plugin.router.RouterDescriptor;
 import juzu.impl.plugin.router.RouterService;
 import juzu.impl.request.ControllerHandler;
 import juzu.request.RequestParameter;
+import juzu.impl.router.MatchContext;
 import juzu.impl.router.PathParam;
 import juzu.impl.router.Route;
 import juzu.impl.router.RouteMatch;
@@ -35,11 +38,11 @@ import juzu.request.Phase;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class Handler implements Closeable {
@@ -57,7 +60,7 @@ public class Handler implements Closeable {
   final Bridge bridge;
 
   /** . */
-  final Route root;
+  final Router root;
 
   /** . */
   final HashMap<MethodHandle, Route> forwardRoutes;
@@ -65,6 +68,41 @@ public class Handler implements Closeable {
   /** . */
   final HashMap<Route, RouteDescriptor> backwardRoutes;
 
+  /** The maximum number of idle match contexts. */
+  private static final int MAX_MATCH_CONTEXTS = 64;
+
+  /** The idle match contexts, they are owned by the handler so no state remains on the request threads. */
+  private final ArrayBlockingQueue<MatchContext> matchContexts = new ArrayBlockingQueue<MatchContext>(MAX_MATCH_CONTEXTS);
+
+  /** The targets of a route indexed by http method ordinal. */
+  private final HashMap<Route, Target[]> dispatchTable;
+
+  /** The default index handler. */
+  private final ControllerHandler indexHandler;
+
+  /** The failure when resolving the default index handler. */
+  private final AmbiguousResolutionException indexFailure;
+
+  /** The path of the default index handler route. */
+  private final String indexPath;
+
+  /**
+   * A controller handler targeted by a route for an http method.
+   */
+  private static class Target {
+
+    /** . */
+    final ControllerHandler handler;
+
+    /** True when the following route matches are not considered. */
+    final boolean last;
+
+    Target(ControllerHandler handler, boolean last) {
+      this.handler = handler;
+      this.last = last;
+    }
+  }
+
   public Handler(Bridge bridge) throws Exception {
     this.bridge = bridge;
 
@@ -73,7 +111,7 @@ public class Handler implements Closeable {
     HashMap<Route, RouteDescriptor> backwardRoutes = new HashMap<Route, RouteDescriptor>();
 
     //
-    Route root = new Router();
+    Router root = new Router();
     RouterService router = bridge.getApplication().resolveBean(RouterService.class);
     if (router != null) {
       RouterDescriptor desc = router.getDescriptor();
@@ -86,10 +124,63 @@ public class Handler implements Closeable {
       }
     }
 
+    // The route tree does not change anymore, we can compile it
+    root.compile();
+
+    // Build the dispatch table
+    HashMap<Route, Target[]> dispatchTable = new HashMap<Route, Target[]>();
+    ControllerHandler indexHandler = null;
+    AmbiguousResolutionException indexFailure = null;
+    String indexPath = null;
+    ControllerService controllerService = bridge.getApplication().resolveBean(ControllerService.class);
+    if (controllerService != null && controllerService.getDescriptor() != null) {
+      for (Map.Entry<Route, RouteDescriptor> entry : backwardRoutes.entrySet()) {
+        ControllerHandler target = controllerService.getDescriptor().getMethodByHandle(entry.getValue().handle);
+        if (target != null) {
+          Target[] targets = new Target[HttpMethod.values().length];
+          if (target.getPhase() == Phase.VIEW) {
+            targets[HttpMethod.POST.ordinal()] = new Target(target, false);
+            targets[HttpMethod.GET.ordinal()] = new Target(target, true);
+          } else if (target.getPhase() == Phase.ACTION) {
+            targets[HttpMethod.GET.ordinal()] = new Target(target, false);
+            targets[HttpMethod.POST.ordinal()] = new Target(target, true);
+          } else if (target.getPhase() == Phase.RESOURCE) {
+            for (HttpMethod method : target.getMethod().getAnnotation(Resource.class).method()) {
+              targets[method.ordinal()] = new Target(target, true);
+            }
+          }
+          dispatchTable.put(entry.getKey(), targets);
+        }
+      }
+
+      // Resolve the index method
+      try {
+        indexHandler = controllerService.getResolver().resolve(Phase.VIEW, Collections.<String>emptySet());
+      }
+      catch (AmbiguousResolutionException e) {
+        indexFailure = e;
+      }
+      if (indexHandler != null) {
+        Route indexRoute = forwardRoutes.get(indexHandler.getHandle());
+        if (indexRoute != null) {
+          RouteMatch indexMatch = indexRoute.matches(Collections.<String, String>emptyMap());
+          if (indexMatch != null) {
+            StringBuilder sb = new StringBuilder();
+            indexMatch.render(new UriBuilder(sb));
+            indexPath = sb.toString();
+          }
+        }
+      }
+    }
+
     //
     this.forwardRoutes = forwardRoutes;
     this.backwardRoutes = backwardRoutes;
     this.root = root;
+    this.dispatchTable = dispatchTable;
+    this.indexHandler = indexHandler;
+    this.indexFailure = indexFailure;
+    this.indexPath = indexPath;
   }
 
   public RouteDescriptor getMethods(Route route) {
@@ -121,46 +212,50 @@ public class Handler implements Closeable {
 
       //
       HttpMethod requestMethod = bridge.getHttpContext().getMethod();
-      Iterator<RouteMatch> matches = root.matcher(requestPath.substring(bridge.getRequestContext().getPath().length()), Collections.<String, String[]>emptyMap());
-
-      // Determine a method
-      while (matches.hasNext()) {
-        RouteMatch match = matches.next();
-        RouteDescriptor routeDesc = getMethods(match.getRoute());
-        if (routeDesc != null) {
-          ControllerHandler target = this.bridge.getApplication().resolveBean(ControllerService.class).getDescriptor().getMethodByHandle(routeDesc.handle);
-          if (target.getPhase() == Phase.VIEW) {
-            if (requestMethod == HttpMethod.POST) {
-              requestTarget =  target;
-              requestMatch = match;
-            } else if (requestMethod == HttpMethod.GET) {
-              requestTarget =  target;
-              requestMatch = match;
-              break;
-            }
-          } else if (target.getPhase() == Phase.ACTION) {
-            if (requestMethod == HttpMethod.GET) {
-              requestTarget =  target;
-              requestMatch = match;
-            } else if (requestMethod == HttpMethod.POST) {
-              requestTarget =  target;
-              requestMatch = match;
-              break;
-            }
-          } else if (target.getPhase() == Phase.RESOURCE) {
-            if (Arrays.asList(target.getMethod().getAnnotation(Resource.class).method()).contains(requestMethod)) {
-              requestTarget =  target;
+
+      // Take an idle context, a reentrant request takes another context
+      MatchContext matchContext = matchContexts.poll();
+      if (matchContext == null) {
+        matchContext = new MatchContext();
+      }
+
+      //
+      try {
+        Iterator<RouteMatch> matches = root.matcher(matchContext, requestPath.substring(bridge.getRequestContext().getPath().length()), Collections.<String, String[]>emptyMap());
+
+        // Determine a method
+        while (matches.hasNext()) {
+          RouteMatch match = matches.next();
+          Target[] targets = dispatchTable.get(match.getRoute());
+          if (targets != null) {
+            Target target = targets[requestMethod.ordinal()];
+            if (target != null) {
+              requestTarget = target.handler;
               requestMatch = match;
-              break;
+              if (target.last) {
+                break;
+              }
             }
           }
         }
+      } finally {
+        matchContexts.offer(matchContext);
       }
 
-      // Determine parameters for the match
-      if (requestMatch != null && (requestMatch.getMatched().size() > 0 || bridge.getRequestContext().getParameters().size() > 0)) {
+      // Determine parameters for the match, the form body is read only when a route matched
+      Map<String, RequestParameter> parameters = Collections.emptyMap();
+      if (requestMatch != null) {
+        try {
+          parameters = bridge.getRequestContext().getParameters();
+        }
+        catch (FormURLEncodedReader.LimitExceededException e) {
+          bridge.getRequestContext().setStatus(413);
+          return;
+        }
+      }
+      if (requestMatch != null && (requestMatch.getMatched().size() > 0 || parameters.size() > 0)) {
         requestParameters = new HashMap<String, RequestParameter>();
-        for (RequestParameter requestParameter : bridge.getRequestContext().getParameters().values()) {
+        for (RequestParameter requestParameter : parameters.values()) {
           requestParameters.put(requestParameter.getName(), requestParameter);
         }
         for (Map.Entry<PathParam, String> entry : requestMatch.getMatched().entrySet()) {
@@ -174,7 +269,10 @@ public class Handler implements Closeable {
     // or we look for the handler method
     if (requestTarget == null) {
       // If we have an handler we locate the index method
-      requestTarget = this.bridge.getApplication().resolveBean(ControllerService.class).getResolver().resolve(Phase.VIEW, Collections.<String>emptySet());
+      if (indexFailure != null) {
+        throw indexFailure;
+      }
+      requestTarget = indexHandler;
     }
 
     // No method -> not found
@@ -182,20 +280,13 @@ public class Handler implements Closeable {
       bridge.getRequestContext().setStatus(404);
     } else {
       if (requestMatch == null) {
-        Route requestRoute = getRoute(requestTarget.getHandle());
-        if (requestRoute != null) {
-          requestMatch = requestRoute.matches(Collections.<String, String>emptyMap());
-          if (requestMatch != null) {
-            StringBuilder sb = new StringBuilder();
-            requestMatch.render(new UriBuilder(sb));
-            if (!sb.toString().equals(requestPath)) {
-              StringBuilder redirect = new StringBuilder();
-              bridge.renderRequestURL(redirect);
-              redirect.append(sb);
-              bridge.getRequestContext().sendRedirect(redirect.toString());
-              return;
-            }
-          }
+        // Redirect to the index route
+        if (indexPath != null && !indexPath.equals(requestPath)) {
+          StringBuilder redirect = new StringBuilder();
+          bridge.renderRequestURL(redirect);
+          redirect.append(indexPath);
+          bridge.getRequestContext().sendRedirect(redirect.toString());
+          return;
         }
       }
 
@@ -224,5 +315,7 @@ public class Handler implements Closeable {
   }
 
   public void close() throws IOException {
+    root.clearCache();
+    matchContexts.clear();
   }
 }
@@ -16,10 +16,13 @@
 
 package juzu.impl.bridge.spi.web;
 
+import juzu.HttpMethod;
 import juzu.Response;
 import juzu.impl.bridge.Bridge;
+import juzu.impl.bridge.spi.HttpHeaders;
 import juzu.impl.plugin.asset.AssetService;
 import juzu.impl.request.ControllerHandler;
+import juzu.request.HttpContext;
 import juzu.request.Phase;
 import juzu.request.RequestParameter;
 
@@ -47,6 +50,13 @@ public abstract class WebMimeBridge extends WebRequestBridge {
       // For now we hardcode this
       Response.Status status = (Response.Status)response;
 
+      // Select the range of a ranged body
+      HttpContext httpContext = http.getHttpContext();
+      if (status instanceof Response.Ranged && httpContext.getMethod() == HttpMethod.GET && httpContext instanceof HttpHeaders) {
+        HttpHeaders headers = (HttpHeaders)httpContext;
+        status = ((Response.Ranged)status).select(headers.getHeader("Range"), headers.getHeader("If-Range"));
+      }
+
       //
       AssetService assetPlugin = (AssetService)handler.getBridge().getApplication().getPlugin("asset");
 
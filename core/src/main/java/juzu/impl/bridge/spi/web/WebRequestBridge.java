@@ -39,7 +39,6 @@ import juzu.impl.bridge.spi.ScopedContext;
 import juzu.impl.request.Request;
 import juzu.impl.bridge.spi.RequestBridge;
 import juzu.impl.common.Tools;
-import juzu.impl.router.PathParam;
 import juzu.impl.router.Route;
 import juzu.impl.router.RouteMatch;
 import juzu.request.ApplicationContext;
@@ -53,7 +52,6 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.RejectedExecutionException;
@@ -247,15 +245,9 @@ public abstract class WebRequestBridge implements RequestBridge, WindowContext {
             UriBuilder writer = new UriBuilder(appendable, mimeType);
             match.render(writer);
 
-            // Retain matched parameters for filtering later
-            Set<String> matched = match.getMatched().isEmpty() ? Collections.<String>emptySet() : new HashSet<String>(match.getMatched().size());
-            for (PathParam param : match.getMatched().keySet()) {
-              matched.add(param.getName());
-            }
-
             // Render remaining parameters which have not been rendered yet
             for (ResponseParameter parameter : parameters.values()) {
-              if (!matched.contains(parameter.getName())) {
+              if (!match.isMatched(parameter.getName())) {
                 for (int i = 0;i < parameter.size();i++) {
                   writer.appendQueryParameter(parameter.getEncoding(), parameter.getName(), parameter.get(i));
                 }
@@ -20,6 +20,7 @@ import juzu.request.Phase;
 import juzu.Response;
 import juzu.asset.AssetLocation;
 import juzu.impl.asset.AssetManager;
+import juzu.impl.common.FormURLEncodedReader;
 import juzu.impl.common.RunMode;
 import juzu.impl.compiler.CompilationException;
 import juzu.impl.io.SafeStream;
@@ -58,7 +59,7 @@ public abstract class WebRequestContext {
       }
       
       //
-      stream = new WebStream((HttpStream)stream, assetManager, getRunMode().getMinifyAssets(), phase) {
+      stream = new WebStream((HttpStream)stream, assetManager, getRunMode().getMinifyAssets(), getBundleAssets(), phase) {
         @Override
         public String renderAssetURL(AssetLocation location, String uri) {
           try {
@@ -84,7 +85,22 @@ public abstract class WebRequestContext {
 
   public abstract RunMode getRunMode();
 
-  public abstract Map<String, RequestParameter> getParameters();
+  /**
+   * Returns true when the application assets of a page should be served as bundles.
+   *
+   * @return the asset bundling
+   */
+  public boolean getBundleAssets() {
+    return false;
+  }
+
+  /**
+   * Returns the query and form parameters of the request, the form body is read on the first call.
+   *
+   * @return the request parameters
+   * @throws FormURLEncodedReader.LimitExceededException when the form body exceeds the configured bounds
+   */
+  public abstract Map<String, RequestParameter> getParameters() throws FormURLEncodedReader.LimitExceededException;
 
   public abstract String getRequestURI();
 
@@ -51,6 +51,15 @@ public abstract class WebStream implements AsyncStream {
   /** . */
   private static final int FAILED = 3;
 
+  /** . */
+  private static final int STYLESHEET = 0;
+
+  /** . */
+  private static final int HEADER_SCRIPT = 1;
+
+  /** . */
+  private static final int FOOTER_SCRIPT = 2;
+
   /** . */
   private final HttpStream stream;
 
@@ -65,15 +74,23 @@ public abstract class WebStream implements AsyncStream {
 
   /** . */
   private final boolean minifyAssets;
+
+  /** Whether consecutive application assets are sent as a bundle. */
+  private final boolean bundleAssets;
   
   /** . */
   private final Phase phase;
 
   public WebStream(HttpStream stream, AssetManager assetManager, boolean minifyAssets, Phase phase) {
+    this(stream, assetManager, minifyAssets, false, phase);
+  }
+
+  public WebStream(HttpStream stream, AssetManager assetManager, boolean minifyAssets, boolean bundleAssets, Phase phase) {
     this.stream = stream;
     this.assetManager = assetManager;
     this.page = new Page();
     this.minifyAssets = minifyAssets;
+    this.bundleAssets = bundleAssets;
     this.phase = phase;
   }
 
@@ -223,19 +240,7 @@ public abstract class WebStream implements AsyncStream {
         stream.provide(Chunk.create(metaTag.getValue()));
         stream.provide(Chunk.create("\">\n"));
       }
-      for (Asset asset : resolvedAssets) {
-        if (asset.isStylesheet()) {
-          String uri = asset.resolveURI(minifyAssets);
-          int pos = uri.lastIndexOf('.');
-          String ext = pos == -1 ? "css" : uri.substring(pos + 1);
-          String url = renderAssetURL(asset.getLocation(), uri);
-          stream.provide(Chunk.create("<link rel=\"stylesheet\" type=\"text/"));
-          stream.provide(Chunk.create(ext));
-          stream.provide(Chunk.create("\" href=\""));
-          stream.provide(Chunk.create(url));
-          stream.provide(Chunk.create("\"/>\n"));
-        }
-      }
+      sendAssets(stream, STYLESHEET);
       List<Asset> modules = Collections.emptyList();
       for (Asset asset : resolvedAssets) {
         if (asset.getType().equals("module")) {
@@ -248,15 +253,7 @@ public abstract class WebStream implements AsyncStream {
       if (!modules.isEmpty()) {
         renderAMD(modules, stream);
       }
-      for (Asset asset : resolvedAssets) {
-        if (asset.isScript() && !Boolean.FALSE.equals(asset.getHeader())) {
-          String uri = asset.resolveURI(minifyAssets);
-          String url = renderAssetURL(asset.getLocation(), uri);
-          stream.provide(Chunk.create("<script type=\"text/javascript\" src=\""));
-          stream.provide(Chunk.create(url));
-          stream.provide(Chunk.create("\"></script>\n"));
-        }
-      }
+      sendAssets(stream, HEADER_SCRIPT);
 
       for (Element headerTag : headerTags) {
         try {
@@ -274,20 +271,76 @@ public abstract class WebStream implements AsyncStream {
     }
 
     void sendFooter(Stream stream) {
-      for (Asset asset : resolvedAssets) {
-        if (asset.isScript() && Boolean.FALSE.equals(asset.getHeader())) {
-          String uri = asset.resolveURI(minifyAssets);
-          String url = renderAssetURL(asset.getLocation(), uri);
-          stream.provide(Chunk.create("<script type=\"text/javascript\" src=\""));
-          stream.provide(Chunk.create(url));
-          stream.provide(Chunk.create("\"></script>\n"));
-        }
-      }
+      sendAssets(stream, FOOTER_SCRIPT);
       stream.provide(Chunk.create(
           "</body>\n" +
               "</html>\n"));
     }
     
+    private boolean accept(Asset asset, int kind) {
+      switch (kind) {
+        case STYLESHEET:
+          return asset.isStylesheet();
+        case HEADER_SCRIPT:
+          return asset.isScript() && !Boolean.FALSE.equals(asset.getHeader());
+        default:
+          return asset.isScript() && Boolean.FALSE.equals(asset.getHeader());
+      }
+    }
+
+    /**
+     * Send the tags of the assets of the specified kind in their resolution order. When bundling is enabled,
+     * each run of consecutive application assets is sent as a single bundle.
+     */
+    private void sendAssets(Stream stream, int kind) {
+      List<Asset> run = Collections.emptyList();
+      for (Asset asset : resolvedAssets) {
+        if (accept(asset, kind)) {
+          if (bundleAssets && assetManager != null && asset.getLocation() == AssetLocation.APPLICATION) {
+            if (run.isEmpty()) {
+              run = new ArrayList<Asset>();
+            }
+            run.add(asset);
+          } else {
+            sendRun(stream, run);
+            sendAsset(stream, asset.getLocation(), asset.resolveURI(minifyAssets), asset.isStylesheet());
+          }
+        }
+      }
+      sendRun(stream, run);
+    }
+
+    private void sendRun(Stream stream, List<Asset> run) {
+      if (run.size() > 0) {
+        String bundle = run.size() > 1 ? assetManager.resolveBundle(run, minifyAssets) : null;
+        if (bundle != null) {
+          sendAsset(stream, AssetLocation.APPLICATION, bundle, run.get(0).isStylesheet());
+        } else {
+          for (Asset asset : run) {
+            sendAsset(stream, asset.getLocation(), asset.resolveURI(minifyAssets), asset.isStylesheet());
+          }
+        }
+        run.clear();
+      }
+    }
+
+    private void sendAsset(Stream stream, AssetLocation location, String uri, boolean stylesheet) {
+      String url = renderAssetURL(location, uri);
+      if (stylesheet) {
+        int pos = uri.lastIndexOf('.');
+        String ext = pos == -1 ? "css" : uri.substring(pos + 1);
+        stream.provide(Chunk.create("<link rel=\"stylesheet\" type=\"text/"));
+        stream.provide(Chunk.create(ext));
+        stream.provide(Chunk.create("\" href=\""));
+        stream.provide(Chunk.create(url));
+        stream.provide(Chunk.create("\"/>\n"));
+      } else {
+        stream.provide(Chunk.create("<script type=\"text/javascript\" src=\""));
+        stream.provide(Chunk.create(url));
+        stream.provide(Chunk.create("\"></script>\n"));
+      }
+    }
+
     private void renderAMD(Iterable<Asset> modules, Stream stream) {
       StringBuilder buffer = new StringBuilder();
       buffer.append("<script type=\"text/javascript\">");
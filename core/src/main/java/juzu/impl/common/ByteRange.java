@@ -0,0 +1,175 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.common;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * A byte range of a content as specified by the <code>Range</code> header of a request.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ByteRange {
+
+  /** The range returned when none of the requested ranges can be satisfied. */
+  public static final ByteRange NOT_SATISFIABLE = new ByteRange(-1, -1);
+
+  /** The maximum number of ranges of a range header. */
+  private static final int MAX_RANGES = 16;
+
+  /** The first byte position. */
+  public final long first;
+
+  /** The last byte position, inclusive. */
+  public final long last;
+
+  public ByteRange(long first, long last) {
+    this.first = first;
+    this.last = last;
+  }
+
+  public long getLength() {
+    return last - first + 1;
+  }
+
+  /**
+   * Returns the value of the <code>Content-Range</code> header for this range.
+   *
+   * @param length the content length
+   * @return the content range value
+   */
+  public String getContentRange(long length) {
+    if (this == NOT_SATISFIABLE) {
+      return "bytes */" + length;
+    } else {
+      return "bytes " + first + "-" + last + "/" + length;
+    }
+  }
+
+  /**
+   * Parse the value of a <code>Range</code> header for a content of the specified length. Several ranges are
+   * coalesced into the range covering all of them, so they are sent as a single part. The header is ignored
+   * when it is not valid or when it contains too many ranges.
+   *
+   * @param range the range header value
+   * @param length the content length
+   * @return the range, {@link #NOT_SATISFIABLE} or null when the whole content should be sent
+   */
+  public static ByteRange parse(String range, long length) {
+    if (range == null || length < 0) {
+      return null;
+    }
+    range = range.trim();
+    if (!range.startsWith("bytes=")) {
+      return null;
+    }
+    long first = Long.MAX_VALUE;
+    long last = -1;
+    int count = 0;
+    for (String spec : Spliterator.split(range.substring(6), ',')) {
+      spec = spec.trim();
+      if (spec.length() == 0) {
+        continue;
+      }
+      if (++count > MAX_RANGES) {
+        return null;
+      }
+      int dash = spec.indexOf('-');
+      if (dash == -1) {
+        return null;
+      }
+      long from;
+      long to;
+      try {
+        if (dash == 0) {
+          // Suffix range
+          long suffix = Long.parseLong(spec.substring(1).trim());
+          if (suffix < 0) {
+            return null;
+          }
+          if (suffix == 0) {
+            continue;
+          }
+          from = Math.max(0, length - suffix);
+          to = length - 1;
+        } else {
+          from = Long.parseLong(spec.substring(0, dash).trim());
+          String s = spec.substring(dash + 1).trim();
+          if (s.length() == 0) {
+            to = length - 1;
+          } else {
+            to = Long.parseLong(s);
+            if (to < from) {
+              return null;
+            }
+            to = Math.min(to, length - 1);
+          }
+        }
+      }
+      catch (NumberFormatException e) {
+        return null;
+      }
+      if (from < length) {
+        first = Math.min(first, from);
+        last = Math.max(last, to);
+      }
+    }
+    if (count == 0) {
+      return null;
+    }
+    if (last == -1) {
+      return NOT_SATISFIABLE;
+    }
+    return new ByteRange(first, last);
+  }
+
+  /**
+   * Evaluate the value of an <code>If-Range</code> header: an entity tag must be equal to the current strong
+   * entity tag and a date must be equal to the current last modified date.
+   *
+   * @param ifRange the if range header value
+   * @param etag the current entity tag or null
+   * @param lastModified the current last modified date or a value lower or equal to 0 when unknown
+   * @return true if the range can be sent
+   */
+  public static boolean matchesIfRange(String ifRange, String etag, long lastModified) {
+    if (ifRange == null) {
+      return true;
+    }
+    ifRange = ifRange.trim();
+    if (ifRange.startsWith("W/")) {
+      // A weak entity tag never matches
+      return false;
+    } else if (ifRange.startsWith("\"")) {
+      return ifRange.equals(etag);
+    } else if (lastModified > 0) {
+      SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+      format.setTimeZone(TimeZone.getTimeZone("GMT"));
+      try {
+        return format.parse(ifRange).getTime() / 1000 == lastModified / 1000;
+      }
+      catch (ParseException e) {
+        return false;
+      }
+    } else {
+      return false;
+    }
+  }
+}
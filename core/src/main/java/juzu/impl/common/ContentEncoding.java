@@ -0,0 +1,284 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * The content codings used for compressing responses: it negotiates a coding from an <code>Accept-Encoding</code>
+ * header and compresses data with {@link Deflater} instances reused through a pool.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ContentEncoding {
+
+  /** . */
+  public static final String GZIP = "gzip";
+
+  /** . */
+  public static final String DEFLATE = "deflate";
+
+  /** The codings we can produce by order of preference. */
+  private static final String[] CODINGS = {GZIP, DEFLATE};
+
+  /** The body size under which compressing is not worth it. */
+  public static final int MIN_SIZE = 1024;
+
+  /** The maximum number of pooled deflaters per coding. */
+  private static final int MAX_POOLED = 32;
+
+  /** . */
+  private static final ConcurrentLinkedQueue<Deflater> gzipDeflaters = new ConcurrentLinkedQueue<Deflater>();
+
+  /** . */
+  private static final ConcurrentLinkedQueue<Deflater> deflateDeflaters = new ConcurrentLinkedQueue<Deflater>();
+
+  /** The mime types not compressed because they are compressed already. */
+  private static final String[] COMPRESSED_TYPES = {
+      "image/", "audio/", "video/",
+      "application/zip", "application/gzip", "application/x-gzip", "application/x-compress",
+      "application/x-bzip2", "application/x-7z-compressed", "application/x-rar-compressed",
+      "application/java-archive", "application/pdf", "application/octet-stream",
+      "application/font-woff", "application/x-font-woff", "font/woff"
+  };
+
+  private ContentEncoding() {
+  }
+
+  /**
+   * Negotiate the content coding of a response from the <code>Accept-Encoding</code> header of the request.
+   *
+   * @param acceptEncoding the header value
+   * @return the coding or null when the response should not be encoded
+   */
+  public static String negotiate(String acceptEncoding) {
+    if (acceptEncoding == null || acceptEncoding.length() == 0) {
+      return null;
+    }
+    float[] qualities = new float[CODINGS.length];
+    float any = -1f;
+    for (String range : Spliterator.split(acceptEncoding, ',')) {
+      Spliterator i = new Spliterator(range, ';');
+      String coding = i.hasNext() ? i.next().trim().toLowerCase() : "";
+      float quality = 1f;
+      while (i.hasNext()) {
+        String param = i.next().trim();
+        if (param.startsWith("q=")) {
+          try {
+            quality = Float.parseFloat(param.substring(2).trim());
+          }
+          catch (NumberFormatException e) {
+            quality = 0f;
+          }
+        }
+      }
+      if (coding.equals("*")) {
+        any = quality;
+      } else {
+        if (coding.equals("x-gzip")) {
+          coding = GZIP;
+        }
+        for (int j = 0;j < CODINGS.length;j++) {
+          if (CODINGS[j].equals(coding)) {
+            // Quality 0 means not acceptable, keep it distinct from absent
+            qualities[j] = quality > 0f ? quality : -2f;
+          }
+        }
+      }
+    }
+    String best = null;
+    float bestQuality = 0f;
+    for (int j = 0;j < CODINGS.length;j++) {
+      float quality = qualities[j] == 0f ? any : qualities[j];
+      if (quality > bestQuality) {
+        best = CODINGS[j];
+        bestQuality = quality;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Returns true when a response of the specified mime type is worth compressing.
+   *
+   * @param mimeType the mime type
+   * @return true if the mime type is compressible
+   */
+  public static boolean isCompressible(String mimeType) {
+    if (mimeType == null) {
+      return false;
+    }
+    mimeType = mimeType.toLowerCase();
+    if (mimeType.startsWith("image/svg")) {
+      return true;
+    }
+    for (String compressed : COMPRESSED_TYPES) {
+      if (mimeType.startsWith(compressed)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Create a stream encoding the bytes written to it and writing them to the specified output. Closing the
+   * stream writes the trailer of the coding and closes the output.
+   *
+   * @param coding the coding
+   * @param out the output
+   * @return the encoding stream
+   * @throws IllegalArgumentException if the coding is not supported
+   */
+  public static OutputStream encode(String coding, OutputStream out) throws IllegalArgumentException {
+    if (GZIP.equals(coding)) {
+      return new Encoder(out, gzipDeflaters, true);
+    } else if (DEFLATE.equals(coding)) {
+      return new Encoder(out, deflateDeflaters, false);
+    } else {
+      throw new IllegalArgumentException("Unsupported coding " + coding);
+    }
+  }
+
+  /**
+   * Encode the specified bytes.
+   *
+   * @param coding the coding
+   * @param data the data
+   * @return the encoded data
+   * @throws IllegalArgumentException if the coding is not supported
+   */
+  public static byte[] encode(String coding, byte[] data) throws IllegalArgumentException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 2 + 32);
+    OutputStream out = encode(coding, buffer);
+    try {
+      out.write(data);
+      out.close();
+    }
+    catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    return buffer.toByteArray();
+  }
+
+  private static class Encoder extends DeflaterOutputStream {
+
+    /** . */
+    private static final byte[] GZIP_HEADER = {0x1F, (byte)0x8B, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    /** . */
+    private final ConcurrentLinkedQueue<Deflater> pool;
+
+    /** . */
+    private final CRC32 crc;
+
+    /** . */
+    private boolean header;
+
+    /** . */
+    private boolean finished;
+
+    /** . */
+    private boolean closed;
+
+    private Encoder(OutputStream out, ConcurrentLinkedQueue<Deflater> pool, boolean gzip) {
+      super(out, acquire(pool, gzip), 512, true);
+
+      //
+      this.pool = pool;
+      this.crc = gzip ? new CRC32() : null;
+      this.header = !gzip;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (!header) {
+        out.write(GZIP_HEADER);
+        header = true;
+      }
+      super.write(b, off, len);
+      if (crc != null) {
+        crc.update(b, off, len);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      if (!header) {
+        out.write(GZIP_HEADER);
+        header = true;
+      }
+      super.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+      if (!finished) {
+        if (!header) {
+          out.write(GZIP_HEADER);
+          header = true;
+        }
+        super.finish();
+        if (crc != null) {
+          writeInt((int)crc.getValue());
+          writeInt((int)def.getBytesRead());
+        }
+        finished = true;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (!closed) {
+        closed = true;
+        try {
+          finish();
+        }
+        finally {
+          release(pool, def);
+          out.close();
+        }
+      }
+    }
+
+    private void writeInt(int i) throws IOException {
+      out.write(i & 0xFF);
+      out.write((i >> 8) & 0xFF);
+      out.write((i >> 16) & 0xFF);
+      out.write((i >> 24) & 0xFF);
+    }
+  }
+
+  private static Deflater acquire(ConcurrentLinkedQueue<Deflater> pool, boolean nowrap) {
+    Deflater deflater = pool.poll();
+    return deflater != null ? deflater : new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+  }
+
+  private static void release(ConcurrentLinkedQueue<Deflater> pool, Deflater deflater) {
+    deflater.reset();
+    if (pool.size() < MAX_POOLED) {
+      pool.offer(deflater);
+    } else {
+      deflater.end();
+    }
+  }
+}
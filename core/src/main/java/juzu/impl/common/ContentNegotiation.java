@@ -0,0 +1,117 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Orders a set of mime types according to the media ranges of an <code>Accept</code> header.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class ContentNegotiation {
+
+  private ContentNegotiation() {
+  }
+
+  /**
+   * Order the specified mime types by decreasing quality of the <code>accept</code> header, the mime types with
+   * the same quality retain their order. The mime types not accepted come last so they remain available as a
+   * fallback, when the accept header is null or blank, the mime types are returned as is.
+   *
+   * @param accept the accept header value
+   * @param mimeTypes the mime types
+   * @return the ordered mime types
+   */
+  public static String[] negotiate(String accept, String[] mimeTypes) {
+    if (accept == null || mimeTypes.length == 0) {
+      return mimeTypes;
+    }
+
+    // Parse the media ranges
+    List<String> ranges = new ArrayList<String>();
+    List<Float> qualities = new ArrayList<Float>();
+    for (String range : Spliterator.split(accept, ',')) {
+      Spliterator i = new Spliterator(range, ';');
+      String mediaRange = i.hasNext() ? i.next().trim().toLowerCase() : "";
+      if (mediaRange.length() > 0) {
+        float quality = 1f;
+        while (i.hasNext()) {
+          String param = i.next().trim();
+          if (param.startsWith("q=")) {
+            try {
+              quality = Float.parseFloat(param.substring(2).trim());
+            }
+            catch (NumberFormatException e) {
+              quality = 0f;
+            }
+          }
+        }
+        ranges.add(mediaRange);
+        qualities.add(quality);
+      }
+    }
+    if (ranges.isEmpty()) {
+      return mimeTypes;
+    }
+
+    // The quality of a mime type is given by its most specific range
+    float[] scores = new float[mimeTypes.length];
+    for (int i = 0;i < mimeTypes.length;i++) {
+      String mimeType = mimeTypes[i].toLowerCase();
+      int slash = mimeType.indexOf('/');
+      String type = slash == -1 ? mimeType : mimeType.substring(0, slash);
+      int specificity = -1;
+      float score = 0f;
+      for (int j = 0;j < ranges.size();j++) {
+        String range = ranges.get(j);
+        int rangeSpecificity;
+        if (range.equals(mimeType)) {
+          rangeSpecificity = 2;
+        } else if (range.length() == type.length() + 2 && range.startsWith(type) && range.endsWith("/*")) {
+          rangeSpecificity = 1;
+        } else if (range.equals("*/*") || range.equals("*")) {
+          rangeSpecificity = 0;
+        } else {
+          continue;
+        }
+        if (rangeSpecificity > specificity) {
+          specificity = rangeSpecificity;
+          score = qualities.get(j);
+        }
+      }
+      scores[i] = Math.max(score, 0f);
+    }
+
+    // Stable insertion by decreasing quality
+    String[] negotiated = new String[mimeTypes.length];
+    float[] negotiatedScores = new float[mimeTypes.length];
+    for (int i = 0;i < mimeTypes.length;i++) {
+      float score = scores[i];
+      int pos = i;
+      while (pos > 0 && negotiatedScores[pos - 1] < score) {
+        negotiated[pos] = negotiated[pos - 1];
+        negotiatedScores[pos] = negotiatedScores[pos - 1];
+        pos--;
+      }
+      negotiated[pos] = mimeTypes[i];
+      negotiatedScores[pos] = score;
+    }
+    return negotiated;
+  }
+}
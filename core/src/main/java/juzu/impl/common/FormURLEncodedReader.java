@@ -0,0 +1,206 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.common;
+
+import juzu.request.RequestParameter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes an <code>application/x-www-form-urlencoded</code> body incrementally from an input stream: the
+ * bytes are read through a fixed size buffer and percent decoded as they arrive, so the body is never
+ * materialized as a whole. The size of the body and the number of parameters are bounded, a
+ * {@link LimitExceededException} is thrown when a bound is exceeded.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class FormURLEncodedReader {
+
+  /**
+   * Signals a body exceeding the size or the parameter bound of the reader.
+   */
+  public static class LimitExceededException extends IOException {
+    public LimitExceededException(String message) {
+      super(message);
+    }
+  }
+
+  /** . */
+  private static final int BUFFER_SIZE = 512;
+
+  /** . */
+  private final Charset encoding;
+
+  /** . */
+  private final int maxSize;
+
+  /** . */
+  private final int maxParameters;
+
+  /**
+   * Create a new reader.
+   *
+   * @param encoding the encoding of the decoded bytes
+   * @param maxSize the maximum number of bytes of a body
+   * @param maxParameters the maximum number of parameters of a body
+   */
+  public FormURLEncodedReader(Charset encoding, int maxSize, int maxParameters) {
+    this.encoding = encoding;
+    this.maxSize = maxSize;
+    this.maxParameters = maxParameters;
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public int getMaxParameters() {
+    return maxParameters;
+  }
+
+  /**
+   * Read the parameters of a body until the end of the stream, the malformed parameters are ignored.
+   *
+   * @param in the stream
+   * @return the parameters
+   * @throws LimitExceededException when a bound is exceeded
+   * @throws IOException any io exception
+   */
+  public Map<String, RequestParameter> read(InputStream in) throws LimitExceededException, IOException {
+    Map<String, RequestParameter> parameters = Collections.emptyMap();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    Bytes raw = new Bytes();
+    Bytes decoded = new Bytes();
+    String name = null;
+    int escape = 0;
+    int high = 0;
+    boolean valid = true;
+    int size = 0;
+    int count = 0;
+    boolean eof = false;
+    while (!eof) {
+      int len = in.read(buffer);
+      if (len == -1) {
+        // Terminate the last parameter
+        buffer[0] = '&';
+        len = 1;
+        eof = true;
+      } else {
+        size += len;
+        if (size > maxSize) {
+          throw new LimitExceededException("Form body exceeds the maximum size of " + maxSize + " bytes");
+        }
+      }
+      for (int i = 0;i < len;i++) {
+        int b = buffer[i] & 0xFF;
+        if (b == '&') {
+          if (valid && escape == 0 && (name == null ? decoded.size > 0 : name.length() > 0)) {
+            if (++count > maxParameters) {
+              throw new LimitExceededException("Form body exceeds the maximum of " + maxParameters + " parameters");
+            }
+            if (parameters.isEmpty()) {
+              parameters = new HashMap<String, RequestParameter>();
+            }
+            create(name, raw, decoded).appendTo(parameters);
+          }
+          name = null;
+          escape = 0;
+          valid = true;
+          raw.size = 0;
+          decoded.size = 0;
+        } else if (b == '=' && name == null) {
+          valid &= escape == 0;
+          name = decoded.toString(encoding);
+          escape = 0;
+          raw.size = 0;
+          decoded.size = 0;
+        } else {
+          raw.append(b);
+          if (escape == 1) {
+            high = hex(b);
+            escape = 2;
+          } else if (escape == 2) {
+            int low = hex(b);
+            if (high == -1 || low == -1) {
+              valid = false;
+            } else {
+              decoded.append(high * 0x10 + low);
+            }
+            escape = 0;
+          } else if (b == '%') {
+            escape = 1;
+          } else if (b == '+') {
+            decoded.append(' ');
+          } else {
+            decoded.append(b);
+          }
+        }
+      }
+    }
+    return parameters;
+  }
+
+  private RequestParameter create(String name, Bytes raw, Bytes decoded) {
+    if (name == null) {
+      return RequestParameter.create(decoded.toString(encoding), "");
+    } else {
+      return RequestParameter.create(name, raw.toString(encoding), decoded.toString(encoding));
+    }
+  }
+
+  private static int hex(int b) {
+    if (b >= '0' && b <= '9') {
+      return b - '0';
+    } else if (b >= 'A' && b <= 'F') {
+      return b + 10 - 'A';
+    } else if (b >= 'a' && b <= 'f') {
+      return b + 10 - 'a';
+    } else {
+      return -1;
+    }
+  }
+
+  /**
+   * A growable byte array reused for each parameter name and value.
+   */
+  private static class Bytes {
+
+    /** . */
+    private byte[] bytes = new byte[32];
+
+    /** . */
+    private int size = 0;
+
+    void append(int b) {
+      if (size == bytes.length) {
+        byte[] tmp = new byte[size * 2];
+        System.arraycopy(bytes, 0, tmp, 0, size);
+        bytes = tmp;
+      }
+      bytes[size++] = (byte)b;
+    }
+
+    String toString(Charset charset) {
+      return new String(bytes, 0, size, charset);
+    }
+  }
+}
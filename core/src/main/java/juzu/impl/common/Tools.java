@@ -395,13 +395,43 @@ public class Tools {
   }
 
   public static <O extends OutputStream> O copy(InputStream in, O out) throws IOException {
-    byte[] buffer = new byte[256];
+    byte[] buffer = new byte[4096];
     for (int l;(l = in.read(buffer)) != -1;) {
       out.write(buffer, 0, l);
     }
     return out;
   }
 
+  /**
+   * Copy a range of an input stream, the bytes before the range are skipped.
+   *
+   * @param in the input stream
+   * @param out the output stream
+   * @param offset the range offset
+   * @param length the range length
+   * @return the output stream
+   * @throws IOException any io exception
+   */
+  public static <O extends OutputStream> O copy(InputStream in, O out, long offset, long length) throws IOException {
+    byte[] buffer = new byte[4096];
+    while (offset > 0) {
+      long skipped = in.skip(offset);
+      if (skipped <= 0) {
+        int l = in.read(buffer, 0, (int)Math.min(buffer.length, offset));
+        if (l == -1) {
+          return out;
+        }
+        skipped = l;
+      }
+      offset -= skipped;
+    }
+    for (int l;length > 0 && (l = in.read(buffer, 0, (int)Math.min(buffer.length, length))) != -1;) {
+      out.write(buffer, 0, l);
+      length -= l;
+    }
+    return out;
+  }
+
   public static <O extends Writer> O copy(Reader in, O out) throws IOException {
     char[] buffer = new char[256];
     for (int l;(l = in.read(buffer)) != -1;) {
@@ -114,6 +114,7 @@ public abstract class BaseProcessor extends AbstractProcessor {
     Set<String> options = super.getSupportedOptions();
     HashSet<String> our = new HashSet<String>(options);
     our.add("juzu.error_reporting");
+    our.add("juzu.gtmpl.direct_print");
     return our;
   }
 
@@ -23,6 +23,7 @@ import juzu.impl.common.Tools;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public abstract class FileSystemScanner<P> implements Filter<P> {
@@ -35,6 +36,10 @@ public abstract class FileSystemScanner<P> implements Filter<P> {
     return new Hash<P>(fs);
   }
 
+  public static <P> FileSystemScanner<P> createTimestampedHashing(ReadFileSystem<P> fs) {
+    return new TimestampedHash<P>(fs);
+  }
+
   public static class Timestamped<P> extends FileSystemScanner<P> {
     public Timestamped(ReadFileSystem<P> fs) {
       super(fs);
@@ -70,6 +75,40 @@ public abstract class FileSystemScanner<P> implements Filter<P> {
     }
   }
 
+  /**
+   * Hashes the content of a file only when its last modification date changed since the previous scan, so a scan
+   * reads only the files that were touched and a touched file with the same content is not modified.
+   */
+  public static class TimestampedHash<P> extends Hash<P> {
+
+    /** The last modification date and hash of the files of the previous scan. */
+    private HashMap<String, long[]> stamps = new HashMap<String, long[]>();
+
+    /** The stamps of the current scan. */
+    private HashMap<String, long[]> next = new HashMap<String, long[]>();
+
+    public TimestampedHash(ReadFileSystem<P> fs) {
+      super(fs);
+    }
+
+    @Override
+    protected long stampOf(P file, String id) throws IOException {
+      long lastModified = fs.getLastModified(file);
+      long[] stamp = stamps.get(id);
+      if (stamp == null || stamp[0] != lastModified) {
+        stamp = new long[]{lastModified, stampOf(file)};
+      }
+      next.put(id, stamp);
+      return stamp[1];
+    }
+
+    @Override
+    protected void scanned() {
+      stamps = next;
+      next = new HashMap<String, long[]>();
+    }
+  }
+
   /** . */
   protected final ReadFileSystem<P> fs;
 
@@ -98,6 +137,24 @@ public abstract class FileSystemScanner<P> implements Filter<P> {
 
   protected abstract long stampOf(P file) throws IOException;
 
+  /**
+   * Returns the stamp of a file identified by its path.
+   *
+   * @param file the file
+   * @param id the file path
+   * @return the stamp
+   * @throws IOException any io exception
+   */
+  protected long stampOf(P file, String id) throws IOException {
+    return stampOf(file);
+  }
+
+  /**
+   * Signals the end of a scan.
+   */
+  protected void scanned() {
+  }
+
   protected abstract boolean isModified(long snapshot, long current);
 
 }
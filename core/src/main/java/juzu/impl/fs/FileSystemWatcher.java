@@ -0,0 +1,237 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.fs;
+
+import juzu.impl.common.Logger;
+import juzu.impl.fs.spi.ReadFileSystem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Detects the changes of a file system on a background thread and signals them with a flag that can be checked
+ * at no cost. A file system backed by a directory is watched with a {@link WatchService}, any other file system
+ * is polled with a timestamped scanner.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class FileSystemWatcher<P> implements Closeable {
+
+  /** The default polling period in milliseconds. */
+  public static final long DEFAULT_PERIOD = 1000;
+
+  /** . */
+  private final Logger logger;
+
+  /** . */
+  private final ReadFileSystem<P> fs;
+
+  /** . */
+  private final long period;
+
+  /** Set when the file system changed, the initial state is considered as a change. */
+  private final AtomicBoolean changed;
+
+  /** . */
+  private Thread thread;
+
+  /** . */
+  private WatchService watchService;
+
+  public FileSystemWatcher(Logger logger, ReadFileSystem<P> fs) {
+    this(logger, fs, DEFAULT_PERIOD);
+  }
+
+  public FileSystemWatcher(Logger logger, ReadFileSystem<P> fs, long period) {
+    this.logger = logger;
+    this.fs = fs;
+    this.period = period;
+    this.changed = new AtomicBoolean(true);
+  }
+
+  public ReadFileSystem<P> getFileSystem() {
+    return fs;
+  }
+
+  /**
+   * Start watching the file system, this method has no effect when the watcher is already started.
+   *
+   * @throws IOException any io exception
+   */
+  public synchronized void start() throws IOException {
+    if (thread == null) {
+      File root = fs.getFile(fs.getRoot());
+      Runnable task = null;
+      if (root != null && root.isDirectory()) {
+        try {
+          watchService = FileSystems.getDefault().newWatchService();
+          register(watchService, root.toPath());
+          task = new Runnable() {
+            public void run() {
+              watch();
+            }
+          };
+        }
+        catch (IOException e) {
+          logger.info("Could not watch " + root + ", will poll it instead", e);
+          if (watchService != null) {
+            watchService.close();
+            watchService = null;
+          }
+        }
+      }
+      if (task == null) {
+        task = new Runnable() {
+          public void run() {
+            poll();
+          }
+        };
+      }
+      thread = new Thread(task, "Juzu watcher " + fs.getDescription());
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Returns true when the file system changed since the previous call and clears the change flag.
+   *
+   * @return true when the file system changed
+   */
+  public boolean clearChanges() {
+    return changed.getAndSet(false);
+  }
+
+  /**
+   * Signals a change of the file system, so the next call to {@link #clearChanges()} returns true.
+   */
+  public void setChanged() {
+    changed.set(true);
+  }
+
+  public synchronized void close() {
+    if (thread != null) {
+      thread.interrupt();
+      thread = null;
+    }
+    if (watchService != null) {
+      try {
+        watchService.close();
+      }
+      catch (IOException ignore) {
+      }
+      watchService = null;
+    }
+  }
+
+  private void register(final WatchService watchService, Path dir) throws IOException {
+    Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        Path name = dir.getFileName();
+        if (name != null && name.toString().startsWith(".")) {
+          return FileVisitResult.SKIP_SUBTREE;
+        }
+        dir.register(
+            watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_DELETE,
+            StandardWatchEventKinds.ENTRY_MODIFY);
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+
+  private void watch() {
+    WatchService watchService;
+    synchronized (this) {
+      watchService = this.watchService;
+    }
+    if (watchService == null) {
+      // Closed before the thread started
+      return;
+    }
+    try {
+      while (true) {
+        WatchKey key = watchService.take();
+        Path dir = (Path)key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+            // A new directory is watched as well, the files created before are detected by the next scan
+            Path child = dir.resolve((Path)event.context());
+            if (Files.isDirectory(child)) {
+              try {
+                register(watchService, child);
+              }
+              catch (IOException e) {
+                logger.error("Could not watch directory " + child, e);
+              }
+            }
+          }
+          changed.set(true);
+        }
+        key.reset();
+      }
+    }
+    catch (InterruptedException ignore) {
+      // Closed
+    }
+    catch (ClosedWatchServiceException ignore) {
+      // Closed
+    }
+  }
+
+  private void poll() {
+    try {
+      Snapshot<P> snapshot = FileSystemScanner.createTimestamped(fs).take().scan();
+      while (true) {
+        Thread.sleep(period);
+        try {
+          Snapshot<P> next = snapshot.scan();
+          if (next.hasChanges()) {
+            changed.set(true);
+          }
+          snapshot = next;
+        }
+        catch (IOException e) {
+          logger.error("Could not scan " + fs.getDescription(), e);
+          changed.set(true);
+        }
+      }
+    }
+    catch (InterruptedException ignore) {
+      // Closed
+    }
+    catch (IOException e) {
+      logger.error("Could not scan " + fs.getDescription(), e);
+      changed.set(true);
+    }
+  }
+}
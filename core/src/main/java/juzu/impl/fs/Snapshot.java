@@ -68,10 +68,10 @@ public class Snapshot<P> extends HashMap<String, Long> {
       }
 
       public void file(P file, String name) throws IOException {
-        long stamp = scanner.stampOf(file);
         stack.add(name);
         String id = Tools.join('/', stack);
         stack.remove(stack.size() - 1);
+        long stamp = scanner.stampOf(file, id);
         next.put(id, stamp);
 
         //
@@ -91,6 +91,9 @@ public class Snapshot<P> extends HashMap<String, Long> {
 
     });
 
+    //
+    scanner.scanned();
+
     // Now find all removed entries
     for (String id : current.keySet()) {
       if (!next.containsKey(id)) {
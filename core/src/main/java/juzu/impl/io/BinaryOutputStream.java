@@ -17,8 +17,13 @@ package juzu.impl.io;
 
 import juzu.impl.common.Tools;
 
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 
 /** @author Julien Viet */
@@ -34,6 +39,13 @@ public class BinaryOutputStream extends BinaryStream {
     this.out = out;
   }
 
+  public BinaryOutputStream(Charset charset, OutputStream out, int bufferSize) {
+    super(charset, bufferSize);
+
+    //
+    this.out = out;
+  }
+
   @Override
   public void append(byte[] data, int off, int len) throws IOException {
     out.write(data, off, len);
@@ -44,6 +56,30 @@ public class BinaryOutputStream extends BinaryStream {
     out.write(data);
   }
 
+  @Override
+  public void append(InputStream in) throws IOException {
+    if (in instanceof FileInputStream) {
+      // Let the channel transfer the file content, it may avoid copying it in the heap
+      FileChannel channel = ((FileInputStream)in).getChannel();
+      WritableByteChannel target = Channels.newChannel(out);
+      long position = channel.position();
+      long size = channel.size();
+      while (position < size) {
+        long transferred = channel.transferTo(position, size - position, target);
+        if (transferred <= 0) {
+          break;
+        }
+        position += transferred;
+      }
+      channel.position(position);
+    } else if (in instanceof FileRangeInputStream) {
+      ((FileRangeInputStream)in).transferTo(Channels.newChannel(out));
+    } else {
+      super.append(in);
+    }
+    out.flush();
+  }
+
   public void flush() {
     Tools.safeFlush(out);
   }
@@ -15,6 +15,8 @@
  */
 package juzu.impl.io;
 
+import juzu.impl.common.Tools;
+import juzu.io.Chunk;
 import juzu.io.OutputStream;
 
 import java.io.IOException;
@@ -25,62 +27,120 @@ import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
 
-/** @author Julien Viet */
+/**
+ * A stream encoding chars to bytes. The UTF-8 and ISO-8859-1 charsets are encoded directly, the other
+ * charsets use a {@link CharsetEncoder}. The encoding buffer and the encoder are created once per stream, so
+ * appending data does not allocate.
+ *
+ * @author Julien Viet
+ */
 public abstract class BinaryStream extends OutputStream {
 
+  /** The default size of the encoding buffer. */
+  public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+  /** . */
+  private static final int GENERIC = 0;
+
+  /** . */
+  private static final int UTF_8 = 1;
+
+  /** . */
+  private static final int ISO_8859_1 = 2;
+
+  /**
+   * An encoding buffer and the encoder of the last charset used with it.
+   */
+  private static class Encoder {
+
+    /** . */
+    final byte[] bytes;
+
+    /** . */
+    final ByteBuffer buffer;
+
+    /** . */
+    CharsetEncoder encoder;
+
+    Encoder(int size) {
+      this.bytes = new byte[size];
+      this.buffer = ByteBuffer.wrap(bytes);
+    }
+  }
+
   /** Charset. */
   private final Charset charset;
 
-  /** Encoder. */
-  private CharsetEncoder encoder;
+  /** . */
+  private final int kind;
 
   /** . */
-  private ByteBuffer bb;
+  private final int bufferSize;
+
+  /** The encoding buffer and encoder of this stream or null when it is used. */
+  private Encoder encoder;
 
   /** The cached buffer for single char conversion. */
   private CharBuffer single;
 
+  /** The cached bytes for single char conversion. */
+  private byte[] singleBytes;
+
   protected BinaryStream(Charset charset) {
+    this(charset, DEFAULT_BUFFER_SIZE);
+  }
+
+  protected BinaryStream(Charset charset, int bufferSize) {
+    if (bufferSize < 4) {
+      throw new IllegalArgumentException("Buffer size " + bufferSize + " is too small");
+    }
     this.charset = charset;
+    this.kind = Tools.UTF_8.equals(charset) ? UTF_8 : (Tools.ISO_8859_1.equals(charset) ? ISO_8859_1 : GENERIC);
+    this.bufferSize = bufferSize;
   }
 
   public void append(CharBuffer buffer) throws IOException {
     if (buffer.hasRemaining()) {
-      if (encoder == null) {
-        encoder = charset.newEncoder().onUnmappableCharacter(CodingErrorAction.REPORT).onMalformedInput(CodingErrorAction.IGNORE);
-        bb = ByteBuffer.allocate(BUFFER_SIZE);
+      if (kind != GENERIC) {
+        encode(buffer, 0, buffer.remaining());
+        buffer.position(buffer.limit());
       } else {
-        encoder.reset();
+        Encoder encoder = acquire();
+        try {
+          encode(buffer, encoder);
+        }
+        finally {
+          this.encoder = encoder;
+        }
       }
-      while (true) {
-        CoderResult result ;
-        result = buffer.hasRemaining() ? encoder.encode(buffer, bb, true) : encoder.flush(bb);
-        if (result.isUnderflow() || result.isOverflow()) {
-          bb.flip();
-          if (bb.hasRemaining()) {
-            append(bb);
-          }
-          bb.clear();
-          if (result.isUnderflow()) {
-            if (buffer.remaining() > 0) {
-              throw new UnsupportedOperationException("We don't support this case yet");
-            } else {
-              break;
-            }
-          }
-        } else {
-          if (result.isUnmappable()) {
-            buffer.position(buffer.position() + result.length());
-          } else {
-            throw new UnsupportedOperationException("We don't support this case yet (2) " + result);
+    }
+  }
+
+  public void append(ByteBuffer buffer) throws IOException {
+    if (buffer.hasRemaining()) {
+      if (buffer.hasArray()) {
+        append(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        buffer.position(buffer.limit());
+      } else {
+        Encoder encoder = acquire();
+        try {
+          while (buffer.hasRemaining()) {
+            int len = Math.min(buffer.remaining(), encoder.bytes.length);
+            buffer.get(encoder.bytes, 0, len);
+            append(encoder.bytes, 0, len);
           }
         }
+        finally {
+          this.encoder = encoder;
+        }
       }
     }
   }
 
-  public void append(ByteBuffer buffer) throws IOException {
-    append(bb.array(), bb.arrayOffset() + bb.position(), bb.limit() - bb.arrayOffset());
+  @Override
+  public void append(Chunk.Data.Text text) throws IOException {
+    byte[] bytes = text.getBytes(charset);
+    append(bytes, 0, bytes.length);
   }
 
   public void append(CharSequence csq) throws IOException {
@@ -88,17 +148,137 @@ public abstract class BinaryStream extends OutputStream {
   }
 
   public void append(CharSequence csq, int start, int end) throws IOException {
-    append(CharBuffer.wrap(csq, start, end));
+    if (start < end) {
+      if (kind != GENERIC) {
+        encode(csq, start, end);
+      } else {
+        append(CharBuffer.wrap(csq, start, end));
+      }
+    }
   }
 
   public void append(char c) throws IOException {
-    if (single == null) {
-      single = CharBuffer.allocate(1);
+    if (kind == ISO_8859_1 || (kind == UTF_8 && c < 0x80)) {
+      if (c < 0x100) {
+        if (singleBytes == null) {
+          singleBytes = new byte[1];
+        }
+        singleBytes[0] = (byte)c;
+        append(singleBytes, 0, 1);
+      }
+    } else {
+      if (single == null) {
+        single = CharBuffer.allocate(1);
+      } else {
+        single.clear();
+      }
+      single.put(c);
+      single.flip();
+      append(single);
+    }
+  }
+
+  private Encoder acquire() {
+    // Take the encoder of the stream, a reentrant append uses its own encoder
+    Encoder encoder = this.encoder;
+    if (encoder != null) {
+      this.encoder = null;
     } else {
-      single.compact();
+      encoder = new Encoder(bufferSize);
+    }
+    return encoder;
+  }
+
+  private void encode(CharBuffer buffer, Encoder encoder) throws IOException {
+    CharsetEncoder charsetEncoder = encoder.encoder;
+    if (charsetEncoder == null || !charsetEncoder.charset().equals(charset)) {
+      charsetEncoder = charset.newEncoder().onUnmappableCharacter(CodingErrorAction.REPORT).onMalformedInput(CodingErrorAction.IGNORE);
+      encoder.encoder = charsetEncoder;
+    } else {
+      charsetEncoder.reset();
+    }
+    ByteBuffer bb = encoder.buffer;
+    bb.clear();
+    while (true) {
+      CoderResult result ;
+      result = buffer.hasRemaining() ? charsetEncoder.encode(buffer, bb, true) : charsetEncoder.flush(bb);
+      if (result.isUnderflow() || result.isOverflow()) {
+        if (bb.position() > 0) {
+          append(encoder.bytes, 0, bb.position());
+        }
+        bb.clear();
+        if (result.isUnderflow()) {
+          if (buffer.remaining() > 0) {
+            throw new UnsupportedOperationException("We don't support this case yet");
+          } else {
+            break;
+          }
+        }
+      } else {
+        if (result.isUnmappable()) {
+          buffer.position(buffer.position() + result.length());
+        } else {
+          throw new UnsupportedOperationException("We don't support this case yet (2) " + result);
+        }
+      }
+    }
+  }
+
+  /**
+   * Encode a char sequence with the UTF-8 or ISO-8859-1 charset, the malformed and unmappable chars are ignored.
+   *
+   * @param s the char sequence
+   * @param from the from index
+   * @param to the to index
+   * @throws IOException any io exception
+   */
+  private void encode(CharSequence s, int from, int to) throws IOException {
+    Encoder encoder = acquire();
+    try {
+      byte[] bytes = encoder.bytes;
+      int pos = 0;
+      int i = from;
+      while (i < to) {
+        if (pos > bytes.length - 4) {
+          append(bytes, 0, pos);
+          pos = 0;
+        }
+        char c = s.charAt(i++);
+        if (c < 0x80) {
+          bytes[pos++] = (byte)c;
+          // Tight loop for a run of ascii chars
+          int limit = Math.min(to, i + bytes.length - pos);
+          while (i < limit && (c = s.charAt(i)) < 0x80) {
+            bytes[pos++] = (byte)c;
+            i++;
+          }
+        } else if (kind == ISO_8859_1) {
+          if (c < 0x100) {
+            bytes[pos++] = (byte)c;
+          }
+        } else if (c < 0x800) {
+          bytes[pos++] = (byte)(0xC0 | (c >> 6));
+          bytes[pos++] = (byte)(0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          if (Character.isHighSurrogate(c) && i < to && Character.isLowSurrogate(s.charAt(i))) {
+            int cp = Character.toCodePoint(c, s.charAt(i++));
+            bytes[pos++] = (byte)(0xF0 | (cp >> 18));
+            bytes[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+            bytes[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+            bytes[pos++] = (byte)(0x80 | (cp & 0x3F));
+          }
+        } else {
+          bytes[pos++] = (byte)(0xE0 | (c >> 12));
+          bytes[pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+          bytes[pos++] = (byte)(0x80 | (c & 0x3F));
+        }
+      }
+      if (pos > 0) {
+        append(bytes, 0, pos);
+      }
+    }
+    finally {
+      this.encoder = encoder;
     }
-    single.put(c);
-    single.flip();
-    append(single);
   }
 }
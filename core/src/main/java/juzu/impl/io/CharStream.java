@@ -18,6 +18,9 @@ package juzu.impl.io;
 import juzu.io.OutputStream;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.Charset;
@@ -49,6 +52,19 @@ public abstract class CharStream extends OutputStream {
     append(ByteBuffer.wrap(data, off, len));
   }
 
+  @Override
+  public void append(InputStream in) throws IOException {
+    // Decode with a reader so a char is never split between two reads
+    CharsetDecoder decoder = charset.newDecoder().onUnmappableCharacter(CodingErrorAction.IGNORE).onMalformedInput(CodingErrorAction.IGNORE);
+    Reader reader = new InputStreamReader(in, decoder);
+    CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+    for (int i = reader.read(buffer);i != -1;i = reader.read(buffer)) {
+      buffer.flip();
+      append(buffer);
+      buffer.clear();
+    }
+  }
+
   public void append(ByteBuffer buffer) throws IOException {
     if (buffer.hasRemaining()) {
       if (decoder == null) {
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An input stream reading a range of a file with random access, the file is opened on the first read.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class FileRangeInputStream extends InputStream {
+
+  /** . */
+  private final File file;
+
+  /** The current position. */
+  private long position;
+
+  /** The end position, exclusive. */
+  private final long end;
+
+  /** . */
+  private FileChannel channel;
+
+  public FileRangeInputStream(File file, long position, long length) {
+    this.file = file;
+    this.position = position;
+    this.end = position + length;
+  }
+
+  private FileChannel getChannel() throws IOException {
+    if (channel == null) {
+      channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    }
+    return channel;
+  }
+
+  @Override
+  public int read() throws IOException {
+    byte[] b = new byte[1];
+    return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (position >= end) {
+      return -1;
+    }
+    int read = getChannel().read(ByteBuffer.wrap(b, off, (int)Math.min(len, end - position)), position);
+    if (read > 0) {
+      position += read;
+    }
+    return read;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = Math.max(0, Math.min(n, end - position));
+    position += skipped;
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return (int)Math.min(Integer.MAX_VALUE, end - position);
+  }
+
+  /**
+   * Transfer the remaining bytes of the range to a channel, the transfer may avoid copying the bytes in the heap.
+   *
+   * @param target the target channel
+   * @throws IOException any io exception
+   */
+  public void transferTo(WritableByteChannel target) throws IOException {
+    FileChannel channel = getChannel();
+    while (position < end) {
+      long transferred = channel.transferTo(position, end - position, target);
+      if (transferred <= 0) {
+        break;
+      }
+      position += transferred;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (channel != null) {
+      channel.close();
+    }
+  }
+}
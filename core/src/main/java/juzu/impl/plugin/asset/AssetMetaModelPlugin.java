@@ -33,6 +33,7 @@ import juzu.plugin.asset.Stylesheets;
 
 import javax.tools.FileObject;
 import javax.tools.StandardLocation;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -185,7 +186,9 @@ public class AssetMetaModelPlugin extends ApplicationMetaModelPlugin {
       }
       bilta.putAll(assetMetaMode.getResources());
 
-      // Process all resources
+      // Process all resources and fingerprint the content copied to the class output
+      Map<String, String> fingerprints = assetMetaMode.getFingerprints();
+      fingerprints.clear();
       for (Map.Entry<String, URL> entry : bilta.entrySet()) {
         InputStream in = null;
         OutputStream out = null;
@@ -193,6 +196,7 @@ public class AssetMetaModelPlugin extends ApplicationMetaModelPlugin {
           URL src = entry.getValue();
           URLConnection conn = src.openConnection();
           FileObject dst = context.getResource(StandardLocation.CLASS_OUTPUT, qn, entry.getKey());
+          byte[] content;
           if (dst == null || dst.getLastModified() < conn.getLastModified()) {
             dst = context.createResource(StandardLocation.CLASS_OUTPUT, qn, entry.getKey(), context.get(metaModel.getHandle()));
             context.info("Copying asset from source path " + src + " to class output " + dst.toUri());
@@ -202,11 +206,15 @@ public class AssetMetaModelPlugin extends ApplicationMetaModelPlugin {
             } else {
               in = conn.getInputStream();
             }
+            content = Tools.copy(in, new ByteArrayOutputStream()).toByteArray();
             out = dst.openOutputStream();
-            Tools.copy(in, out);
+            out.write(content);
           } else {
             context.info("Found up to date related asset in class output for " + src);
+            in = dst.openInputStream();
+            content = Tools.copy(in, new ByteArrayOutputStream()).toByteArray();
           }
+          fingerprints.put(entry.getKey(), Long.toHexString(Tools.md5(content)));
         }
         catch (IOException e) {
           throw CANNOT_PROCESS_ASSET.failure(entry.getKey(), e.getMessage());
@@ -226,9 +234,22 @@ public class AssetMetaModelPlugin extends ApplicationMetaModelPlugin {
     if (assetsIterator.hasNext()) {
       JSON descriptor = new JSON();
       JSON assets = new JSON();
+      Map<String, String> fingerprints = assetsMetaModel.getFingerprints();
       while (assetsIterator.hasNext()) {
         Asset asset = assetsIterator.next();
-        assets.set(asset.id, asset.getJSON());
+        JSON json = asset.getJSON();
+        String fingerprint = fingerprints.get(asset.key.value);
+        if (fingerprint != null) {
+          json.set("fingerprint", fingerprint);
+        }
+        String minified = json.getString("minified");
+        if (minified != null) {
+          String minifiedFingerprint = fingerprints.get(minified);
+          if (minifiedFingerprint != null) {
+            json.set("minified-fingerprint", minifiedFingerprint);
+          }
+        }
+        assets.set(asset.id, json);
       }
       descriptor.set("assets", assets);
       descriptor.set("package", "assets");
@@ -135,6 +135,10 @@ public class AssetService extends ApplicationService implements RequestFilter<St
         //
         Integer maxAge = asset.getInteger("max-age");
 
+        //
+        String fingerprint = asset.getString("fingerprint");
+        String minifiedFingerprint = asset.getString("minified-fingerprint");
+
         //
         AssetMetaData descriptor = new AssetMetaData(
           id,
@@ -144,6 +148,8 @@ public class AssetService extends ApplicationService implements RequestFilter<St
           header,
           minified,
           maxAge,
+          fingerprint,
+          minifiedFingerprint,
           asset.getArray("depends", String.class)
         );
         abc.add(descriptor);
@@ -207,7 +213,7 @@ public class AssetService extends ApplicationService implements RequestFilter<St
 
 
       //
-      deployment.addAsset(script.getId(), script.getType(), script.getLocation(), a[0], script.getHeader(), a[1], script.getMaxAge(), resources[0], script.getDependencies());
+      deployment.addAsset(script.getId(), script.getType(), script.getLocation(), a[0], script.getHeader(), a[1], script.getMaxAge(), script.getFingerprint(), script.getMinifiedFingerprint(), resources[0], script.getDependencies());
       assets.put(script.getId(), new Chunk.Property<String>(script.getId(), PropertyType.ASSET));
     }
 
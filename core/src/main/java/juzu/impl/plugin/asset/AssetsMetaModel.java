@@ -56,6 +56,9 @@ public class AssetsMetaModel extends MetaModelObject implements MethodInvocation
    */
   private final HashMap<String, URL> resources = new HashMap<String, URL>();
 
+  /** The fingerprints of the resources copied to the class output. */
+  private final HashMap<String, String> fingerprints = new HashMap<String, String>();
+
   /** . */
   private final ElementHandle.Package pkg;
 
@@ -152,6 +155,16 @@ public class AssetsMetaModel extends MetaModelObject implements MethodInvocation
     return resources;
   }
 
+  /**
+   * Returns the fingerprints of the resources copied to the class output, a fingerprint is the hash of the
+   * resource content.
+   *
+   * @return the fingerprints by resource path
+   */
+  public Map<String, String> getFingerprints() {
+    return fingerprints;
+  }
+
   public Iterable<Asset> getAssets() {
     return assets.values();
   }
@@ -21,8 +21,9 @@ import juzu.request.Phase;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -42,6 +43,8 @@ import java.util.Set;
  * <ol> <li>The greater number of matched specified parameters.</li> <li>The lesser number of unmatched method
  * arguments.</li> <li>The lesser number of unmatched method parameters.</li> <li>The default controller class.</li>
  * </ol>
+ * <p/>
+ * The handlers are indexed on first use, the handlers returned by {@link #getHandlers()} must not change afterwards.
  *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
@@ -66,6 +69,181 @@ public abstract class ControllerResolver<M> {
 
   public abstract Collection<String> getParameterNames(M method);
 
+  /**
+   * The index of the handlers, the handlers are grouped by phase, id and name and the parameter names of each
+   * handler are encoded as a bitset over the dictionary of all the parameter names.
+   */
+  private static class Index<M> {
+
+    /** . */
+    final M[] handlers;
+
+    /** The dictionary of parameter names. */
+    final HashMap<String, Integer> names;
+
+    /** The number of long words of a bitset. */
+    final int words;
+
+    /** The parameter name bitset of each handler. */
+    final long[][] bits;
+
+    /** The number of distinct parameter names of each handler. */
+    final int[] sizes;
+
+    /** The default score of each handler. */
+    final int[] defaults;
+
+    /** The handlers by phase. */
+    final HashMap<Phase, int[]> byPhase;
+
+    /** The handlers by phase and id. */
+    final HashMap<Phase, HashMap<String, int[]>> byId;
+
+    /** The handlers by id. */
+    final HashMap<String, int[]> ids;
+
+    /** The handlers by name. */
+    final HashMap<String, int[]> byName;
+
+    /** The view handlers named <code>index</code>. */
+    final int[] viewIndexes;
+
+    Index(ControllerResolver<M> resolver) {
+      M[] handlers = resolver.getHandlers();
+
+      // Build the dictionary
+      HashMap<String, Integer> names = new HashMap<String, Integer>();
+      for (M handler : handlers) {
+        for (String name : resolver.getParameterNames(handler)) {
+          if (!names.containsKey(name)) {
+            names.put(name, names.size());
+          }
+        }
+      }
+
+      //
+      int words = (names.size() + 63) >> 6;
+      long[][] bits = new long[handlers.length][];
+      int[] sizes = new int[handlers.length];
+      int[] defaults = new int[handlers.length];
+      HashMap<Phase, List<Integer>> byPhase = new HashMap<Phase, List<Integer>>();
+      HashMap<Phase, Map<String, List<Integer>>> byId = new HashMap<Phase, Map<String, List<Integer>>>();
+      Map<String, List<Integer>> ids = new HashMap<String, List<Integer>>();
+      Map<String, List<Integer>> byName = new HashMap<String, List<Integer>>();
+      List<Integer> viewIndexes = new ArrayList<Integer>();
+      for (int i = 0;i < handlers.length;i++) {
+        M handler = handlers[i];
+        long[] handlerBits = new long[words];
+        for (String name : resolver.getParameterNames(handler)) {
+          int index = names.get(name);
+          handlerBits[index >> 6] |= 1L << index;
+        }
+        bits[i] = handlerBits;
+        sizes[i] = bitCount(handlerBits);
+        defaults[i] = resolver.isDefault(handler) ? 0 : 1;
+        Phase phase = resolver.getPhase(handler);
+        String id = resolver.getId(handler);
+        String name = resolver.getName(handler);
+        add(byPhase, phase, i);
+        Map<String, List<Integer>> phaseIds = byId.get(phase);
+        if (phaseIds == null) {
+          byId.put(phase, phaseIds = new HashMap<String, List<Integer>>());
+        }
+        add(phaseIds, id, i);
+        add(ids, id, i);
+        add(byName, name, i);
+        if (phase == Phase.VIEW && "index".equals(name)) {
+          viewIndexes.add(i);
+        }
+      }
+
+      //
+      this.handlers = handlers;
+      this.names = names;
+      this.words = words;
+      this.bits = bits;
+      this.sizes = sizes;
+      this.defaults = defaults;
+      this.byPhase = new HashMap<Phase, int[]>();
+      for (Map.Entry<Phase, List<Integer>> entry : byPhase.entrySet()) {
+        this.byPhase.put(entry.getKey(), toArray(entry.getValue()));
+      }
+      this.byId = new HashMap<Phase, HashMap<String, int[]>>();
+      for (Map.Entry<Phase, Map<String, List<Integer>>> entry : byId.entrySet()) {
+        this.byId.put(entry.getKey(), toArrays(entry.getValue()));
+      }
+      this.ids = toArrays(ids);
+      this.byName = toArrays(byName);
+      this.viewIndexes = toArray(viewIndexes);
+    }
+
+    /**
+     * Encode a set of parameter names as a bitset, the names absent of the dictionary are ignored since
+     * they cannot be matched by any handler.
+     *
+     * @param parameterNames the parameter names
+     * @return the bitset
+     */
+    long[] encode(Set<String> parameterNames) {
+      long[] set = new long[words];
+      for (String parameterName : parameterNames) {
+        Integer index = names.get(parameterName);
+        if (index != null) {
+          set[index >> 6] |= 1L << index;
+        }
+      }
+      return set;
+    }
+
+    /**
+     * Returns the number of matched parameters of a handler.
+     *
+     * @param handler the handler index
+     * @param set the parameter names bitset
+     * @return the number of matched parameters
+     */
+    int matched(int handler, long[] set) {
+      long[] handlerBits = bits[handler];
+      int count = 0;
+      for (int i = 0;i < words;i++) {
+        count += Long.bitCount(set[i] & handlerBits[i]);
+      }
+      return count;
+    }
+
+    private static int bitCount(long[] set) {
+      int count = 0;
+      for (long word : set) {
+        count += Long.bitCount(word);
+      }
+      return count;
+    }
+
+    private static <K> void add(Map<K, List<Integer>> map, K key, int index) {
+      List<Integer> list = map.get(key);
+      if (list == null) {
+        map.put(key, list = new ArrayList<Integer>());
+      }
+      list.add(index);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+      int[] array = new int[list.size()];
+      for (int i = 0;i < array.length;i++) {
+        array[i] = list.get(i);
+      }
+      return array;
+    }
+
+    private static HashMap<String, int[]> toArrays(Map<String, List<Integer>> map) {
+      HashMap<String, int[]> arrays = new HashMap<String, int[]>();
+      for (Map.Entry<String, List<Integer>> entry : map.entrySet()) {
+        arrays.put(entry.getKey(), toArray(entry.getValue()));
+      }
+      return arrays;
+    }
+  }
+
   private class Match implements Comparable<Match> {
 
     /** . */
@@ -83,46 +261,51 @@ public abstract class ControllerResolver<M> {
     /** . */
     final int score4;
 
-    Match(Set<String> parameterNames, M method) {
+    Match(M method, int score1, int score2, int score3, int score4) {
       this.method = method;
+      this.score1 = score1;
+      this.score2 = score2;
+      this.score3 = score3;
+      this.score4 = score4;
+    }
 
-      // The number of matched parameters
-      HashSet<String> a = new HashSet<String>(parameterNames);
-      a.retainAll(getParameterNames(method));
-      this.score1 = a.size();
+    public int compareTo(Match o) {
+      return compare(score1, score2, score3, score4, o.score1, o.score2, o.score3, o.score4);
+    }
 
-      // The number of unmatched arguments
-      a = new HashSet<String>(getParameterNames(method));
-      a.removeAll(parameterNames);
-      this.score2 = a.size();
+    @Override
+    public String toString() {
+      return "Match[score1=" + score1 + ",score2=" + score2 + ",score3=" + score3 + ",score4=" + score4 + ",method=" + method + "]";
+    }
+  }
 
-      // The number of unmatched parameters
-      a = new HashSet<String>(parameterNames);
-      a.removeAll(getParameterNames(method));
-      this.score3 = a.size();
+  /** The lazily built index. */
+  private volatile Index<M> index;
 
-      // The default method
-      this.score4 = isDefault(method) ? 0 : 1;
+  private Index<M> getIndex() {
+    Index<M> index = this.index;
+    if (index == null) {
+      this.index = index = new Index<M>(this);
     }
+    return index;
+  }
 
-    public int compareTo(Match o) {
-      int delta = o.score1 - score1;
+  private static int compare(int a1, int a2, int a3, int a4, int b1, int b2, int b3, int b4) {
+    // The greater number of matched parameters
+    int delta = b1 - a1;
+    if (delta == 0) {
+      // The lesser number of unmatched arguments
+      delta = a2 - b2;
       if (delta == 0) {
-        delta = score2 - o.score2;
+        // The lesser number of unmatched parameters
+        delta = a3 - b3;
         if (delta == 0) {
-          delta = score3 - o.score3;
-          if (delta == 0) {
-            delta = score4 - o.score4;
-          }
+          // The default method
+          delta = a4 - b4;
         }
       }
-      return delta;
-    }
-
-    @Override
-    public String toString() {
-      return "Match[score1=" + score1 + ",score2=" + score2 + ",score3=" + score3 + ",score4=" + score4 + ",method=" + method + "]";
     }
+    return delta;
   }
 
   /**
@@ -141,21 +324,8 @@ public abstract class ControllerResolver<M> {
     }
 
     //
-    List<Match> matches = new ArrayList<Match>();
-    for (M method : getHandlers()) {
-      if (getPhase(method) == phase) {
-        if (phase == Phase.VIEW) {
-          if (getName(method).equals("index")) {
-            matches.add(new Match(parameterNames, method));
-          }
-        } else {
-          matches.add(new Match(parameterNames, method));
-        }
-      }
-    }
-
-    //
-    return select(matches);
+    Index<M> index = getIndex();
+    return select(index, phase == Phase.VIEW ? index.viewIndexes : index.byPhase.get(phase), parameterNames, false);
   }
 
   /**
@@ -178,15 +348,8 @@ public abstract class ControllerResolver<M> {
     }
 
     //
-    List<Match> matches = new ArrayList<Match>();
-    for (M method : getHandlers()) {
-      if (getPhase(method) == phase && (methodId == null || methodId.equals(getId(method)))) {
-        matches.add(new Match(parameterNames, method));
-      }
-    }
-
-    //
-    return select(matches);
+    Index<M> index = getIndex();
+    return select(index, candidates(index, phase, methodId), parameterNames, false);
   }
 
   /**
@@ -209,11 +372,21 @@ public abstract class ControllerResolver<M> {
     }
 
     //
-    List<Match> matches = new ArrayList<Match>();
-    for (M method : getHandlers()) {
-      if (getPhase(method) == phase && (methodId == null || methodId.equals(getId(method)))) {
-        matches.add(new Match(parameterNames, method));
-      }
+    Index<M> index = getIndex();
+    int[] candidates = candidates(index, phase, methodId);
+    if (candidates == null) {
+      return new ArrayList<M>(0);
+    }
+    long[] set = index.encode(parameterNames);
+    List<Match> matches = new ArrayList<Match>(candidates.length);
+    for (int candidate : candidates) {
+      int matched = index.matched(candidate, set);
+      matches.add(new Match(
+          index.handlers[candidate],
+          matched,
+          index.sizes[candidate] - matched,
+          parameterNames.size() - matched,
+          index.defaults[candidate]));
     }
 
     //
@@ -247,41 +420,63 @@ public abstract class ControllerResolver<M> {
     }
 
     //
-    List<Match> matches = new ArrayList<Match>();
-    for (M method : getHandlers()) {
-      if (getParameterNames(method).containsAll(parameterNames)) {
-        if (typeName == null) {
-          if (getName(method).equals(methodName)) {
-            matches.add(new Match(parameterNames, method));
-          }
-        }
-        else {
-          String id = typeName + "." + methodName;
-          if (getId(method).equals(id)) {
-            matches.add(new Match(parameterNames, method));
-          }
-        }
-      }
-    }
+    Index<M> index = getIndex();
+    int[] candidates = typeName == null ? index.byName.get(methodName) : index.ids.get(typeName + "." + methodName);
+    return select(index, candidates, parameterNames, true);
+  }
 
-    //
-    return select(matches);
+  private int[] candidates(Index<M> index, Phase phase, String methodId) {
+    if (methodId == null) {
+      return index.byPhase.get(phase);
+    } else {
+      HashMap<String, int[]> phaseIds = index.byId.get(phase);
+      return phaseIds != null ? phaseIds.get(methodId) : null;
+    }
   }
 
-  private M select(List<Match> matches) throws AmbiguousResolutionException {
-    M found = null;
-    if (matches.size() > 0) {
-      Collections.sort(matches);
-      Match first = matches.get(0);
-      if (matches.size() > 1) {
-        Match second = matches.get(1);
-        if (first.compareTo(second) == 0) {
-          throw new AmbiguousResolutionException("Two methods satisfies the index criteria: " +
-            first.method + " and " + second.method);
-        }
+  /**
+   * Select the first method in the resolution order, this is equivalent to sorting the candidates and retaining
+   * the first one without allocating a match for each candidate.
+   *
+   * @param index the index
+   * @param candidates the candidate handler indexes
+   * @param parameterNames the parameter names
+   * @param all true when the candidates must contain all the parameter names
+   * @return the selected method
+   * @throws AmbiguousResolutionException if two methods have the same resolution order
+   */
+  private M select(Index<M> index, int[] candidates, Set<String> parameterNames, boolean all) throws AmbiguousResolutionException {
+    if (candidates == null) {
+      return null;
+    }
+    long[] set = index.encode(parameterNames);
+    int size = parameterNames.size();
+    int first = -1, second = -1;
+    int first1 = 0, first2 = 0, first3 = 0, first4 = 0;
+    for (int candidate : candidates) {
+      int score1 = index.matched(candidate, set);
+      int score2 = index.sizes[candidate] - score1;
+      int score3 = size - score1;
+      int score4 = index.defaults[candidate];
+      if (all && score3 > 0) {
+        continue;
       }
-      found = first.method;
+      int delta = first == -1 ? -1 : compare(score1, score2, score3, score4, first1, first2, first3, first4);
+      if (delta < 0) {
+        first = candidate;
+        second = -1;
+        first1 = score1;
+        first2 = score2;
+        first3 = score3;
+        first4 = score4;
+      } else if (delta == 0 && second == -1) {
+        second = candidate;
+      }
+    }
+    if (second != -1) {
+      throw new AmbiguousResolutionException("Two methods satisfies the index criteria: " +
+        index.handlers[first] + " and " + index.handlers[second]);
     }
-    return found;
+    return first != -1 ? index.handlers[first] : null;
   }
 }
@@ -24,11 +24,18 @@ import juzu.impl.plugin.application.Application;
 import juzu.impl.request.ContextualParameter;
 import juzu.impl.request.ControlParameter;
 import juzu.impl.request.ControllerHandler;
+import juzu.impl.request.EntityMarshaller;
+import juzu.impl.request.EntityUnmarshaller;
+import juzu.impl.request.HandlerBinder;
+import juzu.impl.request.ExecutionFilter;
+import juzu.impl.request.RequestFilter;
+import juzu.impl.request.Stage;
 import juzu.impl.value.ValueType;
 import juzu.request.Phase;
 import juzu.io.UndeclaredIOException;
 import juzu.impl.bridge.spi.RequestBridge;
 import juzu.impl.common.MethodHandle;
+import juzu.impl.inject.spi.BeanLifeCycle;
 import juzu.impl.inject.spi.InjectionContext;
 import juzu.impl.plugin.application.ApplicationService;
 import juzu.impl.plugin.controller.descriptor.ControllersDescriptor;
@@ -37,24 +44,54 @@ import juzu.request.RequestParameter;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class ControllerService extends ApplicationService {
 
+  /** The maximum number of media types retained by the unmarshaller cache. */
+  private static final int MAX_MEDIA_TYPES = 64;
+
   /** . */
   private ControllersDescriptor descriptor;
 
   /** . */
   final ArrayList<ValueType<?>> valueTypes = new ArrayList<ValueType<?>>();
 
+  /** . */
+  private final ArrayList<EntityMarshaller> marshallers = new ArrayList<EntityMarshaller>();
+
+  /** . */
+  private final ArrayList<EntityUnmarshaller> unmarshallers = new ArrayList<EntityUnmarshaller>();
+
+  /** The binders of the handlers. */
+  private final HashMap<ControllerHandler<?>, HandlerBinder> binders = new HashMap<ControllerHandler<?>, HandlerBinder>();
+
+  /** The unmarshaller resolved for a media type, the value is an empty array when no unmarshaller accepts it. */
+  private final ConcurrentHashMap<String, EntityUnmarshaller[]> unmarshallersByMediaType = new ConcurrentHashMap<String, EntityUnmarshaller[]>();
+
   /** . */
   @Inject
   private Application application;
 
+  /** The request filter beans resolved once. */
+  private volatile Iterable<BeanLifeCycle<RequestFilter>> requestFilters;
+
+  /** The positions of the request filters of a stage type in the request filter beans. */
+  private final ConcurrentHashMap<Class<?>, int[]> requestFilterPositions = new ConcurrentHashMap<Class<?>, int[]>();
+
+  /** The execution filter beans resolved once. */
+  private volatile Iterable<BeanLifeCycle<ExecutionFilter>> executionFilters;
+
   public ControllerService() {
     super("controller");
   }
@@ -77,13 +114,161 @@ public class ControllerService extends ApplicationService {
     for (ValueType<?> valueType : Tools.loadService(ValueType.class, context.getClassLoader())) {
       valueTypes.add(valueType);
     }
-    return descriptor = new ControllersDescriptor(context.getClassLoader(), context.getConfig());
+    for (EntityMarshaller marshaller : Tools.loadService(EntityMarshaller.class, context.getClassLoader())) {
+      marshallers.add(marshaller);
+    }
+    for (EntityUnmarshaller unmarshaller : Tools.loadService(EntityUnmarshaller.class, context.getClassLoader())) {
+      unmarshallers.add(unmarshaller);
+    }
+    descriptor = new ControllersDescriptor(context.getClassLoader(), context.getConfig());
+    for (ControllerHandler<?> handler : descriptor.getHandlers()) {
+      binders.put(handler, new HandlerBinder(this, handler));
+    }
+    return descriptor;
+  }
+
+  /**
+   * Returns the binder of a handler, the binder is created when the handler is not an handler of the application.
+   *
+   * @param handler the handler
+   * @return the handler binder
+   */
+  public HandlerBinder getBinder(ControllerHandler<?> handler) {
+    HandlerBinder binder = binders.get(handler);
+    if (binder == null) {
+      binder = new HandlerBinder(this, handler);
+    }
+    return binder;
   }
 
   public InjectionContext<?, ?> getInjectionContext() {
     return application.getInjectionContext();
   }
 
+  /**
+   * Returns the request filters of a stage type. The filter beans are resolved once, the filter instances are
+   * obtained for each call so the scoped filters are honoured.
+   *
+   * @param stageType the stage type
+   * @return the request filters
+   */
+  public List<RequestFilter<?>> getRequestFilters(Class<? extends Stage> stageType) {
+    Iterable<BeanLifeCycle<RequestFilter>> beans = requestFilters;
+    if (beans == null) {
+      requestFilters = beans = getInjectionContext().resolve(RequestFilter.class);
+    }
+    int[] positions = requestFilterPositions.get(stageType);
+    List<RequestFilter<?>> filters;
+    if (positions == null) {
+      // The stage type of a filter is known from its instance
+      filters = new ArrayList<RequestFilter<?>>();
+      int[] tmp = new int[8];
+      int size = 0;
+      int position = 0;
+      boolean complete = true;
+      for (BeanLifeCycle<RequestFilter> bean : beans) {
+        RequestFilter<?> filter = get(bean);
+        if (filter == null) {
+          complete = false;
+        } else if (stageType.isAssignableFrom(filter.getStageType())) {
+          if (size == tmp.length) {
+            tmp = Arrays.copyOf(tmp, size * 2);
+          }
+          tmp[size++] = position;
+          filters.add(filter);
+        }
+        position++;
+      }
+      if (complete) {
+        requestFilterPositions.put(stageType, Arrays.copyOf(tmp, size));
+      }
+    } else if (positions.length == 0) {
+      filters = Collections.emptyList();
+    } else {
+      filters = new ArrayList<RequestFilter<?>>(positions.length);
+      int index = 0;
+      int position = 0;
+      for (Iterator<BeanLifeCycle<RequestFilter>> i = beans.iterator();i.hasNext() && index < positions.length;position++) {
+        BeanLifeCycle<RequestFilter> bean = i.next();
+        if (position == positions[index]) {
+          RequestFilter<?> filter = get(bean);
+          if (filter != null) {
+            filters.add(filter);
+          }
+          index++;
+        }
+      }
+    }
+    return filters;
+  }
+
+  /**
+   * Returns the execution filters. The filter beans are resolved once, the filter instances are obtained when
+   * the returned iterable is iterated.
+   *
+   * @return the execution filters
+   */
+  public Iterable<ExecutionFilter> getExecutionFilters() {
+    Iterable<BeanLifeCycle<ExecutionFilter>> beans = executionFilters;
+    if (beans == null) {
+      executionFilters = beans = getInjectionContext().resolve(ExecutionFilter.class);
+    }
+    final Iterable<BeanLifeCycle<ExecutionFilter>> resolved = beans;
+    return new Iterable<ExecutionFilter>() {
+      public Iterator<ExecutionFilter> iterator() {
+        List<ExecutionFilter> filters = new ArrayList<ExecutionFilter>();
+        for (BeanLifeCycle<ExecutionFilter> bean : resolved) {
+          ExecutionFilter filter = get(bean);
+          if (filter != null) {
+            filters.add(filter);
+          }
+        }
+        return filters.iterator();
+      }
+    };
+  }
+
+  private static <T> T get(BeanLifeCycle<T> bean) {
+    try {
+      return bean.get();
+    }
+    catch (InvocationTargetException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns the entity marshallers of the application.
+   *
+   * @return the entity marshallers
+   */
+  public List<EntityMarshaller> getMarshallers() {
+    return marshallers;
+  }
+
+  /**
+   * Resolve the first entity unmarshaller accepting the specified media type.
+   *
+   * @param mediaType the media type
+   * @return the unmarshaller or null
+   */
+  public EntityUnmarshaller resolveUnmarshaller(String mediaType) {
+    EntityUnmarshaller[] resolved = unmarshallersByMediaType.get(mediaType);
+    if (resolved == null) {
+      resolved = new EntityUnmarshaller[0];
+      for (EntityUnmarshaller unmarshaller : unmarshallers) {
+        if (unmarshaller.accept(mediaType)) {
+          resolved = new EntityUnmarshaller[]{unmarshaller};
+          break;
+        }
+      }
+      if (unmarshallersByMediaType.size() < MAX_MEDIA_TYPES) {
+        unmarshallersByMediaType.put(mediaType, resolved);
+      }
+    }
+    return resolved.length > 0 ? resolved[0] : null;
+  }
+
   public <T> ValueType<T> resolveValueType(Class<T> type) {
     for (int i = 0;i < valueTypes.size();i++) {
       ValueType<?> valueType = valueTypes.get(i);
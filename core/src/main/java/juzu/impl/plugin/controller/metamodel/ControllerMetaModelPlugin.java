@@ -34,6 +34,7 @@ import juzu.impl.request.BeanParameter;
 import juzu.impl.request.ContextualParameter;
 import juzu.impl.request.ControlParameter;
 import juzu.impl.request.ControllerHandler;
+import juzu.impl.request.HandlerInvoker;
 import juzu.impl.request.PhaseParameter;
 import juzu.impl.plugin.controller.descriptor.ControllerDescriptor;
 import juzu.impl.metamodel.MetaModelEvent;
@@ -50,12 +51,15 @@ import javax.annotation.Generated;
 import javax.lang.model.element.AnnotationMirror;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
 import javax.tools.JavaFileObject;
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -103,6 +107,24 @@ public class ControllerMetaModelPlugin extends ApplicationMetaModelPlugin {
   /** . */
   public static final String CARDINALITY = Cardinality.class.getSimpleName();
 
+  /** . */
+  private static final String HANDLER_INVOKER = HandlerInvoker.class.getSimpleName();
+
+  /** The boxed type of the primitive types. */
+  private static final HashMap<String, String> BOXED_TYPES = new HashMap<String, String>();
+
+  static
+  {
+    BOXED_TYPES.put("boolean", Boolean.class.getName());
+    BOXED_TYPES.put("byte", Byte.class.getName());
+    BOXED_TYPES.put("short", Short.class.getName());
+    BOXED_TYPES.put("int", Integer.class.getName());
+    BOXED_TYPES.put("long", Long.class.getName());
+    BOXED_TYPES.put("float", Float.class.getName());
+    BOXED_TYPES.put("double", Double.class.getName());
+    BOXED_TYPES.put("char", Character.class.getName());
+  }
+
   /** . */
   private HashSet<ControllerMetaModel> written = new HashSet<ControllerMetaModel>();
 
@@ -337,6 +359,7 @@ public class ControllerMetaModelPlugin extends ApplicationMetaModelPlugin {
 
       // Imports
       writer.append("import ").append(ControllerHandler.class.getCanonicalName()).append(";\n");
+      writer.append("import ").append(HandlerInvoker.class.getCanonicalName()).append(";\n");
       writer.append("import ").append(ControlParameter.class.getCanonicalName()).append(";\n");
       writer.append("import ").append(PhaseParameter.class.getCanonicalName()).append(";\n");
       writer.append("import ").append(ContextualParameter.class.getCanonicalName()).append(";\n");
@@ -418,6 +441,49 @@ public class ControllerMetaModelPlugin extends ApplicationMetaModelPlugin {
           }
         }
         writer.append(')');
+
+        // Invoker calling the method without reflection, a private method cannot be invoked from the companion
+        ExecutableElement methodElt = env.get(method.getMethod());
+        if (methodElt != null && !methodElt.getModifiers().contains(Modifier.PRIVATE)) {
+          // Cast the arguments to the generic parameter types, a type variable is not in scope in the invoker
+          // so a type referencing one is erased
+          StringBuilder call = new StringBuilder();
+          boolean unchecked = false;
+          for (int i = 0;i < method.getParameters().size();i++) {
+            ParameterMetaModel parameter = method.getParameters().get(i);
+            if (i > 0) {
+              call.append(',');
+            }
+            String boxed = BOXED_TYPES.get(parameter.type);
+            String castType;
+            if (boxed != null) {
+              castType = boxed;
+            } else {
+              TypeMirror parameterType = methodElt.getParameters().get(i).asType();
+              if (hasTypeVariable(parameterType)) {
+                parameterType = env.erasure(parameterType);
+              }
+              castType = parameterType.toString();
+              unchecked |= castType.indexOf('<') != -1;
+            }
+            call.append("(").append(castType).append(")args[").append(Integer.toString(i)).append("]");
+          }
+          writer.append(", new ").append(HANDLER_INVOKER).append("() { ");
+          if (unchecked) {
+            writer.append("@SuppressWarnings(\"unchecked\") ");
+          }
+          writer.append("public Object invoke(Object controller, Object[] args) throws Throwable { ");
+          boolean isVoid = methodElt.getReturnType().getKind() == TypeKind.VOID;
+          if (!isVoid) {
+            writer.append("return ");
+          }
+          writer.append("((").append(fqn).append(")controller).").append(method.getName()).append("(").append(call);
+          writer.append(");");
+          if (isVoid) {
+            writer.append(" return null;");
+          }
+          writer.append(" } }");
+        }
         writer.append(");\n");
 
         //
@@ -489,4 +555,26 @@ public class ControllerMetaModelPlugin extends ApplicationMetaModelPlugin {
       Tools.safeClose(writer);
     }
   }
+
+  private static boolean hasTypeVariable(TypeMirror type) {
+    switch (type.getKind()) {
+      case TYPEVAR:
+        return true;
+      case ARRAY:
+        return hasTypeVariable(((ArrayType)type).getComponentType());
+      case DECLARED:
+        for (TypeMirror typeArgument : ((DeclaredType)type).getTypeArguments()) {
+          if (hasTypeVariable(typeArgument)) {
+            return true;
+          }
+        }
+        return false;
+      case WILDCARD:
+        WildcardType wildcard = (WildcardType)type;
+        return (wildcard.getExtendsBound() != null && hasTypeVariable(wildcard.getExtendsBound())) ||
+            (wildcard.getSuperBound() != null && hasTypeVariable(wildcard.getSuperBound()));
+      default:
+        return false;
+    }
+  }
 }
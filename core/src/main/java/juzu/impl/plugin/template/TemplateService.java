@@ -26,7 +26,14 @@ import juzu.impl.common.Path;
 import juzu.template.TagHandler;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class TemplateService extends ApplicationService {
@@ -78,6 +85,51 @@ public class TemplateService extends ApplicationService {
     return tag;
   }
 
+  /**
+   * Initialize the stubs of the application templates in parallel, a template failing to initialize does not fail
+   * the warm up, its failure is retained by its stub and rethrown when the template is rendered.
+   *
+   * @param threads the maximum number of threads initializing the templates
+   * @return the number of templates that could not be initialized
+   * @throws InterruptedException if the current thread is interrupted
+   */
+  public int warmUp(int threads) throws InterruptedException {
+    List<TemplateDescriptor> templates = descriptor.getTemplates();
+    if (templates.isEmpty()) {
+      return 0;
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, templates.size()), new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "Juzu template warm up");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>(templates.size());
+      for (final TemplateDescriptor template : templates) {
+        futures.add(executor.submit(new Runnable() {
+          public void run() {
+            template.getStub().init();
+          }
+        }));
+      }
+      int failures = 0;
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        }
+        catch (ExecutionException e) {
+          failures++;
+        }
+      }
+      return failures;
+    }
+    finally {
+      executor.shutdownNow();
+    }
+  }
+
   public TemplateStub resolveTemplateStub(String path) {
     return resolveTemplateStub(juzu.impl.common.Path.parse(path));
   }
@@ -108,6 +108,11 @@ abstract class AbstractEmitter implements Serializable {
                   Tools.safeClose(writer);
                 }
               }
+
+              @Override
+              public String getOption(String name) {
+                return owner.application.getProcessingContext().getOptions().get(name);
+              }
             };
 
             //
@@ -15,19 +15,15 @@
  */
 package juzu.impl.request;
 
-import juzu.impl.common.AbstractAnnotatedElement;
 import juzu.impl.plugin.controller.ControllerService;
 import juzu.impl.value.ValueType;
-import juzu.request.RequestParameter;
 
-import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -47,103 +43,6 @@ public class BeanParameter extends ControlParameter {
     super(name, annotations, type);
   }
 
-  <T> T createMappedBean(ControllerService plugin, boolean requiresPrefix, Class<T> clazz, String beanName, Map<String, RequestParameter> parameters) throws IllegalAccessException, InstantiationException {
-    // Extract parameters
-    Map<String, String[]> beanParams = new HashMap<String, String[]>();
-    String prefix = requiresPrefix ? beanName + "." : "";
-    for (String key : parameters.keySet()) {
-      if (key.startsWith(prefix)) {
-        String paramName = key.substring(prefix.length());
-        beanParams.put(paramName, parameters.get(key).toArray());
-      }
-    }
-
-    // Build bean
-    T bean = clazz.newInstance();
-    for (String key : beanParams.keySet()) {
-      String[] value = beanParams.get(key);
-      String setterName = "set" + key.substring(0, 1).toUpperCase() + key.substring(1);
-      try {
-        boolean success = callSetter(plugin, setterName, clazz, bean, value);
-        if (!success) {
-          Field f = clazz.getField(key);
-          Object o = getValue(plugin, f, f.getGenericType(), value);
-          if (o != null) {
-            f.set(bean, o);
-          }
-        }
-      }
-      catch (Exception e) {
-        // Do something better
-      }
-
-    }
-    return bean;
-  }
-
-  Object getValue(ControllerService plugin, AnnotatedElement annotated, Type type, String[] value) throws Exception {
-    if (type instanceof Class<?>) {
-      Class<?> clazz = (Class<?>)type;
-      if (clazz.isArray()) {
-        clazz = clazz.getComponentType();
-        ValueType valueType = plugin.resolveValueType(clazz);
-        if (valueType != null) {
-          Object array = Array.newInstance(clazz, value.length);
-          for (int i = 0;i < value.length;i++) {
-            Array.set(array, i, valueType.parse(annotated, value[i]));
-          }
-          return array;
-        }
-      } else {
-        ValueType valueType = plugin.resolveValueType(clazz);
-        if (valueType != null) {
-          return valueType.parse(annotated, value[0]);
-        }
-      }
-    } else if (type instanceof ParameterizedType) {
-      ParameterizedType parameterizedType = (ParameterizedType)type;
-      if (List.class.equals(parameterizedType.getRawType())) {
-        Type typeArg = parameterizedType.getActualTypeArguments()[0];
-        if (typeArg instanceof Class) {
-          ValueType valueType = plugin.resolveValueType((Class)typeArg);
-          if (valueType != null) {
-            ArrayList list = new ArrayList(value.length);
-            for (String s : value) {
-              list.add(valueType.parse(annotated, s));
-            }
-            return list;
-          }
-        }
-      }
-    }
-    return null;
-  }
-
-  <T> boolean callSetter(ControllerService plugin, String methodName, Class<T> clazz, T target, String[] value) throws Exception {
-    for (final java.lang.reflect.Method m : clazz.getMethods()) {
-      if (m.getName().equals(methodName)) {
-        int modifiers = m.getModifiers();
-        if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers)) {
-          Type[] parameterTypes = m.getGenericParameterTypes();
-          if (parameterTypes.length == 1) {
-            AbstractAnnotatedElement element = new AbstractAnnotatedElement() {
-              @Override
-              public Annotation[] getDeclaredAnnotations() {
-                return m.getParameterAnnotations()[0];
-              }
-            };
-            Object o = getValue(plugin, element, parameterTypes[0], value);
-            if (o != null) {
-              m.invoke(target, o);
-              return true;
-            }
-          }
-        }
-      }
-    }
-    return false;
-  }
-
   Map<String, String[]> buildBeanParameter(ControllerService plugin, boolean requiresPrefix, String baseName, Object value) {
     Map<String, String[]> parameters = new HashMap<String, String[]>();
 
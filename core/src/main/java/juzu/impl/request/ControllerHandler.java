@@ -16,6 +16,7 @@
 
 package juzu.impl.request;
 
+import juzu.MimeType;
 import juzu.impl.common.AbstractAnnotatedElement;
 import juzu.impl.common.MethodHandle;
 import juzu.impl.common.Tools;
@@ -25,10 +26,12 @@ import java.beans.Introspector;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -42,6 +45,20 @@ import java.util.Set;
  */
 public final class ControllerHandler<P extends Phase> {
 
+  /** The boxed type of the primitive types. */
+  private static final HashMap<Class<?>, Class<?>> BOXED_TYPES = new HashMap<Class<?>, Class<?>>();
+
+  static {
+    BOXED_TYPES.put(boolean.class, Boolean.class);
+    BOXED_TYPES.put(byte.class, Byte.class);
+    BOXED_TYPES.put(short.class, Short.class);
+    BOXED_TYPES.put(int.class, Integer.class);
+    BOXED_TYPES.put(long.class, Long.class);
+    BOXED_TYPES.put(float.class, Float.class);
+    BOXED_TYPES.put(double.class, Double.class);
+    BOXED_TYPES.put(char.class, Character.class);
+  }
+
   /** An optional id. */
   private final String id;
 
@@ -63,15 +80,37 @@ public final class ControllerHandler<P extends Phase> {
   /** . */
   final boolean requiresPrefix;
 
+  /** The mime types declared by the {@link juzu.MimeType} annotation of the method. */
+  final String[] mimeTypes;
+
   /** The handle corresponding to the {@link #method} field. */
   private final MethodHandle handle;
 
+  /** The optional invoker of the method. */
+  private final HandlerInvoker invoker;
+
+  /** The boxed parameter types of the method, used to check the arguments before calling the invoker. */
+  private final Class<?>[] argumentTypes;
+
+  /** Whether each parameter of the method is a primitive. */
+  private final boolean[] primitives;
+
   public ControllerHandler(
       String id,
       P phase,
       Class<?> type,
       Method method,
       List<ControlParameter> parameterList) {
+    this(id, phase, type, method, parameterList, null);
+  }
+
+  public ControllerHandler(
+      String id,
+      P phase,
+      Class<?> type,
+      Method method,
+      List<ControlParameter> parameterList,
+      HandlerInvoker invoker) {
 
     // Enhance parameter list
     Class<?>[] parameterTypes = method.getParameterTypes();
@@ -137,6 +176,21 @@ public final class ControllerHandler<P extends Phase> {
       }
     }
 
+    // Determine the mime types
+    String[] mimeTypes = new String[0];
+    for (Annotation annotation : method.getDeclaredAnnotations()) {
+      MimeType mimeType;
+      if (annotation instanceof MimeType) {
+        mimeType = (MimeType)annotation;
+      } else {
+        mimeType = annotation.annotationType().getAnnotation(MimeType.class);
+      }
+      if (mimeType != null && mimeType.value().length > 0) {
+        mimeTypes = mimeType.value();
+        break;
+      }
+    }
+
     //
     this.id = id;
     this.phase = phase;
@@ -145,7 +199,16 @@ public final class ControllerHandler<P extends Phase> {
     this.parameterList = Tools.safeUnmodifiableList(parameterList);
     this.parameterMap = Collections.unmodifiableMap(argumentMap);
     this.requiresPrefix = requiresPrefix;
+    this.mimeTypes = mimeTypes;
     this.handle = new MethodHandle(method);
+    this.invoker = invoker;
+    this.argumentTypes = new Class<?>[parameterTypes.length];
+    this.primitives = new boolean[parameterTypes.length];
+    for (int i = 0;i < parameterTypes.length;i++) {
+      Class<?> parameterType = parameterTypes[i];
+      argumentTypes[i] = parameterType.isPrimitive() ? BOXED_TYPES.get(parameterType) : parameterType;
+      primitives[i] = parameterType.isPrimitive();
+    }
   }
 
   public MethodHandle getHandle() {
@@ -172,6 +235,43 @@ public final class ControllerHandler<P extends Phase> {
     return method.getName();
   }
 
+  /**
+   * Invoke the handler method with the generated invoker when there is one, otherwise the method is invoked
+   * reflectively.
+   *
+   * @param controller the controller
+   * @param args the method arguments
+   * @return the method returned value
+   * @throws InvocationTargetException wraps anything thrown by the method
+   * @throws IllegalAccessException when the method cannot be invoked reflectively
+   * @throws IllegalArgumentException when the arguments cannot be bound to the method parameters
+   */
+  public Object invoke(Object controller, Object[] args) throws InvocationTargetException, IllegalAccessException, IllegalArgumentException {
+    if (invoker != null) {
+
+      // Report a binding error as the reflective invocation does and not as a failure of the method
+      if (args.length != argumentTypes.length) {
+        throw new IllegalArgumentException("Wrong number of arguments " + args.length + " for " + this);
+      }
+      for (int i = 0;i < args.length;i++) {
+        Object arg = args[i];
+        if (arg == null ? primitives[i] : !argumentTypes[i].isInstance(arg)) {
+          throw new IllegalArgumentException("Argument " + i + " of " + this + " cannot be bound to " + arg);
+        }
+      }
+
+      //
+      try {
+        return invoker.invoke(controller, args);
+      }
+      catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    } else {
+      return method.invoke(controller, args);
+    }
+  }
+
   public ControlParameter getParameter(String name) {
     return parameterMap.get(name);
   }
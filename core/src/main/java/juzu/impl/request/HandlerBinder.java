@@ -0,0 +1,268 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.request;
+
+import juzu.impl.common.AbstractAnnotatedElement;
+import juzu.impl.plugin.controller.ControllerService;
+import juzu.impl.value.ValueType;
+import juzu.request.RequestParameter;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The argument binding plan of a controller handler: the value types of the phase parameters, the defaults of
+ * the primitive parameters and the properties of the bean parameters are resolved once when the binder is created.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class HandlerBinder {
+
+  /** . */
+  private static final HashMap<Class<?>, Object> PRIMITIVE_DEFAULTS = new HashMap<Class<?>, Object>();
+
+  static {
+    PRIMITIVE_DEFAULTS.put(int.class, 0);
+    PRIMITIVE_DEFAULTS.put(long.class, 0L);
+    PRIMITIVE_DEFAULTS.put(byte.class, (byte)0);
+    PRIMITIVE_DEFAULTS.put(short.class, (short)0);
+    PRIMITIVE_DEFAULTS.put(boolean.class, false);
+    PRIMITIVE_DEFAULTS.put(float.class, 0.0f);
+    PRIMITIVE_DEFAULTS.put(double.class, 0.0d);
+    PRIMITIVE_DEFAULTS.put(char.class, '\u0000');
+  }
+
+  /** The value type of each phase parameter. */
+  final ValueType<?>[] valueTypes;
+
+  /** The default value of each phase parameter. */
+  final Object[] defaults;
+
+  /** The binder of each bean parameter. */
+  final BeanBinder[] beans;
+
+  public HandlerBinder(ControllerService plugin, ControllerHandler<?> handler) {
+    List<ControlParameter> parameters = handler.getParameters();
+    ValueType<?>[] valueTypes = new ValueType<?>[parameters.size()];
+    Object[] defaults = new Object[parameters.size()];
+    BeanBinder[] beans = new BeanBinder[parameters.size()];
+    for (int i = 0;i < parameters.size();i++) {
+      ControlParameter parameter = parameters.get(i);
+      if (parameter instanceof PhaseParameter) {
+        PhaseParameter<?> phaseParam = (PhaseParameter<?>)parameter;
+        valueTypes[i] = plugin.resolveValueType(phaseParam.getValueType());
+        defaults[i] = PRIMITIVE_DEFAULTS.get(phaseParam.getType());
+      } else if (parameter instanceof BeanParameter) {
+        beans[i] = new BeanBinder(plugin, parameter.getType());
+      }
+    }
+    this.valueTypes = valueTypes;
+    this.defaults = defaults;
+    this.beans = beans;
+  }
+
+  /**
+   * A bean property that can be set from request parameters.
+   */
+  static class Property {
+
+    /** The setter or null when the property is a field. */
+    final Method setter;
+
+    /** The field or null when the property is a setter. */
+    final Field field;
+
+    /** . */
+    final AnnotatedElement annotations;
+
+    /** . */
+    final ValueType valueType;
+
+    /** The array component type or null when the property is not an array. */
+    final Class<?> componentType;
+
+    /** True when the property is a list. */
+    final boolean list;
+
+    Property(Method setter, Field field, AnnotatedElement annotations, ValueType valueType, Class<?> componentType, boolean list) {
+      this.setter = setter;
+      this.field = field;
+      this.annotations = annotations;
+      this.valueType = valueType;
+      this.componentType = componentType;
+      this.list = list;
+    }
+
+    Object getValue(String[] value) throws Exception {
+      if (componentType != null) {
+        Object array = Array.newInstance(componentType, value.length);
+        for (int i = 0;i < value.length;i++) {
+          Array.set(array, i, valueType.parse(annotations, value[i]));
+        }
+        return array;
+      } else if (list) {
+        ArrayList<Object> list = new ArrayList<Object>(value.length);
+        for (String s : value) {
+          list.add(valueType.parse(annotations, s));
+        }
+        return list;
+      } else {
+        return valueType.parse(annotations, value[0]);
+      }
+    }
+
+    /**
+     * Create the property for the specified type.
+     *
+     * @return the property or null if the type has no value type
+     */
+    static Property create(ControllerService plugin, Method setter, Field field, AnnotatedElement annotations, Type type) {
+      if (type instanceof Class<?>) {
+        Class<?> clazz = (Class<?>)type;
+        if (clazz.isArray()) {
+          ValueType<?> valueType = plugin.resolveValueType(clazz.getComponentType());
+          if (valueType != null) {
+            return new Property(setter, field, annotations, valueType, clazz.getComponentType(), false);
+          }
+        } else {
+          ValueType<?> valueType = plugin.resolveValueType(clazz);
+          if (valueType != null) {
+            return new Property(setter, field, annotations, valueType, null, false);
+          }
+        }
+      } else if (type instanceof ParameterizedType) {
+        ParameterizedType parameterizedType = (ParameterizedType)type;
+        if (List.class.equals(parameterizedType.getRawType())) {
+          Type typeArg = parameterizedType.getActualTypeArguments()[0];
+          if (typeArg instanceof Class) {
+            ValueType<?> valueType = plugin.resolveValueType((Class<?>)typeArg);
+            if (valueType != null) {
+              return new Property(setter, field, annotations, valueType, null, true);
+            }
+          }
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Creates a bean from the request parameters, the setters and fields of the bean type are introspected
+   * when the binder is created.
+   */
+  static class BeanBinder {
+
+    /** . */
+    final Class<?> type;
+
+    /** The setters by setter name. */
+    final HashMap<String, Property[]> setters;
+
+    /** The public fields by name. */
+    final HashMap<String, Property> fields;
+
+    BeanBinder(ControllerService plugin, Class<?> type) {
+      HashMap<String, List<Property>> setters = new HashMap<String, List<Property>>();
+      for (final Method m : type.getMethods()) {
+        int modifiers = m.getModifiers();
+        if (m.getName().startsWith("set") && Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers)) {
+          Type[] parameterTypes = m.getGenericParameterTypes();
+          if (parameterTypes.length == 1) {
+            AbstractAnnotatedElement annotations = new AbstractAnnotatedElement() {
+              @Override
+              public Annotation[] getDeclaredAnnotations() {
+                return m.getParameterAnnotations()[0];
+              }
+            };
+            Property property = Property.create(plugin, m, null, annotations, parameterTypes[0]);
+            if (property != null) {
+              List<Property> list = setters.get(m.getName());
+              if (list == null) {
+                setters.put(m.getName(), list = new ArrayList<Property>());
+              }
+              list.add(property);
+            }
+          }
+        }
+      }
+      HashMap<String, Property> fields = new HashMap<String, Property>();
+      for (Field f : type.getFields()) {
+        Property property = Property.create(plugin, null, f, f, f.getGenericType());
+        if (property != null && !fields.containsKey(f.getName())) {
+          fields.put(f.getName(), property);
+        }
+      }
+
+      //
+      this.type = type;
+      this.setters = new HashMap<String, Property[]>();
+      for (Map.Entry<String, List<Property>> entry : setters.entrySet()) {
+        this.setters.put(entry.getKey(), entry.getValue().toArray(new Property[entry.getValue().size()]));
+      }
+      this.fields = fields;
+    }
+
+    Object create(boolean requiresPrefix, String beanName, Map<String, RequestParameter> parameters) throws IllegalAccessException, InstantiationException {
+      Object bean = type.newInstance();
+      String prefix = requiresPrefix ? beanName + "." : "";
+      for (Map.Entry<String, RequestParameter> parameter : parameters.entrySet()) {
+        String key = parameter.getKey();
+        if (key.startsWith(prefix) && key.length() > prefix.length()) {
+          key = key.substring(prefix.length());
+          String[] value = parameter.getValue().toArray();
+          try {
+            boolean success = false;
+            Property[] candidates = setters.get("set" + key.substring(0, 1).toUpperCase() + key.substring(1));
+            if (candidates != null) {
+              for (Property candidate : candidates) {
+                Object o = candidate.getValue(value);
+                if (o != null) {
+                  candidate.setter.invoke(bean, o);
+                  success = true;
+                  break;
+                }
+              }
+            }
+            if (!success) {
+              Property field = fields.get(key);
+              if (field != null) {
+                Object o = field.getValue(value);
+                if (o != null) {
+                  field.field.set(bean, o);
+                }
+              }
+            }
+          }
+          catch (Exception e) {
+            // Do something better
+          }
+        }
+      }
+      return bean;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.request;
+
+/**
+ * Invokes the method of a controller handler without reflection. The controller plugin generates an invoker
+ * for each handler in the controller companion class.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public interface HandlerInvoker {
+
+  /**
+   * Invoke the handler method.
+   *
+   * @param controller the controller
+   * @param args the method arguments
+   * @return the method returned value or null for a void method
+   * @throws Throwable anything thrown by the method
+   */
+  Object invoke(Object controller, Object[] args) throws Throwable;
+
+}
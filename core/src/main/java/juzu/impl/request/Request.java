@@ -202,7 +202,7 @@ public class Request implements ScopingContext {
   }
 
   public Executor getExecutor() {
-    final Iterable<ExecutionFilter> filters = controllerPlugin.getInjectionContext().resolveInstances(ExecutionFilter.class);
+    final Iterable<ExecutionFilter> filters = controllerPlugin.getExecutionFilters();
     return new Executor() {
       public void execute(Runnable command) {
         for (ExecutionFilter filter : filters) {
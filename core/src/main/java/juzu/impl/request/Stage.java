@@ -15,11 +15,11 @@
  */
 package juzu.impl.request;
 
-import juzu.MimeType;
 import juzu.PropertyType;
 import juzu.Response;
+import juzu.impl.bridge.spi.HttpHeaders;
+import juzu.impl.common.ContentNegotiation;
 import juzu.impl.common.Spliterator;
-import juzu.impl.common.Tools;
 import juzu.impl.inject.spi.InjectionContext;
 import juzu.impl.value.ValueType;
 import juzu.io.Streamable;
@@ -33,7 +33,6 @@ import juzu.request.SecurityContext;
 import juzu.request.UserContext;
 
 import java.io.IOException;
-import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
@@ -61,18 +60,8 @@ public abstract class Stage {
   }
 
   public Stage(Request request) {
-
-    // Build the filter list
-    List<RequestFilter<?>> filters = new ArrayList<RequestFilter<?>>();
-    for (RequestFilter<?> filter : request.controllerPlugin.getInjectionContext().resolveInstances(RequestFilter.class)) {
-      if (getClass().isAssignableFrom(filter.getStageType())) {
-        filters.add(filter);
-      }
-    }
-
-    //
     this.request = request;
-    this.filters = filters;
+    this.filters = request.controllerPlugin.getRequestFilters(getClass());
   }
 
   public Response invoke() {
@@ -138,12 +127,10 @@ public abstract class Stage {
 
             //
             if (!mediaType.equals("application/x-www-form-urlencoded")) {
-              for (EntityUnmarshaller reader : Tools.loadService(EntityUnmarshaller.class, request.controllerPlugin.getApplication().getClassLoader())) {
+              EntityUnmarshaller reader = request.controllerPlugin.resolveUnmarshaller(mediaType);
+              if (reader != null) {
                 try {
-                  if (reader.accept(mediaType)) {
-                    reader.unmarshall(mediaType, clientContext, contextualArguments.entrySet(), parameterArguments);
-                    break;
-                  }
+                  reader.unmarshall(mediaType, clientContext, contextualArguments.entrySet(), parameterArguments);
                 }
                 catch (IOException e) {
                   throw new UnsupportedOperationException("handle me gracefully", e);
@@ -182,6 +169,7 @@ public abstract class Stage {
         RequestContext context = new RequestContext(request, handler);
 
         // Build arguments
+        HandlerBinder binder = request.controllerPlugin.getBinder(handler);
         Object[] args = new Object[handler.getParameters().size()];
         for (int i = 0;i < args.length;i++) {
           ControlParameter parameter = handler.getParameters().get(i);
@@ -190,7 +178,7 @@ public abstract class Stage {
             PhaseParameter phaseParam = (PhaseParameter)parameter;
             RequestParameter requestParam = request.getParameterArguments().get(phaseParam.getMappedName());
             if (requestParam != null) {
-              ValueType<?> valueType = request.controllerPlugin.resolveValueType(phaseParam.getValueType());
+              ValueType<?> valueType = binder.valueTypes[i];
               if (valueType != null) {
                 List values = new ArrayList(requestParam.size());
                 for (String s : requestParam) {
@@ -210,31 +198,13 @@ public abstract class Stage {
             } else {
               value = null;
             }
-            Class<?> type = phaseParam.getType();
-            if (value == null && type.isPrimitive()) {
-              if (type == int.class) {
-                value = 0;
-              } else if (type == long.class) {
-                value = 0L;
-              } else if (type == byte.class) {
-                value = (byte)0;
-              } else if (type == short.class) {
-                value = (short)0;
-              } else if (type == boolean.class) {
-                value = false;
-              } else if (type == float.class) {
-                value = 0.0f;
-              } else if (type == double.class) {
-                value = 0.0d;
-              } else if (type == char.class) {
-                value = '\u0000';
-              }
+            if (value == null) {
+              value = binder.defaults[i];
             }
           } else if (parameter instanceof BeanParameter) {
             BeanParameter beanParam = (BeanParameter)parameter;
-            Class<?> type = beanParam.getType();
             try {
-              value = beanParam.createMappedBean(request.controllerPlugin, handler.requiresPrefix, type, beanParam.getName(), request.getParameterArguments());
+              value = binder.beans[i].create(handler.requiresPrefix, beanParam.getName(), request.getParameterArguments());
             }
             catch (Exception e) {
               value = null;
@@ -382,20 +352,14 @@ public abstract class Stage {
     @Override
     protected Response response() {
       try {
-        Object ret = context.getHandler().getMethod().invoke(controller, args);
-
-        //
-        MimeType mimeType = null;
-        for (Annotation annotation : context.getHandler().getMethod().getDeclaredAnnotations()) {
-          if (annotation instanceof MimeType) {
-            mimeType = (MimeType)annotation;
-          } else {
-            mimeType = annotation.annotationType().getAnnotation(MimeType.class);
-          }
-          if (mimeType != null && mimeType.value().length > 0) {
-            // For now we stop but we should look at the accept types of the client
-            // for doing some basic content negociation
-            break;
+        Object ret = context.getHandler().invoke(controller, args);
+
+        // Order the declared mime types with the accept types of the client
+        String[] mimeTypes = context.getHandler().mimeTypes;
+        if (mimeTypes.length > 1) {
+          HttpContext httpContext = request.getHttpContext();
+          if (httpContext instanceof HttpHeaders) {
+            mimeTypes = ContentNegotiation.negotiate(((HttpHeaders)httpContext).getHeader("Accept"), mimeTypes);
           }
         }
 
@@ -407,13 +371,13 @@ public abstract class Stage {
           // @View -> Response.Mime
           // as we can do it
           Response resp = (Response)ret;
-          if (mimeType != null) {
-            resp = resp.with(PropertyType.MIME_TYPE, mimeType.value()[0]);
+          if (mimeTypes.length > 0) {
+            resp = resp.with(PropertyType.MIME_TYPE, mimeTypes[0]);
           }
           return resp;
-        } else if (ret != null && mimeType != null) {
-          for (EntityMarshaller writer : Tools.loadService(EntityMarshaller.class, request.controllerPlugin.getApplication().getClassLoader())) {
-            for (String s : mimeType.value()) {
+        } else if (ret != null && mimeTypes.length > 0) {
+          for (EntityMarshaller writer : request.controllerPlugin.getMarshallers()) {
+            for (String s : mimeTypes) {
               Streamable streamable = writer.marshall(s, context.getHandler().getMethod(), ret);
               if (streamable != null) {
                 return Response.ok().with(PropertyType.MIME_TYPE, s).body(streamable);
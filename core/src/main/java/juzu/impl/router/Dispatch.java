@@ -0,0 +1,157 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * The compiled dispatch table of the children of a route. The literal segment children are merged by name so
+ * the candidates for a path segment are obtained with a single lookup, the sibling pattern routes sharing the
+ * same expression are grouped so the expression is evaluated once per segment. The candidates are always
+ * returned in the declaration order of the children, so the routing algorithm yields the same matches in the
+ * same order than the interpreted mode.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class Dispatch {
+
+  /** . */
+  private static final int[] EMPTY_INT_ARRAY = new int[0];
+
+  /** The sorted segment names. */
+  private final String[] names;
+
+  /** The candidate child indexes of each segment name. */
+  private final int[][] segments;
+
+  /** The candidate child indexes when no segment name matches. */
+  private final int[] others;
+
+  /** The pattern group of each child or -1 when the child is not a pattern route. */
+  final int[] groups;
+
+  /** The number of pattern groups. */
+  final int groupCount;
+
+  Dispatch(Route[] children) {
+
+    // Sort children by kind
+    LinkedHashMap<String, List<Integer>> named = new LinkedHashMap<String, List<Integer>>();
+    List<Integer> others = new ArrayList<Integer>();
+    IdentityHashMap<RERef, Integer> groupIds = new IdentityHashMap<RERef, Integer>();
+    int[] groups = new int[children.length];
+    for (int i = 0;i < children.length;i++) {
+      Route child = children[i];
+      groups[i] = -1;
+      if (child instanceof SegmentRoute) {
+        String name = ((SegmentRoute)child).name;
+        List<Integer> indexes = named.get(name);
+        if (indexes == null) {
+          named.put(name, indexes = new ArrayList<Integer>());
+        }
+        indexes.add(i);
+      } else {
+        if (child instanceof PatternRoute) {
+          RERef pattern = ((PatternRoute)child).pattern;
+          Integer groupId = groupIds.get(pattern);
+          if (groupId == null) {
+            groupIds.put(pattern, groupId = groupIds.size());
+          }
+          groups[i] = groupId;
+        }
+        others.add(i);
+      }
+    }
+
+    // Merge each segment name with the other children preserving the declaration order, the names are sorted
+    // so a segment of the path is looked up by its range without creating a string
+    String[] names = named.keySet().toArray(new String[named.size()]);
+    Arrays.sort(names);
+    int[][] segments = new int[names.length][];
+    for (int i = 0;i < names.length;i++) {
+      segments[i] = merge(named.get(names[i]), others);
+    }
+
+    //
+    this.names = names;
+    this.segments = segments;
+    this.others = merge(others, new ArrayList<Integer>());
+    this.groups = groups;
+    this.groupCount = groupIds.size();
+  }
+
+  /**
+   * Returns the indexes of the children that may match the specified segment.
+   *
+   * @param path the path
+   * @param from the segment start index in the path
+   * @param to the segment end index in the path
+   * @return the candidate indexes ordered by declaration
+   */
+  int[] candidates(String path, int from, int to) {
+    int low = 0;
+    int high = names.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int cmp = compare(names[mid], path, from, to);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return segments[mid];
+      }
+    }
+    return others;
+  }
+
+  /**
+   * Compare a name with a range of a path, consistently with {@link String#compareTo(String)}.
+   */
+  private static int compare(String name, String path, int from, int to) {
+    int length = to - from;
+    int n = Math.min(name.length(), length);
+    for (int i = 0;i < n;i++) {
+      int diff = name.charAt(i) - path.charAt(from + i);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return name.length() - length;
+  }
+
+  private static int[] merge(List<Integer> a, List<Integer> b) {
+    int size = a.size() + b.size();
+    if (size == 0) {
+      return EMPTY_INT_ARRAY;
+    }
+    int[] merged = new int[size];
+    int i = 0, j = 0, k = 0;
+    while (i < a.size() || j < b.size()) {
+      if (j == b.size() || (i < a.size() && a.get(i) < b.get(j))) {
+        merged[k++] = a.get(i++);
+      } else {
+        merged[k++] = b.get(j++);
+      }
+    }
+    return merged;
+  }
+}
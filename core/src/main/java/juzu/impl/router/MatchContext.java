@@ -0,0 +1,303 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.router;
+
+import juzu.impl.common.PercentCodec;
+import juzu.impl.router.regex.RE;
+import juzu.io.UndeclaredIOException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * The state of the routing algorithm. The frames of the route tree traversal and the matched parameters are
+ * stored in primitive arrays as offsets in the decoded path, a context can be reused for matching several
+ * requests to avoid garbage. A context is not thread safe and can be used for a single matching at a time.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class MatchContext {
+
+  /** . */
+  static final int BEGIN = 0;
+
+  /** . */
+  static final int PROCESS_CHILDREN = 1;
+
+  /** . */
+  static final int DO_CHECK = 2;
+
+  /** . */
+  static final int MATCHED = 3;
+
+  /** . */
+  static final int END = 4;
+
+  /** The decoded path buffer. */
+  private final StringBuilder buffer = new StringBuilder();
+
+  /** The escaped chars buffer. */
+  private boolean[] escapedBuffer = new boolean[64];
+
+  /** The decoded path. */
+  String path;
+
+  /** The escaped chars of the decoded path or null when no char is escaped. */
+  boolean[] escaped;
+
+  /** The index of the current frame. */
+  int depth;
+
+  /** . */
+  Route[] routes = new Route[8];
+
+  /** . */
+  int[] offsets = new int[8];
+
+  /** . */
+  int[] statuses = new int[8];
+
+  /** . */
+  int[] childIndexes = new int[8];
+
+  /** . */
+  Dispatch[] dispatches = new Dispatch[8];
+
+  /** . */
+  int[][] candidates = new int[8][];
+
+  /** . */
+  int[] segmentEnds = new int[8];
+
+  /** The group slot base of each frame. */
+  int[] slotBases = new int[8];
+
+  /** The parameter stack size when the frame was pushed. */
+  private int[] paramMarks = new int[8];
+
+  /** The slot stack size when the frame was pushed. */
+  private int[] slotMarks = new int[8];
+
+  /** The data stack size when the frame was pushed. */
+  private int[] dataMarks = new int[8];
+
+  /** . */
+  int paramSize;
+
+  /** . */
+  PathParam[] params = new PathParam[8];
+
+  /** The absolute start of the parameter values in the path. */
+  int[] paramStarts = new int[8];
+
+  /** The absolute end of the parameter values in the path. */
+  int[] paramEnds = new int[8];
+
+  /** The pattern group slots : -1 when not evaluated, -2 when not matched, the data index otherwise. */
+  int[] slots = new int[16];
+
+  /** . */
+  int slotSize;
+
+  /** The pattern group matches. */
+  int[] data = new int[64];
+
+  /** . */
+  int dataSize;
+
+  /** The scratch groups of a pattern find. */
+  int[] groups = new int[16];
+
+  /** The regex matchers. */
+  private RE.Matcher[] matchers = new RE.Matcher[8];
+
+  /** The regex of the matchers. */
+  private RERef[] matcherRefs = new RERef[8];
+
+  public MatchContext() {
+  }
+
+  void init(Route root, String rawPath) throws UndeclaredIOException {
+
+    // Decode the path
+    int len = rawPath.length();
+    buffer.setLength(0);
+    if (escapedBuffer.length < len + 1) {
+      escapedBuffer = new boolean[len + 1];
+    }
+    int count = 0;
+    boolean anyEscaped = false;
+
+    // Always start with a '/'
+    if (!rawPath.startsWith("/")) {
+      buffer.append('/');
+      escapedBuffer[count++] = false;
+    }
+
+    //
+    try {
+      int i = 0;
+      while (i < len) {
+        int delta = PercentCodec.RFC3986_PATH.decodeChar(rawPath, i, len, buffer);
+        anyEscaped |= (escapedBuffer[count++] = delta > 1);
+        i += delta;
+      }
+    }
+    catch (IOException e) {
+      throw new UndeclaredIOException(e);
+    }
+
+    //
+    this.path = buffer.toString();
+    if (anyEscaped) {
+      escaped = new boolean[path.length()];
+      System.arraycopy(escapedBuffer, 0, escaped, 0, count);
+    } else {
+      escaped = null;
+    }
+    this.paramSize = 0;
+    this.slotSize = 0;
+    this.dataSize = 0;
+    this.depth = -1;
+
+    //
+    push(root, 0);
+  }
+
+  void push(Route route, int offset) {
+    int next = depth + 1;
+    if (next == routes.length) {
+      int size = next * 2;
+      routes = Arrays.copyOf(routes, size);
+      offsets = Arrays.copyOf(offsets, size);
+      statuses = Arrays.copyOf(statuses, size);
+      childIndexes = Arrays.copyOf(childIndexes, size);
+      dispatches = Arrays.copyOf(dispatches, size);
+      candidates = Arrays.copyOf(candidates, size);
+      segmentEnds = Arrays.copyOf(segmentEnds, size);
+      slotBases = Arrays.copyOf(slotBases, size);
+      paramMarks = Arrays.copyOf(paramMarks, size);
+      slotMarks = Arrays.copyOf(slotMarks, size);
+      dataMarks = Arrays.copyOf(dataMarks, size);
+    }
+    routes[next] = route;
+    offsets[next] = offset;
+    statuses[next] = BEGIN;
+    childIndexes[next] = 0;
+    dispatches[next] = null;
+    candidates[next] = null;
+    paramMarks[next] = paramSize;
+    slotMarks[next] = slotSize;
+    dataMarks[next] = dataSize;
+    depth = next;
+  }
+
+  void pop() {
+    paramSize = paramMarks[depth];
+    slotSize = slotMarks[depth];
+    dataSize = dataMarks[depth];
+    routes[depth] = null;
+    dispatches[depth] = null;
+    candidates[depth] = null;
+    depth--;
+  }
+
+  void pushParam(PathParam param, int start, int end) {
+    if (paramSize == params.length) {
+      int size = paramSize * 2;
+      params = Arrays.copyOf(params, size);
+      paramStarts = Arrays.copyOf(paramStarts, size);
+      paramEnds = Arrays.copyOf(paramEnds, size);
+    }
+    params[paramSize] = param;
+    paramStarts[paramSize] = start;
+    paramEnds[paramSize] = end;
+    paramSize++;
+  }
+
+  /**
+   * Reserve the pattern group slots of the current frame.
+   *
+   * @param count the number of groups
+   */
+  void reserveSlots(int count) {
+    if (slotSize + count > slots.length) {
+      slots = Arrays.copyOf(slots, Math.max(slots.length * 2, slotSize + count));
+    }
+    Arrays.fill(slots, slotSize, slotSize + count, -1);
+    slotBases[depth] = slotSize;
+    slotSize += count;
+  }
+
+  /**
+   * Reserve data for storing pattern groups.
+   *
+   * @param size the data size
+   * @return the data index
+   */
+  int reserveData(int size) {
+    if (dataSize + size > data.length) {
+      data = Arrays.copyOf(data, Math.max(data.length * 2, dataSize + size));
+    }
+    int index = dataSize;
+    dataSize += size;
+    return index;
+  }
+
+  int[] groups(int size) {
+    if (groups.length < size) {
+      groups = new int[size];
+    }
+    return groups;
+  }
+
+  RE.Matcher matcher(RERef ref) {
+    if (ref.index >= matchers.length) {
+      int size = Math.max(matchers.length * 2, ref.index + 1);
+      matchers = Arrays.copyOf(matchers, size);
+      matcherRefs = Arrays.copyOf(matcherRefs, size);
+    }
+    if (matcherRefs[ref.index] != ref) {
+      matchers[ref.index] = ref.re.matcher();
+      matcherRefs[ref.index] = ref;
+    }
+    return matchers[ref.index];
+  }
+
+  /**
+   * Create a match from the current frame, the match only retains the parameter offsets.
+   *
+   * @param separatorEscape the separator escape of the router
+   * @return the match
+   */
+  RouteMatch match(char separatorEscape) {
+    Route route = routes[depth];
+    if (paramSize == 0) {
+      return new RouteMatch(route, Collections.<PathParam, String>emptyMap());
+    } else {
+      return new RouteMatch(
+          route,
+          path,
+          escaped,
+          separatorEscape,
+          Arrays.copyOf(params, paramSize),
+          Arrays.copyOf(paramStarts, paramSize),
+          Arrays.copyOf(paramEnds, paramSize));
+    }
+  }
+}
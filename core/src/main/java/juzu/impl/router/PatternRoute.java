@@ -38,6 +38,9 @@ class PatternRoute extends Route {
   /** The encoded chunks (so we don't reencode them later). */
   final String[] encodedChunks;
 
+  /** The number of groups of the pattern used for matching the parameters, including the whole match. */
+  final int groupCount;
+
   PatternRoute(
       Router router,
       RERef pattern,
@@ -62,5 +65,12 @@ class PatternRoute extends Route {
     this.params = params.toArray(new PathParam[params.size()]);
     this.chunks = chunks.toArray(new String[chunks.size()]);
     this.encodedChunks = encodedChunks;
+
+    //
+    int groupCount = 1;
+    for (PathParam param : this.params) {
+      groupCount += param.matchingRegex.length;
+    }
+    this.groupCount = groupCount;
   }
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.router;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The cache used when rendering routes: it retains the compiled render template of a route, the template to use
+ * for a set of parameter names and the parameter values already validated by the parameter expressions. The cache is owned by a router and
+ * discarded with it.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class RenderCache {
+
+  /** The maximum number of templates per route. */
+  private static final int MAX_TEMPLATES = 32;
+
+  /** The maximum number of valid values per parameter. */
+  private static final int MAX_VALUES = 256;
+
+  /** . */
+  private static final Template NO_TEMPLATE = new Template();
+
+  /**
+   * The precompiled render template of a route: the literal parts of the path between the parameter values, a
+   * path is rendered by concatenating the literals with the encoded values.
+   */
+  static class Template {
+
+    /** The route parameters from the root to the route. */
+    final PathParam[] params;
+
+    /** The literal rendered before each parameter value and after the last one. */
+    final String[] literals;
+
+    /** The literals without their leading slash. */
+    final String[] trimmedLiterals;
+
+    /**
+     * The first parameter of the pattern route preceding a literal when the slash of the literal is rendered only
+     * when one of the values of this route is not empty, otherwise -1.
+     */
+    final int[] guards;
+
+    private Template() {
+      this.params = new PathParam[0];
+      this.literals = new String[]{""};
+      this.trimmedLiterals = literals;
+      this.guards = new int[]{-1};
+    }
+
+    Template(Route route) {
+      List<PathParam> params = new ArrayList<PathParam>();
+      List<String> literals = new ArrayList<String>();
+      List<Integer> guards = new ArrayList<Integer>();
+      StringBuilder literal = new StringBuilder();
+      int guard = -1;
+
+      // Whether the rendered path ends with a slash : 0 no, 1 yes, 2 when no value of the previous route is
+      // rendered, the first parameter of this route is dynamicFrom
+      int endWithSlash = 0;
+      int dynamicFrom = -1;
+      List<Route> path = route.getPath();
+      for (int r = 0;r < path.size();r++) {
+        Route current = path.get(r);
+        if (current instanceof SegmentRoute || current instanceof EmptyRoute || current instanceof PatternRoute) {
+          if (endWithSlash == 0) {
+            literal.append('/');
+          } else if (endWithSlash == 2) {
+            // The literal is empty as the chunks of the previous route are empty
+            literal.append('/');
+            guard = dynamicFrom;
+          }
+          if (current instanceof SegmentRoute) {
+            literal.append(((SegmentRoute)current).encodedName);
+            endWithSlash = 0;
+          } else if (current instanceof EmptyRoute) {
+            endWithSlash = 1;
+          } else {
+            PatternRoute pr = (PatternRoute)current;
+            int from = params.size();
+            int count = 0;
+            for (int i = 0;i < pr.params.length;i++) {
+              literal.append(pr.encodedChunks[i]);
+              count += pr.chunks[i].length();
+              literals.add(literal.toString());
+              guards.add(guard);
+              literal.setLength(0);
+              guard = -1;
+              params.add(pr.params[i]);
+            }
+            literal.append(pr.encodedChunks[pr.params.length]);
+            count += pr.chunks[pr.params.length].length();
+            if (count > 0) {
+              endWithSlash = 0;
+            } else {
+              endWithSlash = 2;
+              dynamicFrom = from;
+            }
+          }
+        } else if (r == path.size() - 1) {
+          literal.append('/');
+          endWithSlash = 1;
+        }
+      }
+      literals.add(literal.toString());
+      guards.add(guard);
+
+      //
+      this.params = params.toArray(new PathParam[params.size()]);
+      this.literals = literals.toArray(new String[literals.size()]);
+      this.trimmedLiterals = new String[this.literals.length];
+      this.guards = new int[this.literals.length];
+      for (int i = 0;i < this.literals.length;i++) {
+        this.guards[i] = guards.get(i);
+        this.trimmedLiterals[i] = this.guards[i] >= 0 ? this.literals[i].substring(1) : this.literals[i];
+      }
+    }
+  }
+
+  /** . */
+  private final ConcurrentHashMap<Route, Template> compiled;
+
+  /** . */
+  private final ConcurrentHashMap<Route, ConcurrentHashMap<Set<String>, Template>> templates;
+
+  /** . */
+  private final ConcurrentHashMap<PathParam, ConcurrentHashMap<String, Integer>> values;
+
+  RenderCache() {
+    this.compiled = new ConcurrentHashMap<Route, Template>();
+    this.templates = new ConcurrentHashMap<Route, ConcurrentHashMap<Set<String>, Template>>();
+    this.values = new ConcurrentHashMap<PathParam, ConcurrentHashMap<String, Integer>>();
+  }
+
+  /**
+   * Returns the compiled template of a route.
+   *
+   * @param route the route
+   * @return the template
+   */
+  Template getTemplate(Route route) {
+    Template template = compiled.get(route);
+    if (template == null) {
+      template = new Template(route);
+      Template phantom = compiled.putIfAbsent(route, template);
+      if (phantom != null) {
+        template = phantom;
+      }
+    }
+    return template;
+  }
+
+  /**
+   * Returns the template of a route for the specified parameter names.
+   *
+   * @param route the route
+   * @param names the parameter names
+   * @return the template or null when the route cannot be rendered with the names
+   */
+  Template getTemplate(Route route, Set<String> names) {
+    ConcurrentHashMap<Set<String>, Template> routeTemplates = templates.get(route);
+    if (routeTemplates == null) {
+      ConcurrentHashMap<Set<String>, Template> tmp = new ConcurrentHashMap<Set<String>, Template>();
+      routeTemplates = templates.putIfAbsent(route, tmp);
+      if (routeTemplates == null) {
+        routeTemplates = tmp;
+      }
+    }
+    Template template = routeTemplates.get(names);
+    if (template == null) {
+      template = getTemplate(route);
+      for (PathParam param : template.params) {
+        if (!names.contains(param.name)) {
+          template = NO_TEMPLATE;
+          break;
+        }
+      }
+      if (routeTemplates.size() < MAX_TEMPLATES) {
+        routeTemplates.putIfAbsent(new HashSet<String>(names), template);
+      }
+    }
+    return template != NO_TEMPLATE ? template : null;
+  }
+
+  /**
+   * Resolve the index of the expression of a parameter matching a value.
+   *
+   * @param param the parameter
+   * @param value the value
+   * @return the expression index or -1 if the value is not valid
+   */
+  int resolve(PathParam param, String value) {
+    ConcurrentHashMap<String, Integer> paramValues = values.get(param);
+    if (paramValues == null) {
+      ConcurrentHashMap<String, Integer> tmp = new ConcurrentHashMap<String, Integer>();
+      paramValues = values.putIfAbsent(param, tmp);
+      if (paramValues == null) {
+        paramValues = tmp;
+      }
+    }
+    Integer index = paramValues.get(value);
+    if (index == null) {
+      for (int i = 0;i < param.matchingRegex.length;i++) {
+        if (param.matchingRegex[i].re.matcher().matches(value)) {
+          if (paramValues.size() < MAX_VALUES) {
+            paramValues.put(value, i);
+          }
+          return i;
+        }
+      }
+      return -1;
+    }
+    return index;
+  }
+
+  void clear() {
+    compiled.clear();
+    templates.clear();
+    values.clear();
+  }
+}
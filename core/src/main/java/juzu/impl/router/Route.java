@@ -18,10 +18,10 @@ package juzu.impl.router;
 
 //import javanet.staxutils.IndentingXMLStreamWriter;
 
+import juzu.impl.common.PercentCodec;
 import juzu.impl.common.UriBuilder;
 import juzu.impl.router.parser.RouteParser;
 import juzu.impl.router.parser.RouteParserHandler;
-import juzu.impl.router.regex.RE;
 import juzu.impl.router.regex.SyntaxException;
 import juzu.impl.common.Tools;
 
@@ -32,7 +32,6 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -146,6 +145,9 @@ public class Route {
   /** . */
   private Route[] children;
 
+  /** The compiled dispatch table of the children or null when the route is interpreted. */
+  private Dispatch dispatch;
+
   Route(Router router, int terminal) {
 
     // Invoked by Router subclass ... not pretty but simple and does the work
@@ -168,6 +170,20 @@ public class Route {
    */
   public final void clearChildren() {
     this.children = EMPTY_ROUTE_ARRAY;
+    this.dispatch = null;
+  }
+
+  /**
+   * Compile the dispatch table of this route and its descendants. A compiled route finds the children matching
+   * a path segment with a lookup instead of trying all its children, the routing results remain the same. When a
+   * route is appended to a compiled route, the compiled route falls back to the interpreted mode until it is
+   * compiled again.
+   */
+  public final void compile() {
+    dispatch = new Dispatch(children);
+    for (Route child : children) {
+      child.compile();
+    }
   }
 
   /**
@@ -188,133 +204,99 @@ public class Route {
     return path;
   }
 
-  final boolean renderPath(RouteMatch match, UriBuilder writer, boolean hasChildren) throws IOException {
-
-    //
-    boolean endWithSlash = parent != null && parent.renderPath(match, writer, true);
-
-    //
-    if (this instanceof SegmentRoute) {
-      SegmentRoute sr = (SegmentRoute)this;
-      if (!endWithSlash) {
-        writer.append('/');
-      }
-      String name = sr.encodedName;
-      writer.append(name);
-      endWithSlash = false;
-    }
-    else if (this instanceof EmptyRoute) {
-      if (!endWithSlash) {
-        writer.append('/');
-        endWithSlash = true;
+  /**
+   * Render the path of a match by concatenating the literals of the route template with the encoded values.
+   *
+   * @param match the match
+   * @param writer the writer
+   * @throws IOException any io exception
+   */
+  final void renderPath(RouteMatch match, UriBuilder writer) throws IOException {
+    RenderCache.Template template = router.renderCache.getTemplate(this);
+    PathParam[] params = template.params;
+    int lastNonEmpty = -1;
+    for (int i = 0;i < params.length;i++) {
+      writer.append(template.guards[i] > lastNonEmpty ? template.trimmedLiterals[i] : template.literals[i]);
+      String value = match.getValue(i, params[i]);
+      if (value.length() > 0) {
+        lastNonEmpty = i;
+        appendValue(params[i], value, writer);
+      }
+    }
+    writer.append(template.guards[params.length] > lastNonEmpty ? template.trimmedLiterals[params.length] : template.literals[params.length]);
+  }
+
+  private void appendValue(PathParam def, String value, UriBuilder writer) throws IOException {
+    int len = value.length();
+    int j = 0;
+    while (j < len) {
+      char c = value.charAt(j);
+      if (c == router.separatorEscape || c == '/' || !PercentCodec.RFC3986_SEGMENT.accept(c)) {
+        break;
       }
+      j++;
     }
-    else if (this instanceof PatternRoute) {
-      PatternRoute pr = (PatternRoute)this;
-      if (!endWithSlash) {
-        writer.append('/');
-        endWithSlash = true;
-      }
-      int i = 0;
-      int count = 0;
-      while (i < pr.params.length) {
-        writer.append(pr.encodedChunks[i]);
-        count += pr.chunks[i].length();
-
-        //
-        PathParam def = pr.params[i];
-        String value = match.matched.get(def);
-        count += value.length();
-
-        // Write value
-        for (int len = value.length(), j = 0;j < len;j++) {
-          char c = value.charAt(j);
-          if (c == router.separatorEscape) {
-            if (def.preservePath) {
-              writer.append('_');
-            }
-            else {
-              writer.append('%');
-              writer.append(router.separatorEscapeNible1);
-              writer.append(router.separatorEscapeNible2);
-            }
-          }
-          else if (c == '/') {
-            writer.append(def.preservePath ? '/' : router.separatorEscape);
+    if (j == len) {
+      // Nothing to encode
+      writer.append(value);
+    } else {
+      for (j = 0;j < len;j++) {
+        char c = value.charAt(j);
+        if (c == router.separatorEscape) {
+          if (def.preservePath) {
+            writer.append('_');
           }
           else {
-            writer.appendSegment(c);
+            writer.append('%');
+            writer.append(router.separatorEscapeNible1);
+            writer.append(router.separatorEscapeNible2);
           }
         }
-
-        //
-        i++;
-      }
-      writer.append(pr.encodedChunks[i]);
-      count += pr.chunks[i].length();
-      if (count > 0) {
-        endWithSlash = false;
-      }
-    }
-    else {
-      if (!hasChildren) {
-        writer.append('/');
-        endWithSlash = true;
+        else if (c == '/') {
+          writer.append(def.preservePath ? '/' : router.separatorEscape);
+        }
+        else {
+          writer.appendSegment(c);
+        }
       }
     }
-
-    //
-    return endWithSlash;
   }
 
+  /**
+   * Match the route against a set of parameters for rendering it. The parameters must not be modified afterwards
+   * as the returned match retains them.
+   *
+   * @param parameters the parameters
+   * @return the match or null when the route cannot be rendered with the parameters
+   */
   public final RouteMatch matches(Map<String, String> parameters) {
 
-    //
-    HashMap<String, String> unmatched = new HashMap<String, String>(parameters);
-    HashMap<PathParam, String> matched = new HashMap<PathParam, String>();
-
-    //
-    if (_matches(unmatched, matched)) {
-      return new RouteMatch(this, unmatched, matched);
-    } else {
+    // Parameter names are almost always the same for a route
+    RenderCache.Template template = router.renderCache.getTemplate(this, parameters.keySet());
+    if (template == null) {
       return null;
     }
-  }
-
-  private boolean _matches(HashMap<String, String> context, HashMap<PathParam, String> matched) {
-    return (parent == null || parent._matches(context, matched)) && matches(context, matched);
-  }
-
-  private boolean matches(HashMap<String, String> context, HashMap<PathParam, String> abc) {
 
-    // Match any pattern parameter
-    if (this instanceof PatternRoute) {
-      PatternRoute prt = (PatternRoute)this;
-      for (int i = 0;i < prt.params.length;i++) {
-        PathParam param = prt.params[i];
-        String s = context.get(param.name);
-        String matched = null;
-        if (s != null) {
-          for (int j = 0;j < param.matchingRegex.length;j++) {
-            RERef renderingRegex = param.matchingRegex[j];
-            if (renderingRegex.re.matcher().matches(s)) {
-              matched = param.templatePrefixes[j] + s + param.templateSuffixes[j];
-              break;
-            }
-          }
-        }
-        if (matched != null) {
-          context.remove(param.name);
-          abc.put(param, matched);
-        }
-        else {
-          return false;
-        }
+    // Validate values
+    PathParam[] params = template.params;
+    String[] values = new String[params.length];
+    for (int i = 0;i < params.length;i++) {
+      PathParam param = params[i];
+      String value = parameters.get(param.name);
+      if (value == null) {
+        return null;
+      }
+      int index = router.renderCache.resolve(param, value);
+      if (index == -1) {
+        return null;
       }
+      String prefix = param.templatePrefixes[index];
+      String suffix = param.templateSuffixes[index];
+      values[i] = "".equals(prefix) && "".equals(suffix) ? value : prefix + value + suffix;
     }
 
     //
-    return true;
+    return new RouteMatch(this, parameters, params, values);
   }
 
   public final RouteMatch route(String path) {
@@ -334,99 +316,49 @@ public class Route {
    * @return the route matcher
    */
   public final Iterator<RouteMatch> matcher(String path, Map<String, String[]> requestParams) {
-
-    // Always start with a '/'
-    if (!path.startsWith("/")) {
-      path = "/" + path;
-    }
-
-    //
-    return new RouteMatcher(this, Path.parse(path), requestParams);
+    return matcher(new MatchContext(), path, requestParams);
   }
 
-  static class RouteFrame {
-
-    /** Defines the status of a frame. */
-    static enum Status {
-      BEGIN,
-
-      PROCESS_CHILDREN,
-
-      DO_CHECK,
-
-      MATCHED,
-
-      END
-
-    }
-
-    /** . */
-    private final RouteFrame parent;
-
-    /** . */
-    private final Route route;
-
-    /** . */
-    private final Path path;
-
-    /** . */
-    private Status status;
-
-    /** The matches. */
-    private Map<PathParam, String> matches;
-
-    /** The index when iterating child in {@link juzu.impl.router.Route.RouteFrame.Status#PROCESS_CHILDREN} status. */
-    private int childIndex;
-
-    private RouteFrame(RouteFrame parent, Route route, Path path) {
-      this.parent = parent;
-      this.route = route;
-      this.path = path;
-      this.status = Status.BEGIN;
-      this.childIndex = 0;
-    }
-
-    private RouteFrame(Route route, Path path) {
-      this(null, route, path);
-    }
-
-    Map<PathParam, String> getParameters() {
-      Map<PathParam, String> parameters = null;
-      for (RouteFrame frame = this;frame != null;frame = frame.parent) {
-        if (frame.matches != null) {
-          if (parameters == null) {
-            parameters = new HashMap<PathParam, String>();
-          }
-          parameters.putAll(frame.matches);
-        }
-      }
-      return parameters != null ? parameters : Collections.<PathParam, String>emptyMap();
-    }
+  /**
+   * Create a route matcher for the a request that uses the specified context for storing its state. The context
+   * can be reused once the matcher is not used anymore, the matches returned by the matcher remain valid.
+   *
+   * @param context       the match context
+   * @param path          the path
+   * @param requestParams the query parameters
+   * @return the route matcher
+   */
+  public final Iterator<RouteMatch> matcher(MatchContext context, String path, Map<String, String[]> requestParams) {
+    context.init(this, path);
+    return new RouteMatcher(context, requestParams);
   }
 
   static class RouteMatcher implements Iterator<RouteMatch> {
 
+    /** . */
+    private final MatchContext context;
+
     /** . */
     private final Map<String, String[]> requestParams;
 
     /** . */
-    private RouteFrame frame;
+    private RouteMatch next;
 
     /** . */
-    private RouteFrame next;
+    private boolean done;
 
-    RouteMatcher(Route route, Path path, Map<String, String[]> requestParams) {
-      this.frame = new RouteFrame(route, path);
+    RouteMatcher(MatchContext context, Map<String, String[]> requestParams) {
+      this.context = context;
       this.requestParams = requestParams;
+      this.done = false;
     }
 
     public boolean hasNext() {
-      if (next == null) {
-        if (frame != null) {
-          frame = route(frame, requestParams);
-        }
-        if (frame != null && frame.status == RouteFrame.Status.MATCHED) {
-          next = frame;
+      if (next == null && !done) {
+        if (route(context, requestParams)) {
+          next = context.match(context.routes[context.depth].router.separatorEscape);
+        } else {
+          done = true;
         }
       }
       return next != null;
@@ -436,10 +368,9 @@ public class Route {
       if (!hasNext()) {
         throw new NoSuchElementException();
       }
-      Map<PathParam, String> parameters = next.getParameters();
-      Route route = next.route;
+      RouteMatch match = next;
       next = null;
-      return new RouteMatch(route, parameters);
+      return match;
     }
 
     public void remove() {
@@ -447,68 +378,96 @@ public class Route {
     }
   }
 
-  private static RouteFrame route(RouteFrame root, Map<String, String[]> requestParams) {
-    RouteFrame current = root;
+  /**
+   * Find the next match.
+   *
+   * @param context the context
+   * @param requestParams the request parameters
+   * @return true when the current frame of the context is matched
+   */
+  private static boolean route(MatchContext context, Map<String, String[]> requestParams) {
 
     //
-    if (root.status == RouteFrame.Status.MATCHED) {
-      if (root.parent != null) {
-        current = root.parent;
+    String path = context.path;
+    int length = path.length();
+
+    //
+    if (context.statuses[context.depth] == MatchContext.MATCHED) {
+      if (context.depth > 0) {
+        context.pop();
       }
       else {
-        return null;
+        return false;
       }
     }
-    else if (root.status != RouteFrame.Status.BEGIN) {
-      throw new AssertionError("Unexpected status " + root.status);
+    else if (context.statuses[context.depth] != MatchContext.BEGIN) {
+      throw new AssertionError("Unexpected status " + context.statuses[context.depth]);
     }
 
     //
     while (true) {
-      if (current.status == RouteFrame.Status.BEGIN) {
-        current.status = RouteFrame.Status.PROCESS_CHILDREN;
-      }
-      else if (current.status == RouteFrame.Status.PROCESS_CHILDREN) {
-        if (current.childIndex < current.route.children.length) {
-          Route child = current.route.children[current.childIndex++];
+      int current = context.depth;
+      int status = context.statuses[current];
+      Route route = context.routes[current];
+      int offset = context.offsets[current];
+      if (status == MatchContext.BEGIN) {
+        Dispatch dispatch = route.dispatch;
+        if (dispatch != null) {
+
+          // Determine the segment once for all the children
+          int from = offset;
+          while (from < length && path.charAt(from) == '/') {
+            from++;
+          }
+          int to = path.indexOf('/', from);
+          if (to == -1) {
+            to = length;
+          }
 
-          // The next frame
-          RouteFrame next;
+          //
+          context.dispatches[current] = dispatch;
+          context.candidates[current] = dispatch.candidates(path, from, to);
+          context.segmentEnds[current] = to;
+          if (dispatch.groupCount > 0) {
+            context.reserveSlots(dispatch.groupCount);
+          }
+        }
+        context.statuses[current] = MatchContext.PROCESS_CHILDREN;
+      }
+      else if (status == MatchContext.PROCESS_CHILDREN) {
+        int[] candidates = context.candidates[current];
+        int candidate = context.childIndexes[current];
+        if (candidate < (candidates != null ? candidates.length : route.children.length)) {
+          context.childIndexes[current] = candidate + 1;
+          int childIndex = candidates != null ? candidates[candidate] : candidate;
+          Route child = route.children[childIndex];
 
           //
           if (child instanceof EmptyRoute) {
-            next = new RouteFrame(current, child, current.path);
+            context.push(child, offset);
+          }
+          else if (candidates != null && child instanceof SegmentRoute) {
+            // The dispatch table only provides the segment routes matching the segment
+            context.push(child, context.segmentEnds[current]);
           }
           else if (child instanceof SegmentRoute) {
             SegmentRoute segmentRoute = (SegmentRoute)child;
 
             // Remove any leading slashes
-            int POS = 0;
-            while (POS < current.path.length() && current.path.charAt(POS) == '/') {
-              POS++;
+            int from = offset;
+            while (from < length && path.charAt(from) == '/') {
+              from++;
             }
 
             // Find the next '/' for determining the segment and next path
-            // JULIEN : this can be computed multiple times
-            int pos = current.path.indexOf('/', POS);
-            if (pos == -1) {
-              pos = current.path.length();
+            int to = path.indexOf('/', from);
+            if (to == -1) {
+              to = length;
             }
 
-            //
-            String segment = current.path.getValue().substring(POS, pos);
-
             // Determine next path
-            if (segmentRoute.name.equals(segment)) {
-              // Lazy create next segment path
-              // JULIEN : this can be computed multiple times
-              Path nextSegmentPath = current.path.subPath(pos);
-
-              // Delegate the process to the next route
-              next = new RouteFrame(current, segmentRoute, nextSegmentPath);
-            }
-            else {
-              next = null;
+            if (segmentRoute.name.length() == to - from && path.startsWith(segmentRoute.name, from)) {
+              context.push(segmentRoute, to);
             }
           }
           else if (child instanceof PatternRoute) {
@@ -516,50 +475,59 @@ public class Route {
 
             // We skip one '/' , should we skip more ? this raise issues with path encoding that manages '/'
             // need to figure out later
-            Path path = current.path;
-            if (path.length() > 0 && path.charAt(0) == '/') {
-              path = path.subPath(1);
+            int from = offset;
+            if (from < length && path.charAt(from) == '/') {
+              from++;
             }
 
-            //
-            RE.Match[] matches = patternRoute.pattern.re.matcher().find(path.getValue());
+            // Find the groups, when the route is compiled they are shared among the pattern siblings
+            int size = patternRoute.groupCount * 2;
+            int[] groups;
+            int base;
+            if (candidates != null) {
+              int slot = context.slotBases[current] + context.dispatches[current].groups[childIndex];
+              if (context.slots[slot] == -1) {
+                int[] found = context.groups(size);
+                if (context.matcher(patternRoute.pattern).find(path, from, found)) {
+                  int dataIndex = context.reserveData(size);
+                  System.arraycopy(found, 0, context.data, dataIndex, size);
+                  context.slots[slot] = dataIndex;
+                }
+                else {
+                  context.slots[slot] = -2;
+                }
+              }
+              if (context.slots[slot] >= 0) {
+                groups = context.data;
+                base = context.slots[slot];
+              }
+              else {
+                groups = null;
+                base = 0;
+              }
+            }
+            else {
+              groups = context.groups(size);
+              base = 0;
+              if (!context.matcher(patternRoute.pattern).find(path, from, groups)) {
+                groups = null;
+              }
+            }
 
             // We match
-            if (matches.length > 0) {
-              // Build next controller context
-              int nextPos = matches[0].getEnd();
-              Path nextPath = path.subPath(nextPos);
+            if (groups != null) {
 
               // Delegate to next patternRoute
-              next = new RouteFrame(current, patternRoute, nextPath);
+              context.push(patternRoute, from + groups[base + 1]);
 
-              // JULIEN : this can be done lazily
               // Append parameters
               int index = 1;
               for (int i = 0;i < patternRoute.params.length;i++) {
                 PathParam param = patternRoute.params[i];
                 for (int j = 0;j < param.matchingRegex.length;j++) {
-                  RE.Match match = matches[index + j];
-                  if (match.getEnd() != -1) {
-                    String value;
-                    if (!param.preservePath) {
-                      StringBuilder sb = new StringBuilder();
-                      for (int from = match.getStart();from < match.getEnd();from++) {
-                        char c = path.charAt(from);
-                        if (c == child.router.separatorEscape && !path.isEscaped(from)) {
-                          c = '/';
-                        }
-                        sb.append(c);
-                      }
-                      value = sb.toString();
-                    }
-                    else {
-                      value = match.getValue();
-                    }
-                    if (next.matches == null) {
-                      next.matches = new HashMap<PathParam, String>();
-                    }
-                    next.matches.put(param, value);
+                  int group = base + (index + j) * 2;
+                  if (groups[group + 1] != -1) {
+                    context.pushParam(param, from + groups[group], from + groups[group + 1]);
                     break;
                   }
                   else {
@@ -570,81 +538,70 @@ public class Route {
                 index += param.matchingRegex.length;
               }
             }
-            else {
-              next = null;
-            }
           }
           else {
             throw new AssertionError();
           }
-
-          //
-          if (next != null) {
-            current = next;
-          }
         }
         else {
-          current.status = RouteFrame.Status.DO_CHECK;
+          context.statuses[current] = MatchContext.DO_CHECK;
         }
       }
-      else if (current.status == RouteFrame.Status.DO_CHECK) {
+      else if (status == MatchContext.DO_CHECK) {
 
         // Find the index of the first char that is not a '/'
-        int pos = 0;
-        while (pos < current.path.length() && current.path.charAt(pos) == '/') {
+        int pos = offset;
+        while (pos < length && path.charAt(pos) == '/') {
           pos++;
         }
 
         // Are we done ?
-        RouteFrame.Status next;
-        if (pos == current.path.length()) {
-          if (current.route instanceof EmptyRoute) {
-            next = RouteFrame.Status.MATCHED;
+        int next;
+        if (pos == length) {
+          if (route instanceof EmptyRoute) {
+            next = MatchContext.MATCHED;
           } else {
-            switch (current.route.terminal) {
+            switch (route.terminal) {
               case TERMINATION_NONE:
-                next = RouteFrame.Status.END;
+                next = MatchContext.END;
                 break;
               case TERMINATION_SEGMENT:
-                next = pos == 0 ? RouteFrame.Status.MATCHED : RouteFrame.Status.END;
+                next = pos == offset ? MatchContext.MATCHED : MatchContext.END;
                 break;
               case TERMINATION_SEPARATOR:
-                next = pos == 0 ? RouteFrame.Status.END : RouteFrame.Status.MATCHED;
+                next = pos == offset ? MatchContext.END : MatchContext.MATCHED;
                 break;
               case TERMINATION_ANY:
-                next = RouteFrame.Status.MATCHED;
+                next = MatchContext.MATCHED;
                 break;
               default:
                 throw new AssertionError();
             }
           }
         } else {
-          next = RouteFrame.Status.END;
+          next = MatchContext.END;
         }
 
         //
-        current.status = next;
+        context.statuses[current] = next;
       }
-      else if (current.status == RouteFrame.Status.MATCHED) {
+      else if (status == MatchContext.MATCHED) {
         // We found a solution
-        break;
+        return true;
       }
-      else if (current.status == RouteFrame.Status.END) {
-        if (current.parent != null) {
-          current = current.parent;
+      else if (status == MatchContext.END) {
+        if (current > 0) {
+          context.pop();
         }
         else {
           // The end of the search
-          break;
+          return false;
         }
       }
       else {
         throw new AssertionError();
       }
     }
-
-    //
-    return current;
   }
 
   private void add(Route route) throws MalformedRouteException {
@@ -669,6 +626,7 @@ public class Route {
     //
     if (route instanceof PatternRoute || route instanceof SegmentRoute || route instanceof EmptyRoute) {
       children = Tools.appendTo(children, route);
+      dispatch = null;
 
       // Compute path
       List<Route> path = new ArrayList<Route>(this.path.size() + 1);
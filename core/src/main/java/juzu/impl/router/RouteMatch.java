@@ -22,6 +22,7 @@ import juzu.impl.common.MimeType;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
@@ -30,11 +31,35 @@ public class RouteMatch {
   /** The matched route. */
   final Route route;
 
-  /** The matched parameters. */
-  final Map<PathParam, String> matched;
+  /** The matched parameters, lazily created when the match retains the parameter offsets or values. */
+  private Map<PathParam, String> matched;
 
-  /** The un matched parameters. */
-  final Map<String, String> unmatched;
+  /** The un matched parameters, lazily created when the match retains the parameters. */
+  private Map<String, String> unmatched;
+
+  /** The parameters of a match created from parameters. */
+  private Map<String, String> parameters;
+
+  /** The parameter values of a match created from parameters. */
+  private String[] values;
+
+  /** The decoded path. */
+  private String path;
+
+  /** The escaped chars of the path or null. */
+  private boolean[] escaped;
+
+  /** . */
+  private char separatorEscape;
+
+  /** . */
+  private PathParam[] params;
+
+  /** . */
+  private int[] starts;
+
+  /** . */
+  private int[] ends;
 
   RouteMatch(Route route, Map<PathParam, String> matched) {
     this.route = route;
@@ -42,6 +67,31 @@ public class RouteMatch {
     this.unmatched = Collections.emptyMap();
   }
 
+  RouteMatch(
+      Route route,
+      String path,
+      boolean[] escaped,
+      char separatorEscape,
+      PathParam[] params,
+      int[] starts,
+      int[] ends) {
+    this.route = route;
+    this.unmatched = Collections.emptyMap();
+    this.path = path;
+    this.escaped = escaped;
+    this.separatorEscape = separatorEscape;
+    this.params = params;
+    this.starts = starts;
+    this.ends = ends;
+  }
+
+  RouteMatch(Route route, Map<String, String> parameters, PathParam[] params, String[] values) {
+    this.route = route;
+    this.parameters = parameters;
+    this.params = params;
+    this.values = values;
+  }
+
   RouteMatch(Route route, Map<String, String> unmatched, Map<PathParam, String> matched) {
     this.route = route;
     this.matched = Collections.unmodifiableMap(matched);
@@ -53,15 +103,113 @@ public class RouteMatch {
   }
 
   public Map<PathParam, String> getMatched() {
-    return Collections.unmodifiableMap(matched);
+    if (matched == null) {
+      HashMap<PathParam, String> matched = new HashMap<PathParam, String>(params.length * 2);
+      for (int i = 0;i < params.length;i++) {
+        matched.put(params[i], values != null ? values[i] : value(params[i], starts[i], ends[i]));
+      }
+      this.matched = Collections.unmodifiableMap(matched);
+    }
+    return matched;
+  }
+
+  /**
+   * Returns the value of a matched parameter without creating the matched map when possible.
+   *
+   * @param param the parameter
+   * @return the parameter value
+   */
+  String getValue(PathParam param) {
+    if (values != null) {
+      for (int i = 0;i < params.length;i++) {
+        if (params[i] == param) {
+          return values[i];
+        }
+      }
+      return null;
+    } else {
+      return getMatched().get(param);
+    }
+  }
+
+  /**
+   * Returns the value of a parameter of the route template, the values of a match created from parameters are
+   * ordered as the template parameters.
+   *
+   * @param index the parameter index in the route template
+   * @param param the parameter
+   * @return the parameter value
+   */
+  String getValue(int index, PathParam param) {
+    if (values != null && params[index] == param) {
+      return values[index];
+    } else {
+      return getValue(param);
+    }
+  }
+
+  /**
+   * Returns true if the specified parameter name is matched by the route.
+   *
+   * @param name the parameter name
+   * @return true when the parameter is matched
+   */
+  public boolean isMatched(String name) {
+    if (values != null) {
+      for (PathParam param : params) {
+        if (param.name.equals(name)) {
+          return true;
+        }
+      }
+      return false;
+    } else {
+      for (PathParam param : getMatched().keySet()) {
+        if (param.name.equals(name)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private String value(PathParam param, int start, int end) {
+    if (!param.preservePath) {
+      StringBuilder sb = null;
+      for (int from = start;from < end;from++) {
+        if (path.charAt(from) == separatorEscape && (escaped == null || !escaped[from])) {
+          if (sb == null) {
+            sb = new StringBuilder(end - start).append(path, start, from);
+          }
+          sb.append('/');
+        }
+        else if (sb != null) {
+          sb.append(path.charAt(from));
+        }
+      }
+      if (sb != null) {
+        return sb.toString();
+      }
+    }
+    return path.substring(start, end);
   }
 
   public Map<String, String> getUnmatched() {
+    if (unmatched == null) {
+      if (parameters.size() == params.length) {
+        unmatched = Collections.emptyMap();
+      } else {
+        HashMap<String, String> remaining = new HashMap<String, String>(parameters);
+        for (PathParam param : params) {
+          remaining.remove(param.name);
+        }
+        unmatched = Collections.unmodifiableMap(remaining);
+      }
+    }
     return unmatched;
   }
 
   public void render(UriBuilder writer) throws IOException {
-    route.renderPath(this, writer, false);
+    route.renderPath(this, writer);
   }
 
   public String render() {
@@ -57,6 +57,9 @@ public class Router extends Route {
   /** . */
   private RERef[] regexes;
 
+  /** . */
+  final RenderCache renderCache;
+
   /** The slash escape char. */
   final char separatorEscape;
 
@@ -92,6 +95,14 @@ public class Router extends Route {
     this.separatorEscape = separatorEscape;
     this.regexes = new RERef[0];
     this.factory = regexFactory;
+    this.renderCache = new RenderCache();
+  }
+
+  /**
+   * Clear the render cache of this router.
+   */
+  public void clearCache() {
+    renderCache.clear();
   }
 
   RERef compile(String pattern) {
@@ -34,6 +34,31 @@ public abstract class RE {
 
     public abstract Match[] find(CharSequence s);
 
+    /**
+     * Find the pattern in the sequence starting at the <code>from</code> index, the start and end of each group
+     * are stored in the <code>groups</code> array at the <code>2 * group</code> and <code>2 * group + 1</code>
+     * indexes. The indexes are relative to the <code>from</code> index and a group that did not match has
+     * <code>-1</code> indexes.
+     *
+     * @param s the sequence
+     * @param from the start index
+     * @param groups the groups array
+     * @return true if the pattern is found
+     */
+    public boolean find(CharSequence s, int from, int[] groups) {
+      Match[] matches = find(s.subSequence(from, s.length()));
+      if (matches.length > 0) {
+        for (int i = 0;i < groups.length / 2;i++) {
+          Match match = i < matches.length ? matches[i] : NULL_MATCH;
+          groups[i * 2] = match.getStart();
+          groups[i * 2 + 1] = match.getEnd();
+        }
+        return true;
+      }
+      else {
+        return false;
+      }
+    }
   }
 
   public static class Match {
@@ -96,6 +121,29 @@ public abstract class RE {
           return get(s).matches();
         }
 
+        @Override
+        public boolean find(CharSequence s, int from, int[] groups) {
+          java.util.regex.Matcher matcher = get(s);
+          matcher.region(from, s.length());
+          if (matcher.find()) {
+            int count = matcher.groupCount();
+            for (int i = 0;i < groups.length / 2;i++) {
+              if (i <= count && matcher.start(i) != -1) {
+                groups[i * 2] = matcher.start(i) - from;
+                groups[i * 2 + 1] = matcher.end(i) - from;
+              }
+              else {
+                groups[i * 2] = -1;
+                groups[i * 2 + 1] = -1;
+              }
+            }
+            return true;
+          }
+          else {
+            return false;
+          }
+        }
+
         @Override
         public Match[] find(CharSequence s) {
           java.util.regex.Matcher matcher = get(s);
@@ -30,6 +30,7 @@ import juzu.impl.common.Logger;
 import juzu.impl.plugin.application.Application;
 import juzu.impl.plugin.application.descriptor.ApplicationDescriptor;
 import juzu.impl.plugin.asset.AssetService;
+import juzu.impl.plugin.template.TemplateService;
 import juzu.impl.resource.ResourceResolver;
 
 import java.io.Closeable;
@@ -69,8 +70,8 @@ public class ApplicationRuntime<P, R> implements Closeable {
   /** . */
   private InjectionContext<?, ?> injectionContext;
 
-  /** . */
-  private Application application;
+  /** The started application, read without locking. */
+  private volatile Application application;
 
   /** The last used class loader : used for checking refresh. */
   private ClassLoader classLoader;
@@ -78,6 +79,12 @@ public class ApplicationRuntime<P, R> implements Closeable {
   /** . */
   private final RunMode runMode;
 
+  /** The number of threads initializing the templates when the application starts, 0 disables it. */
+  private final int warmupTemplates;
+
+  /** Whether the application assets are compressed when the client accepts it. */
+  private final boolean compression;
+
   public ApplicationRuntime(
       Logger log,
       RunMode runMode,
@@ -86,6 +93,19 @@ public class ApplicationRuntime<P, R> implements Closeable {
       Name name,
       AssetServer assetServer,
       ResourceResolver resourceResolver) {
+    this(log, runMode, moduleLifeCycle, injectorProvider, name, assetServer, resourceResolver, 0, false);
+  }
+
+  public ApplicationRuntime(
+      Logger log,
+      RunMode runMode,
+      ModuleRuntime<?> moduleLifeCycle,
+      Injector injectorProvider,
+      Name name,
+      AssetServer assetServer,
+      ResourceResolver resourceResolver,
+      int warmupTemplates,
+      boolean compression) {
 
     //
     this.log = log;
@@ -95,6 +115,8 @@ public class ApplicationRuntime<P, R> implements Closeable {
     this.assetServer = assetServer;
     this.resourceResolver = resourceResolver;
     this.runMode = runMode;
+    this.warmupTemplates = warmupTemplates;
+    this.compression = compression;
   }
 
   public Name getName() {
@@ -165,7 +187,18 @@ public class ApplicationRuntime<P, R> implements Closeable {
     //
     if (assetServer != null) {
 
-      assetServer.register(application, runMode.getCacheAssets());
+      assetServer.register(application, runMode.getCacheAssets(), compression);
+    }
+
+    // Initialize the templates before the application serves its first request
+    if (warmupTemplates > 0) {
+      TemplateService templateService = injectionContext.resolveInstance(TemplateService.class);
+      if (templateService != null) {
+        int failures = templateService.warmUp(warmupTemplates);
+        if (failures > 0) {
+          log.info("Could not initialize " + failures + " templates of " + descriptor.getName());
+        }
+      }
     }
 
     //
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The classes referenced by a class file determined from its constant pool: the class entries and the class
+ * names of the type descriptors and signatures.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+class ClassReferences {
+
+  /** Matches a class name in a type descriptor or signature. */
+  private static final Pattern CLASS_TYPE = Pattern.compile("L([^;<>()\\[\\s]+)[;<]");
+
+  /** The referenced class internal names. */
+  final Set<String> references;
+
+  /** True when the class declares constant fields, their value is inlined by the referencing classes. */
+  final boolean constants;
+
+  private ClassReferences(Set<String> references, boolean constants) {
+    this.references = references;
+    this.constants = constants;
+  }
+
+  /**
+   * Parse the references of a class file, the names are not filtered so a string constant looking like a type
+   * descriptor adds a reference, which only makes the result more conservative.
+   *
+   * @param bytes the class file bytes
+   * @return the class references
+   * @throws IOException when the class file is not valid
+   */
+  static ClassReferences parse(byte[] bytes) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    if (in.readInt() != 0xCAFEBABE) {
+      throw new IOException("Not a class file");
+    }
+    in.readUnsignedShort();
+    in.readUnsignedShort();
+    int count = in.readUnsignedShort();
+    String[] utf8 = new String[count];
+    int[] classes = new int[count];
+    int size = 0;
+    for (int i = 1;i < count;i++) {
+      int tag = in.readUnsignedByte();
+      switch (tag) {
+        case 1:
+          utf8[i] = in.readUTF();
+          break;
+        case 7:
+          classes[size++] = in.readUnsignedShort();
+          break;
+        case 8:
+        case 16:
+        case 19:
+        case 20:
+          in.skipBytes(2);
+          break;
+        case 15:
+          in.skipBytes(3);
+          break;
+        case 3:
+        case 4:
+        case 9:
+        case 10:
+        case 11:
+        case 12:
+        case 17:
+        case 18:
+          in.skipBytes(4);
+          break;
+        case 5:
+        case 6:
+          // Takes two entries
+          in.skipBytes(8);
+          i++;
+          break;
+        default:
+          throw new IOException("Invalid constant pool tag " + tag);
+      }
+    }
+    boolean constants = false;
+    Set<String> references = new HashSet<String>();
+    for (int i = 0;i < size;i++) {
+      String name = utf8[classes[i]];
+      if (name != null && !name.startsWith("[")) {
+        references.add(name);
+      }
+    }
+    for (String value : utf8) {
+      if ("ConstantValue".equals(value)) {
+        constants = true;
+      } else if (value != null && value.indexOf(';') != -1) {
+        Matcher matcher = CLASS_TYPE.matcher(value);
+        while (matcher.find()) {
+          references.add(matcher.group(1));
+        }
+      }
+    }
+    return new ClassReferences(references, constants);
+  }
+}
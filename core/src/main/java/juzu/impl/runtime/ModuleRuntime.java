@@ -17,28 +17,42 @@
 package juzu.impl.runtime;
 
 import juzu.impl.common.Completion;
+import juzu.impl.common.Tools;
 import juzu.impl.common.LiveClassLoader;
 import juzu.impl.common.ParentJarClassLoader;
 import juzu.impl.common.Logger;
 import juzu.impl.compiler.*;
 import juzu.impl.compiler.Compiler;
 import juzu.impl.fs.FileSystemScanner;
+import juzu.impl.fs.FileSystemWatcher;
+import juzu.impl.fs.Change;
 import juzu.impl.fs.Filter;
 import juzu.impl.fs.Snapshot;
+import juzu.impl.fs.Visitor;
 import juzu.impl.fs.spi.ReadFileSystem;
 import juzu.impl.fs.spi.ram.RAMFileSystem;
 import juzu.impl.fs.spi.url.URLFileSystem;
 import juzu.processor.MainProcessor;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The module life cycle.
  *
  * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
  */
-public abstract class ModuleRuntime<C> {
+public abstract class ModuleRuntime<C> implements Closeable {
 
   /** . */
   protected final Logger logger;
@@ -76,6 +90,12 @@ public abstract class ModuleRuntime<C> {
    */
   public abstract boolean isDynamic();
 
+  /**
+   * Release the resources held by the module, the default implementation does nothing.
+   */
+  public void close() {
+  }
+
   public static class Dynamic<S> extends ModuleRuntime<String[]> {
 
     /** . */
@@ -87,6 +107,9 @@ public abstract class ModuleRuntime<C> {
     /** . */
     private FileSystemScanner<S> scanner;
 
+    /** Detects the source changes so a request does not scan the sources when nothing changed. */
+    private final FileSystemWatcher<S> watcher;
+
     /** . */
     private Snapshot<S> snapshot;
 
@@ -97,7 +120,7 @@ public abstract class ModuleRuntime<C> {
     private ClassLoader classPathLoader;
 
     /** . */
-    private ReadFileSystem<String[]> classes;
+    private RAMFileSystem classes;
 
     /** . */
     private boolean failed;
@@ -109,7 +132,8 @@ public abstract class ModuleRuntime<C> {
       this.classLoader = null;
       this.baseClassLoader = baseClassLoader;
       this.classPathLoader = new ParentJarClassLoader(baseClassLoader);
-      this.scanner = FileSystemScanner.createHashing(source);
+      this.scanner = FileSystemScanner.createTimestampedHashing(source);
+      this.watcher = new FileSystemWatcher<S>(logger, source);
       this.snapshot = scanner.take();
       this.classPath = null;
       this.failed = false;
@@ -137,6 +161,13 @@ public abstract class ModuleRuntime<C> {
         classPath = new URLFileSystem().add(classPathLoader, ClassLoader.getSystemClassLoader().getParent());
       }
 
+      // The watcher is started on the first refresh and it initially signals a change
+      watcher.start();
+      if (!failed && !watcher.clearChanges()) {
+        return false;
+      }
+
+      // Determine the effective changes
       Snapshot<S> next = snapshot.scan();
 
       //
@@ -147,6 +178,9 @@ public abstract class ModuleRuntime<C> {
       else {
         logger.info("Building application");
 
+        // A build following a failure is always a full build
+        boolean incremental = !failed && classes != null;
+
         //
         this.failed = true;
 
@@ -154,15 +188,31 @@ public abstract class ModuleRuntime<C> {
         final ReadFileSystem<S> sourcePath = scanner.getFileSystem();
 
         //
-        final RAMFileSystem classOutput = new RAMFileSystem();
-        Compiler compiler = Compiler.
-            builder().
-            sourcePath(sourcePath).
-            sourceOutput(classOutput).
-            classOutput(classOutput).
-            addClassPath(classPath).build();
-        compiler.addAnnotationProcessor(new MainProcessor());
-        compiler.compile();
+        RAMFileSystem output = null;
+        if (incremental) {
+          String[] units = getAffectedUnits(next);
+          if (units != null) {
+            logger.info("Recompiling " + units.length + " compilation units");
+            try {
+              output = compile(sourcePath, units);
+            }
+            catch (CompilationException e) {
+              logger.info("Could not recompile incrementally, performing a full build");
+            }
+          }
+        }
+        if (output == null) {
+          output = new RAMFileSystem();
+          Compiler compiler = Compiler.
+              builder().
+              sourcePath(sourcePath).
+              sourceOutput(output).
+              classOutput(output).
+              addClassPath(classPath).build();
+          compiler.addAnnotationProcessor(new MainProcessor());
+          compiler.compile();
+        }
+        final RAMFileSystem classOutput = output;
 
         // Copy everything that is not a java source and not already present
         sourcePath.copy(new Filter.Default<S>() {
@@ -185,6 +235,174 @@ public abstract class ModuleRuntime<C> {
       }
     }
 
+    /**
+     * Recompile the specified compilation units against the classes of the previous build, the previous classes
+     * are copied so the file system of the current class loader is not modified. The meta model processor replays
+     * the meta model serialized by the previous build and only processes the recompiled units.
+     *
+     * @param sourcePath the source path
+     * @param units the compilation units to recompile
+     * @return the new class output
+     * @throws IOException any io exception
+     * @throws CompilationException when the units cannot be compiled
+     */
+    private RAMFileSystem compile(ReadFileSystem<S> sourcePath, String[] units) throws IOException, CompilationException {
+
+      // The previous classes without the classes of the recompiled units
+      RAMFileSystem output = new RAMFileSystem();
+      classes.copy(output);
+      for (String unit : units) {
+        String[] names = Tools.split(unit.substring(1, unit.length() - ".java".length()), '/');
+        String name = names[names.length - 1];
+        String[] dir = output.getPath(Arrays.asList(names).subList(0, names.length - 1));
+        if (dir != null) {
+          for (String child : children(output, dir)) {
+            if (child.equals(name + ".class") || (child.startsWith(name + "$") && child.endsWith(".class"))) {
+              output.removePath(output.getChild(dir, child));
+            }
+          }
+        }
+      }
+
+      // Make the remaining classes part of the classpath
+      RAMFileSystem previous = new RAMFileSystem();
+      output.copy(new Filter.Default<String[]>() {
+        @Override
+        public boolean acceptFile(String[] file, String name) throws IOException {
+          return name.endsWith(".class");
+        }
+      }, previous);
+
+      //
+      Compiler compiler = Compiler.
+          builder().
+          sourcePath(sourcePath).
+          sourceOutput(output).
+          classOutput(output).
+          addClassPath(previous).
+          addClassPath(classPath).build();
+      compiler.addAnnotationProcessor(new MainProcessor());
+      compiler.compile(units);
+      return output;
+    }
+
+    /**
+     * Determines the compilation units to recompile for the changes of a snapshot: the updated units and the
+     * units depending on them according to the constant pool of the previous classes.
+     *
+     * @param next the next snapshot
+     * @return the compilation units or null when a full build is required
+     * @throws IOException any io exception
+     */
+    private String[] getAffectedUnits(Snapshot<S> next) throws IOException {
+
+      // Only updated java sources can be recompiled, an added class can shadow an imported class and the
+      // other resources (templates, assets, etc...) are processed from the package declaration
+      Set<String> changed = new HashSet<String>();
+      for (Map.Entry<String, Change> change : next.getChanges().entrySet()) {
+        String id = change.getKey();
+        if (change.getValue() != Change.UPDATE || !id.endsWith(".java") || id.endsWith("/package-info.java")) {
+          return null;
+        }
+        changed.add(id);
+      }
+
+      // Index the previous classes by compilation unit
+      final Map<String, ClassReferences> references = new HashMap<String, ClassReferences>();
+      final Map<String, List<String>> unitClasses = new HashMap<String, List<String>>();
+      classes.traverse(new Visitor.Default<String[]>() {
+        @Override
+        public void file(String[] file, String name) throws IOException {
+          if (name.endsWith(".class")) {
+            String path = Tools.join('/', file);
+            String className = path.substring(0, path.length() - ".class".length());
+            references.put(className, ClassReferences.parse(classes.getResource(file).getObject().getBytes()));
+            String unit = unitOf(className);
+            List<String> list = unitClasses.get(unit);
+            if (list == null) {
+              unitClasses.put(unit, list = new ArrayList<String>());
+            }
+            list.add(className);
+          }
+        }
+      });
+
+      // A class declared in the compilation unit of another class cannot be tracked
+      for (String unit : unitClasses.keySet()) {
+        if (!next.containsKey(unit) && classes.getPath(Tools.split(unit.substring(1), '/')) == null) {
+          return null;
+        }
+      }
+
+      // The reverse dependencies between the compilation units
+      Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+      for (Map.Entry<String, ClassReferences> entry : references.entrySet()) {
+        String unit = unitOf(entry.getKey());
+        for (String reference : entry.getValue().references) {
+          if (references.containsKey(reference)) {
+            String referenced = unitOf(reference);
+            if (!referenced.equals(unit)) {
+              Set<String> set = dependents.get(referenced);
+              if (set == null) {
+                dependents.put(referenced, set = new HashSet<String>());
+              }
+              set.add(unit);
+            }
+          }
+        }
+      }
+
+      // The constants of a changed unit are inlined and are not visible in the constant pool of its dependents
+      for (String unit : changed) {
+        List<String> list = unitClasses.get(unit);
+        if (list != null) {
+          for (String className : list) {
+            if (references.get(className).constants) {
+              return null;
+            }
+          }
+        }
+      }
+
+      // The transitive closure of the changed units, a generated unit cannot be recompiled from the source path
+      Set<String> affected = new HashSet<String>(changed);
+      LinkedList<String> queue = new LinkedList<String>(changed);
+      while (queue.size() > 0) {
+        String unit = queue.removeFirst();
+        if (!next.containsKey(unit)) {
+          return null;
+        }
+        Set<String> set = dependents.get(unit);
+        if (set != null) {
+          for (String dependent : set) {
+            if (affected.add(dependent)) {
+              queue.addLast(dependent);
+            }
+          }
+        }
+      }
+      return affected.toArray(new String[affected.size()]);
+    }
+
+    /**
+     * Returns the compilation unit of a class from its top level class name.
+     *
+     * @param className the class internal name
+     * @return the compilation unit
+     */
+    private static String unitOf(String className) {
+      int index = className.indexOf('$', className.lastIndexOf('/') + 1);
+      return "/" + (index == -1 ? className : className.substring(0, index)) + ".java";
+    }
+
+    private static List<String> children(RAMFileSystem fs, String[] dir) throws IOException {
+      List<String> children = new ArrayList<String>();
+      for (Iterator<String[]> i = fs.getChildren(dir);i.hasNext();) {
+        children.add(fs.getName(i.next()));
+      }
+      return children;
+    }
+
     @Override
     public ClassLoader getClassLoader() {
       return classLoader;
@@ -199,6 +417,11 @@ public abstract class ModuleRuntime<C> {
     public boolean isDynamic() {
       return true;
     }
+
+    @Override
+    public void close() {
+      watcher.close();
+    }
   }
 
   public static class Static<P> extends ModuleRuntime<P> {
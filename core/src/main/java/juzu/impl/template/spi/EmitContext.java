@@ -32,4 +32,14 @@ public abstract class EmitContext extends PhaseContext {
    */
   public abstract void createResource(Path.Absolute path, CharSequence content) throws IOException;
 
+  /**
+   * Returns a compilation option.
+   *
+   * @param name the option name
+   * @return the option value or null when the option is not set
+   */
+  public String getOption(String name) {
+    return null;
+  }
+
 }
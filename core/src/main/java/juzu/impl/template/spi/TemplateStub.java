@@ -20,6 +20,7 @@ import juzu.template.TemplateExecutionException;
 import juzu.template.TemplateRenderContext;
 
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -38,6 +39,9 @@ public abstract class TemplateStub {
   /** . */
   private static final int INITIALIZED = 2;
 
+  /** . */
+  private static final int FAILED = 3;
+
   /** . */
   protected final ClassLoader loader;
 
@@ -47,6 +51,15 @@ public abstract class TemplateStub {
   /** . */
   private final AtomicInteger status;
 
+  /** Released when the initialization is done, the threads waiting for the initialization block on it. */
+  private final CountDownLatch initialized;
+
+  /** The thread performing the initialization. */
+  private volatile Thread initializer;
+
+  /** The initialization failure rethrown to the other threads. */
+  private volatile RuntimeException failure;
+
   protected TemplateStub(ClassLoader loader, String id) {
 
     if (loader == null) {
@@ -58,6 +71,7 @@ public abstract class TemplateStub {
 
     this.id = id;
     this.status = new AtomicInteger(CONSTRUCTED);
+    this.initialized = new CountDownLatch(1);
     this.loader = loader;
   }
 
@@ -66,33 +80,42 @@ public abstract class TemplateStub {
   }
 
   /**
-   * Initialize the stub.
+   * Initialize the stub, the first calling thread performs the initialization and the other threads block until
+   * it is done. An initialization failure is retained and rethrown to the threads initializing the stub later.
+   *
+   * @throws IllegalStateException when the stub initialization failed or when the initialization is reentrant
    */
-  public final void init() throws NullPointerException {
-    while (true) {
-      switch (status.get()) {
-        case CONSTRUCTED:
-          if (status.compareAndSet(CONSTRUCTED, INITIALIZING)) {
-            int next = CONSTRUCTED;
-            try {
-              doInit(loader);
-              next = INITIALIZED;
-            }
-            finally {
-              status.set(next);
-            }
-          }
-          break;
-        case INITIALIZING:
-          break;
-        default:
-          return;
+  public final void init() throws NullPointerException, IllegalStateException {
+    if (status.get() == INITIALIZED) {
+      return;
+    }
+    if (status.compareAndSet(CONSTRUCTED, INITIALIZING)) {
+      initializer = Thread.currentThread();
+      try {
+        doInit(loader);
+        status.set(INITIALIZED);
+      }
+      catch (RuntimeException e) {
+        failure = new IllegalStateException("Could not initialize template " + id, e);
+        status.set(FAILED);
+        throw e;
+      }
+      catch (Error e) {
+        failure = new IllegalStateException("Could not initialize template " + id, e);
+        status.set(FAILED);
+        throw e;
+      }
+      finally {
+        initializer = null;
+        initialized.countDown();
       }
+    } else {
+      await();
     }
   }
 
   /**
-   * Renders the template.
+   * Renders the template, a stub being initialized by another thread is awaited.
    *
    * @param renderContext the render context
    * @throws TemplateExecutionException any execution exception
@@ -100,18 +123,43 @@ public abstract class TemplateStub {
    * @throws IllegalStateException if the stub is not initialized
    */
   public final void render(TemplateRenderContext renderContext) throws TemplateExecutionException, IOException, IllegalStateException {
+    switch (status.get()) {
+      case CONSTRUCTED:
+        throw new IllegalStateException("Template stub is not initialized");
+      case INITIALIZING:
+      case FAILED:
+        await();
+      default:
+        doRender(renderContext);
+    }
+  }
+
+  /**
+   * Wait until the stub initialization is done.
+   *
+   * @throws IllegalStateException when the stub initialization failed or when the current thread is the initializer
+   */
+  private void await() throws IllegalStateException {
+    if (initializer == Thread.currentThread()) {
+      // Waiting would never return
+      throw new IllegalStateException("Template " + id + " is initialized recursively");
+    }
+    boolean interrupted = false;
     while (true) {
-      switch (status.get()) {
-        case INITIALIZING:
-          // Wait
-          break;
-        case INITIALIZED:
-          doRender(renderContext);
-          return;
-        default:
-          throw new IllegalStateException("Template stub is not initialized " + status.get());
+      try {
+        initialized.await();
+        break;
+      }
+      catch (InterruptedException e) {
+        interrupted = true;
       }
     }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (status.get() == FAILED) {
+      throw failure;
+    }
   }
 
   // tag::doInit[]
@@ -121,7 +121,10 @@ public class GroovyPrinter extends GroovyObjectSupport implements GroovyIntercep
   }
 
   public final void print(Object o) throws IOException {
-    if (o instanceof GString) {
+    if (o instanceof Chunk.Data) {
+      renderContext.getPrinter().provide((Chunk.Data)o);
+    }
+    else if (o instanceof GString) {
       GString gs = (GString)o;
       Object[] values = gs.getValues();
       for (int i = 0;i < values.length;i++) {
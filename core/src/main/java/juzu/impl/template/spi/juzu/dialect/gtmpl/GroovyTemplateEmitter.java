@@ -21,6 +21,7 @@ import juzu.impl.template.spi.juzu.DialectTemplateEmitter;
 import juzu.impl.template.spi.juzu.ast.SectionType;
 import juzu.impl.common.Location;
 import juzu.impl.common.Tools;
+import juzu.io.Chunk;
 import juzu.template.TagHandler;
 
 import java.util.ArrayList;
@@ -70,11 +71,19 @@ public class GroovyTemplateEmitter extends DialectTemplateEmitter {
   /** . */
   private final Name constants;
 
+  /** True when an expression is printed directly instead of being printed as a <code>GString</code>. */
+  private final boolean directPrint;
+
   public GroovyTemplateEmitter() {
     this(null);
   }
 
   public GroovyTemplateEmitter(Name name) {
+    this(name, false);
+  }
+
+  public GroovyTemplateEmitter(Name name, boolean directPrint) {
+    this.directPrint = directPrint;
     if (name != null) {
       pkg = name.getParent();
       String id = "C" + name.getIdentifier();
@@ -97,18 +106,20 @@ public class GroovyTemplateEmitter extends DialectTemplateEmitter {
     builder.append("public class ").append(constants.getIdentifier()).append(sep);
     builder.append("{").append(sep);
 
-    // Add text constant
+    // Add text constant, the text is encoded once per charset when it is printed
     for (int i = 0;i < texts.size();i++) {
       String text = texts.get(i);
       builder.
           append("public static final ").
-          append("String").
+          append(Chunk.class.getName()).
           append(" s").
           append(i).
-          append(" = '");
+          append(" = ").
+          append(Chunk.class.getName()).
+          append(".createText('");
       juzu.impl.common.Tools.escape(text, builder);
       builder.
-          append("';").
+          append("');").
           append(sep);
     }
 
@@ -202,7 +213,11 @@ public class GroovyTemplateEmitter extends DialectTemplateEmitter {
 
   public void openExpression(Location beginPosition) {
     pos = beginPosition;
-    out.append(";out.print(\"${");
+    if (directPrint) {
+      out.append(";out.print((");
+    } else {
+      out.append(";out.print(\"${");
+    }
   }
 
   public void appendExpression(String expr) {
@@ -211,7 +226,11 @@ public class GroovyTemplateEmitter extends DialectTemplateEmitter {
   }
 
   public void closeExpression() {
-    out.append("}\");").append(sep);
+    if (directPrint) {
+      out.append("));").append(sep);
+    } else {
+      out.append("}\");").append(sep);
+    }
     lineNumber++;
   }
 
@@ -30,6 +30,12 @@ import java.io.IOException;
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class GroovyTemplateProvider extends DialectTemplateProvider {
 
+  /**
+   * The compilation option printing the template expressions without creating a <code>GString</code>, when it is
+   * set to <code>true</code> an expression must be a Groovy expression and cannot be a statement.
+   */
+  public static final String DIRECT_PRINT = "juzu.gtmpl.direct_print";
+
   @Override
   public Class<? extends TemplateStub> getTemplateStubType() {
     return GroovyTemplateStub.class;
@@ -42,7 +48,8 @@ public class GroovyTemplateProvider extends DialectTemplateProvider {
 
   @Override
   public final void emit(EmitContext context, TemplateModel<ASTNode.Template> templateModel) throws TemplateException, IOException {
-    GroovyTemplateEmitter emitter = new GroovyTemplateEmitter(templateModel.getPath().getName());
+    boolean directPrint = "true".equalsIgnoreCase(context.getOption(DIRECT_PRINT));
+    GroovyTemplateEmitter emitter = new GroovyTemplateEmitter(templateModel.getPath().getName(), directPrint);
     EmitPhase tcc = new EmitPhase(context);
     tcc.emit(emitter, templateModel.getModel());
     Path.Absolute path = templateModel.getPath();
@@ -30,6 +30,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.util.HashMap;
 
@@ -39,6 +41,9 @@ public class GroovyTemplateStub extends TemplateStub {
   /** . */
   private Class<?> scriptClass;
 
+  /** The script constructor taking the binding, it is looked up once instead of once per rendering. */
+  private Constructor<?> scriptConstructor;
+
   /** . */
   private HashMap<Integer, Foo> locationTable;
 
@@ -47,6 +52,7 @@ public class GroovyTemplateStub extends TemplateStub {
 
     //
     this.scriptClass = null;
+    this.scriptConstructor = null;
     this.locationTable = null;
   }
 
@@ -79,6 +85,15 @@ public class GroovyTemplateStub extends TemplateStub {
       }
     }
 
+    // The constructor of a script class
+    if (Script.class.isAssignableFrom(scriptClass)) {
+      try {
+        scriptConstructor = scriptClass.getConstructor(Binding.class);
+      }
+      catch (NoSuchMethodException ignore) {
+      }
+    }
+
     // Load constants
     try {
       String simpleName;
@@ -132,7 +147,20 @@ public class GroovyTemplateStub extends TemplateStub {
     Binding binding = new BindingImpl(renderContext);
 
     //
-    Script script = InvokerHelper.createScript(scriptClass, binding);
+    Script script;
+    if (scriptConstructor != null) {
+      try {
+        script = (Script)scriptConstructor.newInstance(binding);
+      }
+      catch (InvocationTargetException e) {
+        throw buildRuntimeException(e.getCause());
+      }
+      catch (Exception e) {
+        throw buildRuntimeException(e);
+      }
+    } else {
+      script = InvokerHelper.createScript(scriptClass, binding);
+    }
 
     //
     try {
@@ -17,6 +17,10 @@ package juzu.io;
 
 import juzu.PropertyType;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+
 /**
  * A chunk of data.
  *
@@ -40,6 +44,10 @@ public abstract class Chunk {
     return new Data.InputStream(data);
   }
 
+  public static Data.Text createText(String data) {
+    return new Data.Text(data);
+  }
+
   public static Data.Readable create(Readable data) {
     return new Data.Readable(data);
   }
@@ -141,6 +149,55 @@ public abstract class Chunk {
       }
     }
 
+    /**
+     * A text chunk that retains its bytes for the last charset it was encoded with, it is meant for a text
+     * sent many times such as the static sections of a template.
+     */
+    public static class Text extends CharSequence {
+
+      /** . */
+      private volatile Encoded encoded;
+
+      private Text(java.lang.String data) {
+        super(data, 0, data.length());
+      }
+
+      /**
+       * Returns the text encoded with the specified charset, the returned bytes must not be modified.
+       *
+       * @param charset the charset
+       * @return the encoded bytes
+       */
+      public byte[] getBytes(Charset charset) {
+        Encoded current = encoded;
+        if (current == null || !current.charset.equals(charset)) {
+          ByteArrayOutputStream buffer = new ByteArrayOutputStream(end - start);
+          try {
+            OutputStream.create(charset, buffer).append(data, start, end);
+          }
+          catch (IOException e) {
+            throw new UndeclaredIOException(e);
+          }
+          encoded = current = new Encoded(charset, buffer.toByteArray());
+        }
+        return current.bytes;
+      }
+
+      private static class Encoded {
+
+        /** . */
+        final Charset charset;
+
+        /** . */
+        final byte[] bytes;
+
+        private Encoded(Charset charset, byte[] bytes) {
+          this.charset = charset;
+          this.bytes = bytes;
+        }
+      }
+    }
+
     /**
      * A chars chunk.
      */
@@ -20,7 +20,6 @@ import juzu.impl.io.AppendableStream;
 import juzu.impl.io.BinaryOutputStream;
 import juzu.impl.io.SinkStream;
 
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
@@ -35,6 +34,12 @@ public abstract class OutputStream implements Stream, Closeable {
   /** . */
   public static final int BUFFER_SIZE = 512;
 
+  /** The size of the buffer used for copying an input stream. */
+  public static final int COPY_BUFFER_SIZE = 8192;
+
+  /** The copy buffer reused by each thread. */
+  private static final ThreadLocal<byte[]> copyBuffers = new ThreadLocal<byte[]>();
+
   /** . */
   private LinkedList<Error> errors = null;
 
@@ -50,6 +55,10 @@ public abstract class OutputStream implements Stream, Closeable {
     return new BinaryOutputStream(charset, out);
   }
 
+  public static OutputStream create(Charset charset, java.io.OutputStream out, int bufferSize) {
+    return new BinaryOutputStream(charset, out, bufferSize);
+  }
+
   public static SinkStream create() {
     return SinkStream.INSTANCE;
   }
@@ -62,6 +71,8 @@ public abstract class OutputStream implements Stream, Closeable {
           append(((Chunk.Data.Bytes)data).data);
         } else if (data instanceof Chunk.Data.Chars) {
           append(CharBuffer.wrap(((Chunk.Data.Chars)data).data));
+        } else if (data instanceof Chunk.Data.Text) {
+          append((Chunk.Data.Text)data);
         } else if (data instanceof Chunk.Data.CharSequence) {
           Chunk.Data.CharSequence cs = (Chunk.Data.CharSequence)data;
           append(cs.data, cs.start, cs.end);
@@ -69,8 +80,13 @@ public abstract class OutputStream implements Stream, Closeable {
           Chunk.Data.Char cs = (Chunk.Data.Char)data;
           append(cs.value);
         } else if (data instanceof Chunk.Data.InputStream) {
-          ByteArrayOutputStream baos = Tools.copy(((Chunk.Data.InputStream)data).data, new ByteArrayOutputStream());
-          append(baos.toByteArray());
+          java.io.InputStream in = ((Chunk.Data.InputStream)data).data;
+          try {
+            append(in);
+          }
+          finally {
+            Tools.safeClose(in);
+          }
         } else if (data instanceof Chunk.Data.Readable) {
           Readable readable = ((Chunk.Data.Readable)data).data;
           CharBuffer buffer = CharBuffer.allocate(512);
@@ -113,6 +129,44 @@ public abstract class OutputStream implements Stream, Closeable {
     errors.add(new Error(Thread.currentThread(), t));
   }
 
+  /**
+   * Append the content of an input stream until its end, the stream is copied with a buffer reused by the
+   * current thread so it is never retained in memory as a whole. The stream is not closed by this method.
+   *
+   * @param in the input stream
+   * @throws IOException any io exception
+   */
+  public void append(java.io.InputStream in) throws IOException {
+
+    // Take the buffer of the current thread, a reentrant copy uses its own buffer
+    byte[] buffer = copyBuffers.get();
+    if (buffer != null) {
+      copyBuffers.set(null);
+    } else {
+      buffer = new byte[COPY_BUFFER_SIZE];
+    }
+
+    //
+    try {
+      for (int l;(l = in.read(buffer)) != -1;) {
+        append(buffer, 0, l);
+      }
+    }
+    finally {
+      copyBuffers.set(buffer);
+    }
+  }
+
+  /**
+   * Append a text chunk, the default implementation appends the chars of the text.
+   *
+   * @param text the text
+   * @throws IOException any io exception
+   */
+  public void append(Chunk.Data.Text text) throws IOException {
+    append(text.data, text.start, text.end);
+  }
+
   public abstract void append(CharBuffer buffer) throws IOException;
 
   public abstract void append(CharSequence csq) throws IOException;
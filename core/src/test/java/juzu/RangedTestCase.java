@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu;
+
+import juzu.impl.common.Tools;
+import juzu.impl.io.BinaryOutputStream;
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Map;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class RangedTestCase extends AbstractTestCase {
+
+  private String send(Response.Status response) {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    ((Response.Body)response).getData().send(new BinaryOutputStream(Tools.UTF_8, buffer));
+    return buffer.toString();
+  }
+
+  private String getHeader(Response response, String name) {
+    String value = null;
+    for (Map.Entry<String, String[]> header : response.getProperties().getValues(PropertyType.HEADER)) {
+      if (header.getKey().equals(name)) {
+        value = header.getValue()[0];
+      }
+    }
+    return value;
+  }
+
+  @Test
+  public void testBytes() throws Exception {
+    Response.Ranged ranged = Response.ranged("0123456789".getBytes());
+    assertEquals(10, ranged.getLength());
+    assertEquals("bytes", getHeader(ranged, "Accept-Ranges"));
+    assertEquals(ranged.getETag(), getHeader(ranged, "ETag"));
+    assertSame(ranged, ranged.select(null, null));
+    assertEquals("0123456789", send(ranged));
+
+    //
+    Response.Status partial = ranged.select("bytes=2-4", null);
+    assertEquals(206, partial.getCode());
+    assertEquals("bytes 2-4/10", getHeader(partial, "Content-Range"));
+    assertEquals("3", getHeader(partial, "Content-Length"));
+    assertEquals("234", send(partial));
+
+    //
+    assertEquals(206, ranged.select("bytes=-3", ranged.getETag()).getCode());
+    assertSame(ranged, ranged.select("bytes=-3", "\"other\""));
+
+    //
+    Response.Status unsatisfiable = ranged.select("bytes=20-", null);
+    assertEquals(416, unsatisfiable.getCode());
+    assertEquals("bytes */10", getHeader(unsatisfiable, "Content-Range"));
+  }
+
+  @Test
+  public void testFile() throws Exception {
+    File file = File.createTempFile("juzu", ".bin");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    out.write("0123456789".getBytes());
+    out.close();
+    Response.Ranged ranged = Response.ranged(file);
+    assertEquals(10, ranged.getLength());
+    assertEquals("0123456789", send(ranged));
+    assertEquals("56789", send(ranged.select("bytes=5-", null)));
+    assertEquals("789", send(ranged.select("bytes=-3", null)));
+
+    // The tag of a file is weak and does not validate a range
+    assertTrue(ranged.getETag().startsWith("W/"));
+    assertEquals(200, ranged.select("bytes=5-", ranged.getETag()).getCode());
+  }
+}
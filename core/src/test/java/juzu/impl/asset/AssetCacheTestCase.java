@@ -0,0 +1,85 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package juzu.impl.asset;
+
+import juzu.impl.common.ContentEncoding;
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class AssetCacheTestCase extends AbstractTestCase {
+
+  private static AssetCache.Entry entry(int size) {
+    return new AssetCache.Entry(0, new byte[size], "\"etag\"", "text/plain");
+  }
+
+  @Test
+  public void testEviction() {
+    AssetCache cache = new AssetCache(10);
+    AssetCache.Entry a = entry(4), b = entry(4), c = entry(4);
+    cache.put("a", a);
+    cache.put("b", b);
+    assertSame(a, cache.get("a"));
+    cache.put("c", c);
+    assertSame(a, cache.get("a"));
+    assertNull(cache.get("b"));
+    assertSame(c, cache.get("c"));
+    AssetCache.Entry d = entry(20);
+    cache.put("d", d);
+    assertSame(d, cache.get("d"));
+    assertNull(cache.get("a"));
+    assertNull(cache.get("c"));
+  }
+
+  @Test
+  public void testEncoded() {
+    assertNull(entry(ContentEncoding.MIN_SIZE - 1).getEncoded(ContentEncoding.GZIP));
+    AssetCache.Entry entry = entry(ContentEncoding.MIN_SIZE * 4);
+    byte[] encoded = entry.getEncoded(ContentEncoding.GZIP);
+    assertNotNull(encoded);
+    assertTrue(encoded.length < entry.data.length);
+    assertSame(encoded, entry.getEncoded(ContentEncoding.GZIP));
+  }
+
+  @Test
+  public void testEncodedSize() {
+    int size = ContentEncoding.MIN_SIZE * 4;
+    AssetCache cache = new AssetCache(size * 2);
+    AssetCache.Entry a = entry(size), b = entry(size);
+    cache.put("a", a);
+    cache.put("b", b);
+    assertEquals(size * 2, cache.getSize());
+    byte[] encoded = b.getEncoded(ContentEncoding.GZIP);
+    assertEquals(size + encoded.length, cache.getSize());
+    assertNull(cache.get("a"));
+    assertSame(b, cache.get("b"));
+
+    // The encoded copy of a removed entry is not accounted
+    cache.clear();
+    assertNotNull(a.getEncoded(ContentEncoding.GZIP));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void testMatches() {
+    assertTrue(AssetServer.matches("\"abc\"", "\"abc\""));
+    assertTrue(AssetServer.matches("abc", "\"abc\""));
+    assertTrue(AssetServer.matches("\"foo\", W/\"abc\"", "\"abc\""));
+    assertTrue(AssetServer.matches("*", "\"abc\""));
+    assertFalse(AssetServer.matches("\"abcd\"", "\"abc\""));
+    assertFalse(AssetServer.matches("foo", "\"abc\""));
+  }
+}
@@ -21,7 +21,9 @@ import juzu.impl.resource.ResourceResolver;
 import juzu.test.AbstractTestCase;
 import org.junit.Test;
 
+import java.io.File;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -69,4 +71,124 @@ public class AssetManagerTestCase extends AbstractTestCase {
     catch (IllegalArgumentException expected) {
     }
   }
+
+  @Test
+  public void testGetAssets() {
+    AssetManager mgr = new AssetManager("", ResourceResolver.NULL_RESOLVER);
+    AssetDeployment deployment = mgr.createDeployment();
+    deployment.addAsset("foo", "script", AssetLocation.APPLICATION, "foo.js", null, null, null, DUMMY_URL);
+    deployment.addAsset("bar", "stylesheet", AssetLocation.APPLICATION, "bar.css", null, null, null, DUMMY_URL);
+    deployment.deploy();
+    assertEquals(Collections.singleton("foo"), mgr.getAssets("script").keySet());
+    assertEquals(Collections.singleton("bar"), mgr.getAssets("stylesheet").keySet());
+    assertEquals(0, mgr.getAssets("module").size());
+    deployment.undeploy();
+    assertEquals(0, mgr.getAssets("script").size());
+    assertNull(mgr.getAsset("foo"));
+  }
+
+  @Test
+  public void testResolveOrder() {
+    AssetManager mgr = new AssetManager("", ResourceResolver.NULL_RESOLVER);
+    AssetDeployment deployment = mgr.createDeployment();
+    deployment.addAsset("a", "script", AssetLocation.APPLICATION, "a.js", null, null, null, DUMMY_URL, "c");
+    deployment.addAsset("b", "script", AssetLocation.APPLICATION, "b.js", null, null, null, DUMMY_URL);
+    deployment.addAsset("c", "script", AssetLocation.APPLICATION, "c.js", null, null, null, DUMMY_URL, "b");
+    deployment.addAsset("d", "script", AssetLocation.APPLICATION, "d.js", null, null, null, DUMMY_URL);
+    deployment.deploy();
+    Iterable<Asset> resolved = mgr.resolveAssets(Arrays.asList("d", "a", "d"));
+    List<Asset> assets = Tools.list(resolved);
+    assertEquals(4, assets.size());
+    assertEquals("d", assets.get(0).getId());
+    assertEquals("b", assets.get(1).getId());
+    assertEquals("c", assets.get(2).getId());
+    assertEquals("a", assets.get(3).getId());
+    assertSame(resolved, mgr.resolveAssets(Arrays.asList("d", "a")));
+    mgr.createDeployment().addAsset("e", "script", AssetLocation.APPLICATION, "e.js", null, null, null, DUMMY_URL).deploy();
+    assertNotSame(resolved, mgr.resolveAssets(Arrays.asList("d", "a")));
+  }
+
+  @Test
+  public void testFingerprint() {
+    AssetManager mgr = new AssetManager("/assets/", ResourceResolver.NULL_RESOLVER);
+    mgr.createDeployment().addAsset("foo", "script", AssetLocation.APPLICATION, "/assets/foo.js", null, "/assets/foo-min.js", null, "abc", "def", DUMMY_URL, Collections.<String>emptySet()).deploy();
+    Asset asset = mgr.getAsset("foo");
+    assertEquals("/assets/foo.js", asset.resolveURI(false));
+    assertEquals("/-def/assets/foo-min.js", asset.resolveURI(true));
+    AssetResource resource = mgr.resolveApplicationAssetResource("/assets/foo.js");
+    assertSame(DUMMY_URL, resource.url);
+    assertFalse(resource.immutable);
+    resource = mgr.resolveApplicationAssetResource("/-abc/assets/foo.js");
+    assertSame(DUMMY_URL, resource.url);
+    assertTrue(resource.immutable);
+    assertTrue(mgr.resolveApplicationAssetResource("/-def/assets/foo-min.js").immutable);
+    assertFalse(mgr.resolveApplicationAssetResource("/-123/assets/foo.js").immutable);
+  }
+
+  @Test
+  public void testBundle() throws Exception {
+    File foo = File.createTempFile("foo", ".js");
+    foo.deleteOnExit();
+    Tools.write("var foo = 1", foo);
+    File bar = File.createTempFile("bar", ".js");
+    bar.deleteOnExit();
+    Tools.write("var bar = foo // bar", bar);
+    AssetManager mgr = new AssetManager("/assets/", ResourceResolver.NULL_RESOLVER);
+    AssetDeployment deployment = mgr.createDeployment();
+    deployment.addAsset("foo", "script", AssetLocation.APPLICATION, "/assets/foo.js", null, null, null, foo.toURI().toURL());
+    deployment.addAsset("bar", "script", AssetLocation.APPLICATION, "/assets/bar.js", null, null, null, bar.toURI().toURL(), "foo");
+    deployment.deploy();
+    List<Asset> assets = Tools.list(mgr.resolveAssets(Collections.singletonList("bar")));
+    String uri = mgr.resolveBundle(assets, false);
+    assertTrue(uri.startsWith(AssetManager.BUNDLE_PREFIX));
+    assertTrue(uri.endsWith(".js"));
+    assertSame(uri, mgr.resolveBundle(assets, false));
+    AssetCache.Entry bundle = mgr.getBundle(uri);
+    assertEquals("var foo = 1\n;\nvar bar = foo // bar\n;\n", new String(bundle.data, Tools.UTF_8));
+    assertEquals('"' + uri.substring(AssetManager.BUNDLE_PREFIX.length(), uri.indexOf('/', AssetManager.BUNDLE_PREFIX.length())) + '"', bundle.etag);
+
+    // Another server with the same assets rebuilds the bundle from its uri
+    AssetCache.Entry rebuilt = deploy(foo, bar).getBundle(uri);
+    assertNotNull(rebuilt);
+    assertEquals(bundle.etag, rebuilt.etag);
+    AssetManager other = deploy(foo, bar);
+    assertNull(other.getBundle(AssetManager.BUNDLE_PREFIX + "0/src/foo/bar.js"));
+    assertNotNull(other.getBundle(uri));
+    assertNull(other.getBundle(AssetManager.BUNDLE_PREFIX + "0/src/foo/foo/bar.js"));
+    assertNull(other.getBundle(AssetManager.BUNDLE_PREFIX + "0/src/foo.js"));
+
+    // The bundle is not rebuilt when its content changed
+    Tools.write("var bar = 2", bar);
+    assertNull(deploy(foo, bar).getBundle(uri));
+
+    //
+    deployment.undeploy();
+    assertNull(mgr.getBundle(uri));
+  }
+
+  private AssetManager deploy(File foo, File bar) throws Exception {
+    AssetManager mgr = new AssetManager("/assets/", ResourceResolver.NULL_RESOLVER);
+    AssetDeployment deployment = mgr.createDeployment();
+    deployment.addAsset("foo", "script", AssetLocation.APPLICATION, "/assets/foo.js", null, null, null, foo.toURI().toURL());
+    deployment.addAsset("bar", "script", AssetLocation.APPLICATION, "/assets/bar.js", null, null, null, bar.toURI().toURL(), "foo");
+    deployment.deploy();
+    return mgr;
+  }
+
+  @Test
+  public void testBundleRelativeStylesheet() throws Exception {
+    File foo = File.createTempFile("foo", ".css");
+    foo.deleteOnExit();
+    Tools.write("a { color: red }", foo);
+    File bar = File.createTempFile("bar", ".css");
+    bar.deleteOnExit();
+    Tools.write("a { background: url(bar.png) }", bar);
+    AssetManager mgr = new AssetManager("/assets/", ResourceResolver.NULL_RESOLVER);
+    AssetDeployment deployment = mgr.createDeployment();
+    deployment.addAsset("foo", "stylesheet", AssetLocation.APPLICATION, "/assets/foo.css", null, null, null, foo.toURI().toURL());
+    deployment.addAsset("bar", "stylesheet", AssetLocation.APPLICATION, "/assets/bar.css", null, null, null, bar.toURI().toURL());
+    deployment.deploy();
+    assertNull(mgr.resolveBundle(Arrays.asList(mgr.getAsset("foo"), mgr.getAsset("bar")), false));
+    assertNotNull(mgr.resolveBundle(Collections.singletonList(mgr.getAsset("foo")), false));
+  }
 }
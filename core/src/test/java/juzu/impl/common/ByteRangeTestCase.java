@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.common;
+
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ByteRangeTestCase extends AbstractTestCase {
+
+  private void assertRange(long first, long last, ByteRange range) {
+    assertNotNull(range);
+    assertEquals(first, range.first);
+    assertEquals(last, range.last);
+  }
+
+  @Test
+  public void testParse() {
+    assertRange(0, 99, ByteRange.parse("bytes=0-99", 1000));
+    assertRange(100, 999, ByteRange.parse("bytes=100-", 1000));
+    assertRange(900, 999, ByteRange.parse("bytes=-100", 1000));
+    assertRange(0, 999, ByteRange.parse("bytes=-2000", 1000));
+    assertRange(500, 999, ByteRange.parse("bytes=500-2000", 1000));
+    assertRange(0, 199, ByteRange.parse("bytes=0-99, 100-199", 1000));
+    assertRange(10, 999, ByteRange.parse("bytes=10-20, 2000-3000, -1", 1000));
+    assertEquals("bytes 0-99/1000", ByteRange.parse("bytes=0-99", 1000).getContentRange(1000));
+    assertEquals(100, ByteRange.parse("bytes=0-99", 1000).getLength());
+  }
+
+  @Test
+  public void testIgnored() {
+    assertNull(ByteRange.parse(null, 1000));
+    assertNull(ByteRange.parse("items=0-99", 1000));
+    assertNull(ByteRange.parse("bytes=", 1000));
+    assertNull(ByteRange.parse("bytes=99-0", 1000));
+    assertNull(ByteRange.parse("bytes=a-b", 1000));
+    assertNull(ByteRange.parse("bytes=0-99", -1));
+    StringBuilder many = new StringBuilder("bytes=0-0");
+    for (int i = 1;i <= 16;i++) {
+      many.append(',').append(i).append('-').append(i);
+    }
+    assertNull(ByteRange.parse(many.toString(), 1000));
+  }
+
+  @Test
+  public void testNotSatisfiable() {
+    assertSame(ByteRange.NOT_SATISFIABLE, ByteRange.parse("bytes=1000-", 1000));
+    assertSame(ByteRange.NOT_SATISFIABLE, ByteRange.parse("bytes=-0", 1000));
+    assertSame(ByteRange.NOT_SATISFIABLE, ByteRange.parse("bytes=0-", 0));
+    assertEquals("bytes */1000", ByteRange.NOT_SATISFIABLE.getContentRange(1000));
+  }
+
+  @Test
+  public void testIfRange() {
+    assertTrue(ByteRange.matchesIfRange(null, "\"abc\"", 0));
+    assertTrue(ByteRange.matchesIfRange("\"abc\"", "\"abc\"", 0));
+    assertFalse(ByteRange.matchesIfRange("\"def\"", "\"abc\"", 0));
+    assertFalse(ByteRange.matchesIfRange("W/\"abc\"", "\"abc\"", 0));
+    assertTrue(ByteRange.matchesIfRange("Sun, 06 Nov 1994 08:49:37 GMT", "\"abc\"", 784111777000L));
+    assertTrue(ByteRange.matchesIfRange("Sun, 06 Nov 1994 08:49:37 GMT", "\"abc\"", 784111777500L));
+    assertFalse(ByteRange.matchesIfRange("Sun, 06 Nov 1994 08:49:38 GMT", "\"abc\"", 784111777000L));
+    assertFalse(ByteRange.matchesIfRange("Sun, 06 Nov 1994 08:49:37 GMT", "\"abc\"", 0));
+    assertFalse(ByteRange.matchesIfRange("not a date", "\"abc\"", 784111777000L));
+  }
+}
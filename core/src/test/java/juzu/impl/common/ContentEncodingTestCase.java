@@ -0,0 +1,91 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.common;
+
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ContentEncodingTestCase extends AbstractTestCase {
+
+  @Test
+  public void testNegotiate() {
+    assertEquals(null, ContentEncoding.negotiate(null));
+    assertEquals(null, ContentEncoding.negotiate(""));
+    assertEquals(null, ContentEncoding.negotiate("identity"));
+    assertEquals(null, ContentEncoding.negotiate("br"));
+    assertEquals("gzip", ContentEncoding.negotiate("gzip, deflate"));
+    assertEquals("gzip", ContentEncoding.negotiate("deflate, gzip"));
+    assertEquals("gzip", ContentEncoding.negotiate("x-gzip"));
+    assertEquals("deflate", ContentEncoding.negotiate("gzip;q=0.5, deflate"));
+    assertEquals("deflate", ContentEncoding.negotiate("gzip;q=0, *"));
+    assertEquals("gzip", ContentEncoding.negotiate("*"));
+    assertEquals(null, ContentEncoding.negotiate("*;q=0"));
+  }
+
+  @Test
+  public void testCompressible() {
+    assertTrue(ContentEncoding.isCompressible("text/html"));
+    assertTrue(ContentEncoding.isCompressible("application/javascript"));
+    assertTrue(ContentEncoding.isCompressible("image/svg+xml"));
+    assertFalse(ContentEncoding.isCompressible("image/png"));
+    assertFalse(ContentEncoding.isCompressible("application/zip"));
+    assertFalse(ContentEncoding.isCompressible(null));
+  }
+
+  @Test
+  public void testEncode() throws IOException {
+    byte[] data = new byte[10000];
+    for (int i = 0;i < data.length;i++) {
+      data[i] = (byte)('a' + i % 7);
+    }
+    for (int i = 0;i < 2;i++) {
+      byte[] gzip = ContentEncoding.encode(ContentEncoding.GZIP, data);
+      assertTrue(gzip.length < data.length);
+      assertTrue(Arrays.equals(data, read(new GZIPInputStream(new ByteArrayInputStream(gzip)))));
+      byte[] deflate = ContentEncoding.encode(ContentEncoding.DEFLATE, data);
+      assertTrue(deflate.length < data.length);
+      assertTrue(Arrays.equals(data, read(new InflaterInputStream(new ByteArrayInputStream(deflate)))));
+    }
+    assertTrue(Arrays.equals(new byte[0], read(new GZIPInputStream(new ByteArrayInputStream(ContentEncoding.encode(ContentEncoding.GZIP, new byte[0]))))));
+  }
+
+  @Test
+  public void testFlush() throws IOException {
+    byte[] data = "hello".getBytes(Tools.UTF_8);
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    OutputStream out = ContentEncoding.encode(ContentEncoding.GZIP, buffer);
+    out.flush();
+    out.write(data);
+    out.flush();
+    out.close();
+    assertTrue(Arrays.equals(data, read(new GZIPInputStream(new ByteArrayInputStream(buffer.toByteArray())))));
+  }
+
+  private byte[] read(InputStream in) throws IOException {
+    return Tools.copy(in, new ByteArrayOutputStream()).toByteArray();
+  }
+}
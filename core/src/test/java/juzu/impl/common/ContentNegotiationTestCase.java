@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.common;
+
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ContentNegotiationTestCase extends AbstractTestCase {
+
+  private List<String> negotiate(String accept, String... mimeTypes) {
+    return Arrays.asList(ContentNegotiation.negotiate(accept, mimeTypes));
+  }
+
+  @Test
+  public void testNoAccept() {
+    assertEquals(Arrays.asList("text/html", "application/json"), negotiate(null, "text/html", "application/json"));
+    assertEquals(Arrays.asList("text/html", "application/json"), negotiate("", "text/html", "application/json"));
+    assertEquals(Arrays.asList("text/html", "application/json"), negotiate("image/png", "text/html", "application/json"));
+  }
+
+  @Test
+  public void testQuality() {
+    assertEquals(Arrays.asList("application/json", "text/html"), negotiate("application/json", "text/html", "application/json"));
+    assertEquals(Arrays.asList("application/json", "text/html"), negotiate("text/html;q=0.5, application/json", "text/html", "application/json"));
+    assertEquals(Arrays.asList("text/html", "application/json"), negotiate("*/*", "text/html", "application/json"));
+    assertEquals(Arrays.asList("text/html", "application/json"), negotiate("application/json;q=0, text/*", "application/json", "text/html"));
+  }
+
+  @Test
+  public void testSpecificity() {
+    assertEquals(Arrays.asList("application/json", "text/plain", "text/html"), negotiate("text/*;q=0.5, text/html;q=0.1, */*", "text/html", "text/plain", "application/json"));
+    assertEquals(Arrays.asList("application/json", "text/html"), negotiate("TEXT/HTML;q=0.2,,*/*;q=0.4", "text/html", "application/json"));
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.common;
+
+import juzu.request.RequestParameter;
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class FormURLEncodedReaderTestCase extends AbstractTestCase {
+
+  private Map<String, RequestParameter> read(String s) throws IOException {
+    return read(s, 1024, 16);
+  }
+
+  private Map<String, RequestParameter> read(String s, int maxSize, int maxParameters) throws IOException {
+    return new FormURLEncodedReader(Tools.UTF_8, maxSize, maxParameters).read(new ByteArrayInputStream(s.getBytes(Tools.UTF_8)));
+  }
+
+  @Test
+  public void testRead() throws Exception {
+    assertEquals(0, read("").size());
+    Map<String, RequestParameter> parameters = read("a=b&c=d+e&f=%C3%A7&g&h=i=j&a=k");
+    assertEquals(5, parameters.size());
+    assertEquals(RequestParameter.create("a", new String[]{"b", "k"}), parameters.get("a"));
+    assertEquals("d e", parameters.get("c").getValue());
+    assertEquals("d+e", parameters.get("c").getRaw(0));
+    assertEquals("ç", parameters.get("f").getValue());
+    assertEquals("", parameters.get("g").getValue());
+    assertEquals("i=j", parameters.get("h").getValue());
+  }
+
+  @Test
+  public void testMalformed() throws Exception {
+    Map<String, RequestParameter> parameters = read("&a=%4&b=%zz&=c&&d=%41");
+    assertEquals(1, parameters.size());
+    assertEquals("A", parameters.get("d").getValue());
+  }
+
+  @Test
+  public void testSmallReads() throws Exception {
+    final byte[] bytes = "foo=%E2%82%AC&bar=juu".getBytes(Tools.UTF_8);
+    InputStream in = new InputStream() {
+      int index = 0;
+      @Override
+      public int read() throws IOException {
+        return index < bytes.length ? bytes[index++] & 0xFF : -1;
+      }
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+        if (index < bytes.length) {
+          b[off] = bytes[index++];
+          return 1;
+        } else {
+          return -1;
+        }
+      }
+    };
+    Map<String, RequestParameter> parameters = new FormURLEncodedReader(Tools.UTF_8, 1024, 16).read(in);
+    assertEquals("€", parameters.get("foo").getValue());
+    assertEquals("juu", parameters.get("bar").getValue());
+  }
+
+  @Test
+  public void testBounds() throws Exception {
+    assertEquals(2, read("a=b&c=d", 7, 2).size());
+    try {
+      read("a=b&c=d", 6, 2);
+      fail();
+    }
+    catch (FormURLEncodedReader.LimitExceededException expected) {
+    }
+    try {
+      read("a=b&c=d&e=f", 1024, 2);
+      fail();
+    }
+    catch (FormURLEncodedReader.LimitExceededException expected) {
+    }
+  }
+}
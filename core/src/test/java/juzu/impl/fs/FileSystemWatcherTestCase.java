@@ -0,0 +1,86 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.fs;
+
+import juzu.impl.common.Logger;
+import juzu.impl.common.Resource;
+import juzu.impl.common.Tools;
+import juzu.impl.fs.spi.disk.DiskFileSystem;
+import juzu.impl.fs.spi.ram.RAMFileSystem;
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+import java.io.File;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class FileSystemWatcherTestCase extends AbstractTestCase {
+
+  @Test
+  public void testWatch() throws Exception {
+    File root = File.createTempFile("juzu", "");
+    assertTrue(root.delete());
+    assertTrue(root.mkdirs());
+    root.deleteOnExit();
+    FileSystemWatcher<File> watcher = new FileSystemWatcher<File>(Logger.SYSTEM, new DiskFileSystem(root));
+    try {
+      watcher.start();
+      assertTrue(watcher.clearChanges());
+      assertFalse(watcher.clearChanges());
+      File dir = new File(root, "foo");
+      assertTrue(dir.mkdir());
+      dir.deleteOnExit();
+      assertChanged(watcher);
+      Thread.sleep(100);
+      watcher.clearChanges();
+      File bar = new File(dir, "bar.txt");
+      Tools.write("bar", bar);
+      bar.deleteOnExit();
+      assertChanged(watcher);
+    }
+    finally {
+      watcher.close();
+    }
+  }
+
+  @Test
+  public void testPoll() throws Exception {
+    RAMFileSystem fs = new RAMFileSystem();
+    FileSystemWatcher<String[]> watcher = new FileSystemWatcher<String[]>(Logger.SYSTEM, fs, 10);
+    try {
+      watcher.start();
+      assertTrue(watcher.clearChanges());
+      Thread.sleep(50);
+      assertFalse(watcher.clearChanges());
+      waitForOneMillis();
+      fs.updateResource(fs.makePath(fs.getRoot(), "foo.txt"), new Resource("foo"));
+      assertChanged(watcher);
+    }
+    finally {
+      watcher.close();
+    }
+  }
+
+  private void assertChanged(FileSystemWatcher<?> watcher) throws InterruptedException {
+    for (int i = 0;i < 200;i++) {
+      if (watcher.clearChanges()) {
+        return;
+      }
+      Thread.sleep(50);
+    }
+    fail("No change detected");
+  }
+}
@@ -97,4 +97,28 @@ public class ScannerTestCase extends AbstractTestCase {
     snapshot = snapshot.scan();
     assertEquals(Collections.<String, Change>emptyMap(), snapshot.getChanges());
   }
+
+  @Test
+  public void testTimestampedHashing() throws IOException {
+    RAMFileSystem fs = new RAMFileSystem();
+    FileSystemScanner<String[]> scanner = FileSystemScanner.createTimestampedHashing(fs);
+    String[] foo = fs.makePath(fs.getRoot(), "foo.txt");
+    fs.updateResource(foo, new Resource("foo"));
+
+    //
+    Snapshot<String[]> snapshot = scanner.take().scan();
+    assertEquals(Collections.singletonMap("/foo.txt", Change.ADD), snapshot.getChanges());
+
+    // Touched with the same content
+    waitForOneMillis();
+    fs.updateResource(foo, new Resource("foo"));
+    snapshot = snapshot.scan();
+    assertEquals(Collections.<String, Change>emptyMap(), snapshot.getChanges());
+
+    //
+    waitForOneMillis();
+    fs.updateResource(foo, new Resource("bar"));
+    snapshot = snapshot.scan();
+    assertEquals(Collections.singletonMap("/foo.txt", Change.UPDATE), snapshot.getChanges());
+  }
 }
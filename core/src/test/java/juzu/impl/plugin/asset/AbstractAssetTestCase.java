@@ -40,12 +40,13 @@ public abstract class AbstractAssetTestCase extends AbstractWebTestCase {
 
   protected abstract String getExpectedAsset();
 
-  protected int getExpectedMaxAge() {
-    return 3600;
+  protected Integer getExpectedMaxAge() {
+    return null;
   }
 
   protected String getExpectedCacheControl() {
-    return "max-age=" + getExpectedMaxAge();
+    Integer maxAge = getExpectedMaxAge();
+    return maxAge != null ? "max-age=" + maxAge : "immutable, max-age=31536000";
   }
 
   protected String getExpectedContent() {
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.plugin.asset;
+
+import juzu.impl.common.JSON;
+import juzu.impl.common.Tools;
+import juzu.impl.fs.spi.ReadWriteFileSystem;
+import juzu.test.AbstractTestCase;
+import juzu.test.CompilerAssert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class FingerprintTestCase extends AbstractTestCase {
+
+  @Test
+  public void testFingerprint() throws Exception {
+    CompilerAssert<File, File> compiler = compiler("plugin.asset.minified");
+    compiler.assertCompile();
+    ReadWriteFileSystem<File> classOutput = compiler.getClassOutput();
+    JSON config = (JSON)JSON.parse(Tools.read(classOutput.getPath("plugin", "asset", "minified", "config.json")));
+    JSON assets = config.getJSON("asset").getJSON("assets");
+    assertEquals(1, assets.getSize());
+    JSON asset = assets.getJSON(assets.names().iterator().next());
+    assertEquals(fingerprint(classOutput.getPath("plugin", "asset", "minified", "assets", "test.js")), asset.getString("fingerprint"));
+    assertEquals(fingerprint(classOutput.getPath("plugin", "asset", "minified", "assets", "minified.js")), asset.getString("minified-fingerprint"));
+  }
+
+  private String fingerprint(File file) throws Exception {
+    byte[] content = Tools.bytes(new FileInputStream(file));
+    return Long.toHexString(Tools.md5(content));
+  }
+}
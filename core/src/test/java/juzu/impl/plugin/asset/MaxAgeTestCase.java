@@ -33,7 +33,7 @@ public class MaxAgeTestCase extends AbstractAssetTestCase {
   }
 
   @Override
-  protected int getExpectedMaxAge() {
+  protected Integer getExpectedMaxAge() {
     return 1000;
   }
 }
@@ -25,7 +25,13 @@ import juzu.test.AbstractTestCase;
 import juzu.test.CompilerAssert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public class ResolverTestCase extends AbstractTestCase {
@@ -220,4 +226,81 @@ public class ResolverTestCase extends AbstractTestCase {
     handler = resolver.resolve((String)null, "fooArg", Collections.<String>singleton("bar"));
     assertNull(handler);
   }
+
+  private static class TestResolver extends ControllerResolver<String> {
+
+    /** . */
+    private final String[] handlers;
+
+    /** . */
+    private final Map<String, Set<String>> parameterNames = new HashMap<String, Set<String>>();
+
+    private TestResolver(String... handlers) {
+      this.handlers = handlers;
+    }
+
+    private TestResolver with(String handler, Set<String> names) {
+      parameterNames.put(handler, names);
+      return this;
+    }
+
+    @Override
+    public String[] getHandlers() {
+      return handlers;
+    }
+
+    @Override
+    public String getId(String handler) {
+      return "A." + handler;
+    }
+
+    @Override
+    public Phase getPhase(String handler) {
+      return Phase.VIEW;
+    }
+
+    @Override
+    public String getName(String handler) {
+      return handler;
+    }
+
+    @Override
+    public boolean isDefault(String handler) {
+      return true;
+    }
+
+    @Override
+    public Collection<String> getParameterNames(String handler) {
+      Set<String> names = parameterNames.get(handler);
+      return names != null ? names : Collections.<String>emptySet();
+    }
+  }
+
+  @Test
+  public void testResolutionOrder() throws Exception {
+    Set<String> wide = new HashSet<String>();
+    for (int i = 0;i < 100;i++) {
+      wide.add("p" + i);
+    }
+    TestResolver resolver = new TestResolver("a", "b", "c", "d").
+        with("a", Tools.<String>set("foo")).
+        with("b", Tools.<String>set("foo", "bar")).
+        with("c", wide).
+        with("d", Tools.<String>set("p99", "juu"));
+
+    //
+    assertEquals(Arrays.asList("a", "b", "d", "c"), resolver.resolveMethods(Phase.VIEW, null, Tools.<String>set("foo")));
+    assertEquals(Arrays.asList("d", "c", "a", "b"), resolver.resolveMethods(Phase.VIEW, null, Tools.<String>set("p99", "juu", "daa")));
+    assertEquals(Arrays.asList("c", "a", "b", "d"), resolver.resolveMethods(Phase.VIEW, null, Tools.<String>set("p0", "p64")));
+    assertEquals("c", resolver.resolveMethod(Phase.VIEW, null, Tools.<String>set("p0", "p64")));
+    assertEquals(Collections.<String>emptyList(), resolver.resolveMethods(Phase.ACTION, null, Tools.<String>set("foo")));
+    assertNull(resolver.resolve((String)null, "a", Tools.<String>set("foo", "bar")));
+    assertEquals("b", resolver.resolve("A", "b", Tools.<String>set("foo", "bar")));
+    try {
+      new TestResolver("a", "b").resolveMethod(Phase.VIEW, null, Tools.<String>set("foo"));
+      fail();
+    }
+    catch (AmbiguousResolutionException e) {
+    }
+  }
 }
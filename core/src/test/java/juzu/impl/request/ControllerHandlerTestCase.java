@@ -0,0 +1,92 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.request;
+
+import juzu.request.Phase;
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ControllerHandlerTestCase extends AbstractTestCase {
+
+  public static class Controller {
+    public String index(int value, String s) {
+      if (s == null) {
+        throw new NullPointerException();
+      }
+      return s + value;
+    }
+  }
+
+  private ControllerHandler<Phase.View> handler() throws Exception {
+    Method method = Controller.class.getMethod("index", int.class, String.class);
+    return new ControllerHandler<Phase.View>(
+        null,
+        Phase.VIEW,
+        Controller.class,
+        method,
+        Arrays.<ControlParameter>asList(new ContextualParameter("value", int.class), new ContextualParameter("s", String.class)),
+        new HandlerInvoker() {
+          public Object invoke(Object controller, Object[] args) throws Throwable {
+            return ((Controller)controller).index((Integer)args[0], (String)args[1]);
+          }
+        });
+  }
+
+  @Test
+  public void testInvoke() throws Exception {
+    assertEquals("foo3", handler().invoke(new Controller(), new Object[]{3, "foo"}));
+  }
+
+  @Test
+  public void testMethodFailure() throws Exception {
+    try {
+      handler().invoke(new Controller(), new Object[]{3, null});
+      fail();
+    }
+    catch (InvocationTargetException e) {
+      assertInstanceOf(NullPointerException.class, e.getCause());
+    }
+  }
+
+  @Test
+  public void testBindingFailure() throws Exception {
+    ControllerHandler<Phase.View> handler = handler();
+    try {
+      handler.invoke(new Controller(), new Object[]{null, "foo"});
+      fail();
+    }
+    catch (IllegalArgumentException expected) {
+    }
+    try {
+      handler.invoke(new Controller(), new Object[]{"3", "foo"});
+      fail();
+    }
+    catch (IllegalArgumentException expected) {
+    }
+    try {
+      handler.invoke(new Controller(), new Object[]{3});
+      fail();
+    }
+    catch (IllegalArgumentException expected) {
+    }
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.router;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class CompiledRouteTestCase extends AbstractControllerTestCase {
+
+  /** . */
+  private static final String[] PATHS = {
+      "", "/", "//", "/a", "/a/", "/a/b", "/a/b/", "/a//b", "/a/b/c", "/a/c", "/b", "/b/a", "/foo", "/foo/bar",
+      "/foo/bar/juu", "/foo_bar", "/foo%2Fbar", "/foo%5Fbar", "/foo.html", "/a/foo.html", "/a/b/foo.html",
+      "/123", "/a/123", "/a/123/b", "/abc/def", "/x/y/z", "/c"
+  };
+
+  private List<Object> collect(Route route, String path) {
+    List<Object> results = new ArrayList<Object>();
+    Iterator<RouteMatch> matches = route.matcher(path, Collections.<String, String[]>emptyMap());
+    while (matches.hasNext()) {
+      RouteMatch match = matches.next();
+      results.add(match.getRoute());
+      for (Map.Entry<PathParam, String> entry : match.getMatched().entrySet()) {
+        results.add(entry.getKey().getName() + "=" + entry.getValue());
+      }
+    }
+    return results;
+  }
+
+  private void assertEquivalent(Router router) {
+    List<List<Object>> expected = new ArrayList<List<Object>>();
+    for (String path : PATHS) {
+      expected.add(collect(router, path));
+    }
+    router.compile();
+    for (int i = 0;i < PATHS.length;i++) {
+      assertEquals("Unexpected result for " + PATHS[i], expected.get(i), collect(router, PATHS[i]));
+    }
+  }
+
+  @Test
+  public void testSegments() throws Exception {
+    Router router = new Router();
+    router.append("/a");
+    router.append("/a/b");
+    router.append("/b");
+    router.append("/a", RouteKind.CONNECT).append("/c");
+    router.append("/a/b/c");
+    router.append("/a/b");
+    router.append("/foo/bar");
+    router.append("/");
+    assertEquivalent(router);
+  }
+
+  @Test
+  public void testPatterns() throws Exception {
+    Router router = new Router();
+    router.append("/{a}");
+    router.append("/a/{b}");
+    router.append("/{a}/b");
+    router.append("/{c}.html");
+    router.append("/{a}", Collections.singletonMap(Names.A, PathParam.matching("[0-9]+")));
+    router.append("/a/{b}/{c}");
+    router.append("/{p}", Collections.singletonMap(Names.P, PathParam.matching(".*").preservePath(true)));
+    assertEquivalent(router);
+  }
+
+  @Test
+  public void testMixed() throws Exception {
+    Router router = new Router();
+    router.append("/foo");
+    router.append("/{foo}");
+    router.append("/foo");
+    router.append("/a/{b}");
+    router.append("/a/b");
+    router.append("/a/{b}");
+    router.append("/", RouteKind.CONNECT).append("/c");
+    router.append("/a/b/{c}.html");
+    router.append("/{a}", RouteKind.CONNECT).append("/{b}");
+    assertEquivalent(router);
+  }
+
+  @Test
+  public void testSeparatorEscape() throws Exception {
+    Router router = new Router('_');
+    router.append("/{a}");
+    router.append("/foo/{b}", Collections.singletonMap(Names.B, PathParam.matching(".*").preservePath(true)));
+    router.append("/foo_bar");
+    assertEquivalent(router);
+  }
+
+  @Test
+  public void testAppendAfterCompile() throws Exception {
+    RouterAssert router = new RouterAssert();
+    Route a = router.append("/a");
+    router.compile();
+    router.assertRoute(a, "/a");
+    Route b = router.append("/b");
+    router.assertRoute(b, "/b");
+    router.compile();
+    router.assertRoute(a, "/a");
+    router.assertRoute(b, "/b");
+    assertNull(router.route("/c"));
+  }
+}
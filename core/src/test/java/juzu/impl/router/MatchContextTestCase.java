@@ -0,0 +1,82 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.router;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class MatchContextTestCase extends AbstractControllerTestCase {
+
+  private RouteMatch route(Route route, MatchContext context, String path) {
+    Iterator<RouteMatch> matcher = route.matcher(context, path, Collections.<String, String[]>emptyMap());
+    return matcher.hasNext() ? matcher.next() : null;
+  }
+
+  private String get(RouteMatch match, String name) {
+    for (Map.Entry<PathParam, String> entry : match.getMatched().entrySet()) {
+      if (entry.getKey().getName().equals(name)) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  @Test
+  public void testReuse() throws Exception {
+    Router router = new Router();
+    Route a = router.append("/a/{foo}");
+    Route b = router.append("/b/{bar}/{juu}");
+    MatchContext context = new MatchContext();
+
+    //
+    RouteMatch first = route(router, context, "/a/foo_value");
+    RouteMatch second = route(router, context, "/b/bar_value/juu_value");
+    RouteMatch third = route(router, context, "/c");
+
+    // The matches remain valid when the context is reused
+    assertSame(a, first.getRoute());
+    assertEquals("foo/value", get(first, Names.FOO));
+    assertSame(b, second.getRoute());
+    assertEquals("bar/value", get(second, Names.BAR));
+    assertEquals("juu/value", get(second, Names.JUU));
+    assertNull(third);
+  }
+
+  @Test
+  public void testEscapedSeparator() throws Exception {
+    Router router = new Router();
+    router.append("/{foo}");
+    MatchContext context = new MatchContext();
+    assertEquals("a/b_c", get(route(router, context, "/a_b%5Fc"), Names.FOO));
+    assertEquals("a/b", get(route(router, context, "/a_b"), Names.FOO));
+  }
+
+  @Test
+  public void testExhausted() throws Exception {
+    Router router = new Router();
+    router.append("/a");
+    Iterator<RouteMatch> matcher = router.matcher(new MatchContext(), "/a", Collections.<String, String[]>emptyMap());
+    assertTrue(matcher.hasNext());
+    matcher.next();
+    assertFalse(matcher.hasNext());
+    assertFalse(matcher.hasNext());
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.router;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class RenderCacheTestCase extends AbstractControllerTestCase {
+
+  @Test
+  public void testCachedValues() throws Exception {
+    Router router = new Router();
+    Route a = router.append("/{foo}", Collections.singletonMap(Names.FOO, PathParam.matching("[0-9]+")));
+    for (int i = 0;i < 2;i++) {
+      assertEquals("/123", a.matches(Collections.singletonMap(Names.FOO, "123")).render());
+      assertNull(a.matches(Collections.singletonMap(Names.FOO, "abc")));
+      assertNull(a.matches(Collections.<String, String>emptyMap()));
+    }
+    router.clearCache();
+    assertEquals("/123", a.matches(Collections.singletonMap(Names.FOO, "123")).render());
+  }
+
+  @Test
+  public void testUnmatched() throws Exception {
+    Router router = new Router();
+    Route a = router.append("/a/{foo}");
+    Map<String, String> parameters = new HashMap<String, String>();
+    parameters.put(Names.FOO, "foo");
+    parameters.put(Names.BAR, "bar");
+    for (int i = 0;i < 2;i++) {
+      RouteMatch match = a.matches(parameters);
+      assertEquals("/a/foo", match.render());
+      assertEquals(Collections.singletonMap(Names.BAR, "bar"), match.getUnmatched());
+      assertTrue(match.isMatched(Names.FOO));
+      assertFalse(match.isMatched(Names.BAR));
+      assertEquals(1, match.getMatched().size());
+    }
+  }
+
+  @Test
+  public void testAlternatives() throws Exception {
+    Router router = new Router();
+    Route a = router.append("/{foo}", Collections.singletonMap(Names.FOO, PathParam.matching("a(.)|b(.)").captureGroup(true)));
+    for (int i = 0;i < 2;i++) {
+      assertEquals("/a1", a.matches(Collections.singletonMap(Names.FOO, "1")).render());
+    }
+  }
+
+  @Test
+  public void testEmptyValue() throws Exception {
+    Router router = new Router();
+    Route a = router.append("/{foo}", Collections.singletonMap(Names.FOO, PathParam.matching(".*"))).append("/bar");
+    assertEquals("/x/bar", a.matches(Collections.singletonMap(Names.FOO, "x")).render());
+    assertEquals("/bar", a.matches(Collections.singletonMap(Names.FOO, "")).render());
+    assertEquals("/x/bar", a.matches(Collections.singletonMap(Names.FOO, "x")).render());
+  }
+}
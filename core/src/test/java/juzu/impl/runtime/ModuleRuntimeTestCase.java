@@ -0,0 +1,114 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.runtime;
+
+import juzu.impl.common.Logger;
+import juzu.impl.common.Resource;
+import juzu.impl.common.Tools;
+import juzu.impl.fs.spi.ram.RAMFileSystem;
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class ModuleRuntimeTestCase extends AbstractTestCase {
+
+  public static class Foo extends ArrayList<Logger> {
+    public static final int CONSTANT = 0;
+    public Resource resource(Level level) {
+      return null;
+    }
+  }
+
+  @Test
+  public void testReferences() throws Exception {
+    InputStream in = Foo.class.getResourceAsStream("ModuleRuntimeTestCase$Foo.class");
+    ClassReferences references;
+    try {
+      references = ClassReferences.parse(Tools.bytes(in));
+    }
+    finally {
+      in.close();
+    }
+    assertTrue(references.references.contains("java/util/ArrayList"));
+    assertTrue(references.references.contains("juzu/impl/common/Logger"));
+    assertTrue(references.references.contains("juzu/impl/common/Resource"));
+    assertTrue(references.references.contains("java/util/logging/Level"));
+    assertTrue(references.constants);
+  }
+
+  @Test
+  public void testIncremental() throws Exception {
+    final List<String> messages = new ArrayList<String>();
+    Logger logger = new Logger() {
+      @Override
+      protected void send(Level level, CharSequence msg, Throwable t) {
+        messages.add(msg.toString());
+      }
+    };
+    RAMFileSystem source = new RAMFileSystem();
+    write(source, "A", "public class A { public static String value() { return \"a\"; } }");
+    write(source, "B", "public class B { public String toString() { return A.value(); } }");
+    write(source, "C", "public class C { public String toString() { return \"c\"; } }");
+    ModuleRuntime.Dynamic<String[]> runtime = new ModuleRuntime.Dynamic<String[]>(logger, getClass().getClassLoader(), source);
+    assertTrue(runtime.refresh(true).get());
+    assertEquals("a", runtime.getClassLoader().loadClass("pkg.B").newInstance().toString());
+
+    // Recompile A and B
+    waitForOneMillis();
+    write(source, "A", "public class A { public static String value() { return \"b\"; } }");
+    messages.clear();
+    assertRefreshed(runtime);
+    assertTrue(messages.contains("Recompiling 2 compilation units"));
+    assertEquals("b", runtime.getClassLoader().loadClass("pkg.B").newInstance().toString());
+    assertEquals("c", runtime.getClassLoader().loadClass("pkg.C").newInstance().toString());
+
+    // Adding a class requires a full build
+    waitForOneMillis();
+    write(source, "D", "public class D { public static final String VALUE = \"d\"; }");
+    messages.clear();
+    assertRefreshed(runtime);
+    assertFalse(messages.toString(), messages.toString().contains("Recompiling"));
+
+    // Constants are inlined so a full build is required
+    waitForOneMillis();
+    write(source, "D", "public class D { public static final String VALUE = \"e\"; }");
+    messages.clear();
+    assertRefreshed(runtime);
+    assertFalse(messages.toString(), messages.toString().contains("Recompiling"));
+  }
+
+  private void assertRefreshed(ModuleRuntime<?> runtime) throws Exception {
+    // The source changes are polled by the watcher
+    for (int i = 0;i < 100;i++) {
+      if (runtime.refresh(true).get()) {
+        return;
+      }
+      Thread.sleep(50);
+    }
+    fail("No refresh");
+  }
+
+  private void write(RAMFileSystem fs, String name, String content) throws IOException {
+    fs.updateResource(new String[]{"pkg", name + ".java"}, new Resource("package pkg;\n" + content));
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.template.spi;
+
+import juzu.template.TemplateExecutionException;
+import juzu.template.TemplateRenderContext;
+import juzu.test.AbstractTestCase;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
+public class TemplateStubTestCase extends AbstractTestCase {
+
+  @Test
+  public void testConcurrentInit() throws Exception {
+    final CountDownLatch entered = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger count = new AtomicInteger();
+    final TemplateStub stub = new TemplateStub(getClass().getClassLoader(), "foo") {
+      @Override
+      protected void doInit(ClassLoader loader) {
+        count.incrementAndGet();
+        entered.countDown();
+        try {
+          release.await();
+        }
+        catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+      }
+      @Override
+      protected void doRender(TemplateRenderContext renderContext) throws TemplateExecutionException, IOException {
+      }
+    };
+    Thread initializer = new Thread() {
+      @Override
+      public void run() {
+        stub.init();
+      }
+    };
+    initializer.start();
+    assertTrue(entered.await(10, TimeUnit.SECONDS));
+    final CountDownLatch done = new CountDownLatch(1);
+    Thread waiter = new Thread() {
+      @Override
+      public void run() {
+        stub.init();
+        done.countDown();
+      }
+    };
+    waiter.start();
+    assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+    release.countDown();
+    assertTrue(done.await(10, TimeUnit.SECONDS));
+    initializer.join();
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    final AtomicInteger count = new AtomicInteger();
+    final TemplateStub stub = new TemplateStub(getClass().getClassLoader(), "foo") {
+      @Override
+      protected void doInit(ClassLoader loader) {
+        count.incrementAndGet();
+        throw new RuntimeException("failed");
+      }
+      @Override
+      protected void doRender(TemplateRenderContext renderContext) throws TemplateExecutionException, IOException {
+      }
+    };
+    try {
+      stub.init();
+      fail();
+    }
+    catch (RuntimeException e) {
+      assertEquals("failed", e.getMessage());
+    }
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        try {
+          stub.init();
+        }
+        catch (Throwable t) {
+          failure.set(t);
+        }
+      }
+    };
+    thread.start();
+    thread.join();
+    assertInstanceOf(IllegalStateException.class, failure.get());
+    assertEquals("failed", failure.get().getCause().getMessage());
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  public void testRecursiveInit() throws Exception {
+    final AtomicReference<TemplateStub> self = new AtomicReference<TemplateStub>();
+    TemplateStub stub = new TemplateStub(getClass().getClassLoader(), "foo") {
+      @Override
+      protected void doInit(ClassLoader loader) {
+        self.get().init();
+      }
+      @Override
+      protected void doRender(TemplateRenderContext renderContext) throws TemplateExecutionException, IOException {
+      }
+    };
+    self.set(stub);
+    try {
+      stub.init();
+      fail();
+    }
+    catch (IllegalStateException expected) {
+    }
+  }
+}
@@ -48,13 +48,17 @@ import java.util.concurrent.atomic.AtomicReference;
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
 public abstract class AbstractTemplateTestCase extends AbstractTestCase {
 
+  protected GroovyTemplateEmitter createEmitter(Name fqn) {
+    return new GroovyTemplateEmitter(fqn);
+  }
+
   public GroovyTemplateStub template(final String text) throws IOException, TemplateException {
     Name pkg = Name.parse("foo");
     Name name = Name.parse("index");
     Name fqn = pkg.append(name);
     Path.Absolute absolute = Path.absolute(fqn, ".gtmpl");
     Path.Relative relative = Path.relative(name, ".gtmpl");
-    GroovyTemplateEmitter generator = new GroovyTemplateEmitter(fqn);
+    GroovyTemplateEmitter generator = createEmitter(fqn);
     try {
       ProcessPhase processPhase = new ProcessPhase(new SimpleProcessContext(Collections.<Path.Absolute, TemplateModel<?>>emptyMap()) {
         @Override
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2013 eXo Platform SAS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package juzu.impl.template.spi.juzu.ast;
+
+import juzu.impl.common.Name;
+import juzu.impl.template.spi.juzu.dialect.gtmpl.GroovyTemplateEmitter;
+import org.junit.Test;
+
+/**
+ * Runs the rendering tests with the expressions printed directly.
+ *
+ * @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a>
+ */
+public class DirectPrintRenderingTestCase extends TemplateRenderingTestCase {
+
+  @Override
+  protected GroovyTemplateEmitter createEmitter(Name fqn) {
+    return new GroovyTemplateEmitter(fqn, true);
+  }
+
+  @Test
+  @Override
+  public void testExpressionLineNumber() throws Exception {
+    // A directly printed expression cannot be a statement
+    assertLineNumber(1, "Integer.parseInt('a')", "<%=Integer.parseInt('a')%>");
+    assertLineNumber(1, "Integer.parseInt('b')", "foo<%=Integer.parseInt('b')%>");
+    assertLineNumber(2, "Integer.parseInt('c')", "foo\n<%=Integer.parseInt('c')%>");
+  }
+}
@@ -368,7 +368,7 @@ public class TemplateRenderingTestCase extends AbstractTemplateTestCase {
     assertNotNull(out);
   }
 
-  private void assertLineNumber(int expectedLineNumber, String expectedText, String script) throws IOException, TemplateException {
+  protected void assertLineNumber(int expectedLineNumber, String expectedText, String script) throws IOException, TemplateException {
     GroovyTemplateStub template = template(script);
     try {
       new TemplateRenderContext(template).render(OutputStream.create());
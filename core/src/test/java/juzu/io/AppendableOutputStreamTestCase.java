@@ -19,6 +19,7 @@ package juzu.io;
 import juzu.test.AbstractTestCase;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
@@ -61,4 +62,16 @@ public class AppendableOutputStreamTestCase extends AbstractTestCase {
       }
     }
   }
+
+  @Test
+  public void testInputStream() throws IOException {
+    StringBuilder expected = new StringBuilder();
+    while (expected.length() <= OutputStream.COPY_BUFFER_SIZE) {
+      expected.append('A').append(EURO);
+    }
+    StringBuilder buffer = new StringBuilder();
+    OutputStream bos = OutputStream.create(UTF_8, buffer);
+    bos.provide(Chunk.create(new ByteArrayInputStream(expected.toString().getBytes(UTF_8))));
+    assertEquals(expected.toString(), buffer.toString());
+  }
 }
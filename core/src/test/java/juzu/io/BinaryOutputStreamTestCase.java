@@ -17,11 +17,19 @@
 package juzu.io;
 
 import juzu.impl.common.Tools;
+import juzu.impl.io.BinaryStream;
 import juzu.test.AbstractTestCase;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
 import static juzu.impl.common.Tools.UTF_8;
 
@@ -84,4 +92,68 @@ public class BinaryOutputStreamTestCase extends AbstractTestCase {
     bos.append("a" + EURO + "b");
     assertEquals("ab", buffer.toString());
   }
+
+  @Test
+  public void testInputStream() throws IOException {
+    byte[] data = new byte[OutputStream.COPY_BUFFER_SIZE * 3 + 1];
+    for (int i = 0;i < data.length;i++) {
+      data[i] = (byte)i;
+    }
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    OutputStream bos = OutputStream.create(UTF_8, buffer);
+    bos.provide(Chunk.create(new ByteArrayInputStream(data)));
+    assertTrue(Arrays.equals(data, buffer.toByteArray()));
+
+    //
+    File file = File.createTempFile("juzu", ".bin");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(data);
+    }
+    finally {
+      Tools.safeClose(out);
+    }
+    buffer = new ByteArrayOutputStream();
+    bos = OutputStream.create(UTF_8, buffer);
+    bos.provide(Chunk.create(new FileInputStream(file)));
+    assertTrue(Arrays.equals(data, buffer.toByteArray()));
+  }
+
+  @Test
+  public void testEncode() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0;i < 100;i++) {
+      sb.append("ascii").append('\u00E7').append(EURO).appendCodePoint(0x1F600);
+    }
+    String s = sb.toString();
+    for (Charset charset : new Charset[]{UTF_8, Tools.ISO_8859_1, Charset.forName("UTF-16BE")}) {
+      for (int bufferSize : new int[]{4, 7, BinaryStream.DEFAULT_BUFFER_SIZE}) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        OutputStream bos = OutputStream.create(charset, buffer, bufferSize);
+        bos.append(s);
+        bos.append(s, 3, 40);
+        bos.append(CharBuffer.wrap(s));
+        String expected = s + s.substring(3, 40) + s;
+        if (charset == Tools.ISO_8859_1) {
+          expected = expected.replace(EURO, "").replace(new String(Character.toChars(0x1F600)), "");
+        }
+        assertTrue(Arrays.equals(expected.getBytes(charset), buffer.toByteArray()));
+      }
+    }
+  }
+
+  @Test
+  public void testText() throws IOException {
+    Chunk.Data.Text text = Chunk.createText("a" + EURO + "b");
+    for (int i = 0;i < 2;i++) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+      OutputStream.create(UTF_8, buffer).provide(text);
+      assertEquals("a" + EURO + "b", new String(buffer.toByteArray(), UTF_8));
+      buffer = new ByteArrayOutputStream();
+      OutputStream.create(Tools.ISO_8859_1, buffer).provide(text);
+      assertEquals("ab", buffer.toString());
+    }
+    assertSame(text.getBytes(UTF_8), text.getBytes(UTF_8));
+  }
 }
@@ -17,14 +17,16 @@
 package juzu.test.protocol.mock;
 
 import juzu.HttpMethod;
+import juzu.impl.bridge.spi.HttpHeaders;
 import juzu.request.HttpContext;
 
 import javax.servlet.http.Cookie;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.regex.Pattern;
 
 /** @author <a href="mailto:julien.viet@exoplatform.com">Julien Viet</a> */
-public class MockHttpContext implements HttpContext {
+public class MockHttpContext implements HttpContext, HttpHeaders {
 
   /** . */
   private static final Pattern CONTEXT_PATH_PATTERN = Pattern.compile("(?:/.*[^/])?");
@@ -47,12 +49,16 @@ public class MockHttpContext implements HttpContext {
   /** . */
   private String contextPath;
 
+  /** . */
+  private final HashMap<String, String> headers;
+
   public MockHttpContext() {
     this.cookies = new ArrayList<Cookie>();
     this.scheme = "http";
     this.serverPort = 80;
     this.serverName = "localhost";
     this.contextPath = "";
+    this.headers = new HashMap<String, String>();
   }
 
   public HttpMethod getMethod() {
@@ -127,4 +133,16 @@ public class MockHttpContext implements HttpContext {
     }
     this.contextPath = contextPath;
   }
+
+  public String getHeader(String name) {
+    return headers.get(name);
+  }
+
+  public void setHeader(String name, String value) {
+    if (value != null) {
+      headers.put(name, value);
+    } else {
+      headers.remove(name);
+    }
+  }
 }